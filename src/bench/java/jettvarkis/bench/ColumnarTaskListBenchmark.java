@@ -0,0 +1,106 @@
+package jettvarkis.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import jettvarkis.storage.ColumnarTaskList;
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Compares the heap held by a list of tasks kept as Task objects in an ArrayList with
+ * one kept in a {@link ColumnarTaskList}, along with the time a full garbage collection
+ * and a scan reading every task take with each list.
+ * The tasks are a third each of todos, deadlines and events, as in a long-kept archive.
+ * Usage: ColumnarTaskListBenchmark [taskCount]
+ */
+public class ColumnarTaskListBenchmark {
+
+    private static final int DEFAULT_TASK_COUNT = 5_000_000;
+    private static final int SCANS = 3;
+
+    /**
+     * Runs the benchmark and prints the heap, direct memory and times for each list.
+     *
+     * @param args Optional task count.
+     */
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        System.out.printf("%d tasks, max heap %d MiB%n", taskCount, Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%-10s %10s %12s %10s %10s%n", "list", "heap (MiB)", "direct (MiB)", "gc (ms)",
+                "scan (ms)");
+        measure("ArrayList", new ArrayList<>(taskCount), taskCount);
+        measure("Columnar", new ColumnarTaskList(), taskCount);
+    }
+
+    private static void measure(String name, List<Task> tasks, int taskCount) {
+        long heapBefore = usedHeapAfterGc();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(createTask(i, start));
+        }
+        long heap = usedHeapAfterGc() - heapBefore;
+        long direct = tasks instanceof ColumnarTaskList ? ((ColumnarTaskList) tasks).getOffHeapBytes() : 0;
+
+        long gcBegin = System.nanoTime();
+        System.gc();
+        double gcMillis = (System.nanoTime() - gcBegin) / 1e6;
+
+        long scanBegin = System.nanoTime();
+        int dueCount = 0;
+        for (int scan = 0; scan < SCANS; scan++) {
+            dueCount = 0;
+            for (Task task : tasks) {
+                if (task instanceof Deadline && ((Deadline) task).isDueBefore(start.plusYears(100))) {
+                    dueCount++;
+                }
+            }
+        }
+        double scanMillis = (System.nanoTime() - scanBegin) / 1e6 / SCANS;
+        assert dueCount == (taskCount + 1) / 3;
+
+        System.out.printf("%-10s %10d %12d %10.0f %10.0f  (%d collections so far)%n", name, heap >> 20,
+                direct >> 20, gcMillis, scanMillis, countCollections());
+        tasks.clear();
+    }
+
+    private static Task createTask(int i, LocalDateTime start) {
+        Task task;
+        switch (i % 3) {
+        case 0:
+            task = new Todo("archived todo " + i);
+            break;
+        case 1:
+            task = new Deadline("archived deadline " + i, start.plusMinutes(i));
+            break;
+        default:
+            task = new Event("archived event " + i, start.plusMinutes(i), start.plusMinutes(i + 30));
+            break;
+        }
+        task.setId(i + 1);
+        if (i % 2 == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long countCollections() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,103 @@
+package jettvarkis.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import jettvarkis.ConcurrentTaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Measures how find throughput on a {@link ConcurrentTaskList} grows with the number of
+ * reading threads while one thread keeps marking and unmarking tasks.
+ * Each find either goes through {@link ConcurrentTaskList#findTasks}, which takes the
+ * shared read lock or scans the published snapshot while the writer holds the lock, or
+ * is run through {@link ConcurrentTaskList#update}, which takes the write lock as a
+ * single lock around the whole list would.
+ * Readers only run side by side on a machine with at least as many cores as reader
+ * threads. With fewer cores the threads take turns and the two columns say nothing
+ * about how reads scale, which the output points out.
+ * Usage: ConcurrentTaskListBenchmark [taskCount] [maxThreads] [millisPerRun]
+ */
+public class ConcurrentTaskListBenchmark {
+
+    private static final int DEFAULT_TASK_COUNT = 20_000;
+    private static final int DEFAULT_MAX_THREADS = 16;
+    private static final int DEFAULT_MILLIS_PER_RUN = 2_000;
+    private static final long WRITE_INTERVAL_NANOS = 100_000;
+
+    /**
+     * Runs the benchmark and prints the finds per second for each thread count and lock.
+     *
+     * @param args Optional task count, largest number of reading threads and length of each run.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_THREADS;
+        int millisPerRun = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MILLIS_PER_RUN;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Todo("benchmark task " + i + (i % 100 == 0 ? " report" : "")));
+        }
+        ConcurrentTaskList taskList = new ConcurrentTaskList(tasks);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d tasks, %d ms per run, %d available processors%n", taskCount, millisPerRun,
+                processors);
+        if (processors < maxThreads) {
+            System.out.printf("Only %d processors for up to %d readers: runs with more readers than processors "
+                    + "do not measure read scaling%n", processors, maxThreads);
+        }
+        System.out.printf("%-8s %16s %16s%n", "readers", "read lock (op/s)", "write lock (op/s)");
+        // The first run only warms up the JIT
+        measure(taskList, 1, millisPerRun, true);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double shared = measure(taskList, threads, millisPerRun, true);
+            double exclusive = measure(taskList, threads, millisPerRun, false);
+            System.out.printf("%-8d %16.0f %16.0f%n", threads, shared, exclusive);
+        }
+    }
+
+    private static double measure(ConcurrentTaskList taskList, int threads, int millis, boolean isShared)
+            throws InterruptedException {
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        LongAdder finds = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads + 1);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    while (isRunning.get()) {
+                        if (isShared) {
+                            taskList.findTasks("report");
+                        } else {
+                            taskList.update(() -> taskList.findTasks("report"));
+                        }
+                        finds.increment();
+                    }
+                } catch (JettVarkisException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        new Thread(() -> {
+            for (int i = 0; isRunning.get(); i = (i + 1) % taskList.getTaskCount()) {
+                taskList.markTask(i);
+                taskList.unmarkTask(i);
+                LockSupport.parkNanos(WRITE_INTERVAL_NANOS);
+            }
+            done.countDown();
+        }).start();
+        long start = System.nanoTime();
+        Thread.sleep(millis);
+        isRunning.set(false);
+        done.await();
+        return finds.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
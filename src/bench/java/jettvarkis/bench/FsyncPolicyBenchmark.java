@@ -0,0 +1,100 @@
+package jettvarkis.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.FsyncPolicy;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Measures the cost of each fsync policy for journal appends, alongside the cost of a full
+ * snapshot save, which is forced whatever the policy.
+ * Usage: FsyncPolicyBenchmark [taskCount] [iterations]
+ */
+public class FsyncPolicyBenchmark {
+
+    private static final int DEFAULT_TASK_COUNT = 10_000;
+    private static final int DEFAULT_ITERATIONS = 200;
+    private static final int WARMUP_ITERATIONS = 20;
+
+    /**
+     * Runs the benchmark and prints the mean snapshot save latency and the mean journal append
+     * latency for each policy.
+     *
+     * @param args Optional task count and number of measured iterations.
+     */
+    public static void main(String[] args) throws IOException, JettVarkisException {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Todo("benchmark task " + i));
+        }
+
+        System.out.printf("%d tasks, %d iterations%n", taskCount, iterations);
+        // A save that replaces the task file is always forced, so its cost does not depend on the policy
+        File snapshotDirectory = Files.createTempDirectory("jettvarkis-bench").toFile();
+        String snapshotPath = new File(snapshotDirectory, "tasks.txt").getPath();
+        double snapshotMicros = measureSnapshotSaves(new Storage(snapshotPath, false, FsyncPolicy.NEVER), tasks,
+                iterations);
+        System.out.printf("snapshot save (us): %.1f, forced under every policy%n", snapshotMicros);
+        deleteRecursively(snapshotDirectory);
+
+        System.out.printf("%-8s %18s%n", "policy", "journal append (us)");
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            File directory = Files.createTempDirectory("jettvarkis-bench").toFile();
+            String journalPath = new File(directory, "journaled.txt").getPath();
+            double appendMicros = measureJournalAppends(new Storage(journalPath, true, policy), iterations);
+            System.out.printf("%-8s %18.1f%n", policy, appendMicros);
+            deleteRecursively(directory);
+        }
+    }
+
+    private static double measureSnapshotSaves(Storage storage, ArrayList<Task> tasks, int iterations)
+            throws JettVarkisException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            storage.save(tasks);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            storage.save(tasks);
+        }
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static double measureJournalAppends(Storage storage, int iterations) throws JettVarkisException {
+        ArrayList<Task> tasks = storage.load();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            append(storage, tasks, "warmup " + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            append(storage, tasks, "appended " + i);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+        storage.close();
+        return micros;
+    }
+
+    private static void append(Storage storage, ArrayList<Task> tasks, String description)
+            throws JettVarkisException {
+        Task task = new Todo(description);
+        tasks.add(task);
+        storage.saveAdd(tasks, task);
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
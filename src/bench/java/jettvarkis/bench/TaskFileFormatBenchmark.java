@@ -0,0 +1,70 @@
+package jettvarkis.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.storage.TaskFileFormat;
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Compares loading the task file in the text and binary formats.
+ * Usage: TaskFileFormatBenchmark [taskCount] [iterations]
+ */
+public class TaskFileFormatBenchmark {
+
+    private static final int DEFAULT_TASK_COUNT = 100_000;
+    private static final int DEFAULT_ITERATIONS = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+
+    /**
+     * Runs the benchmark and prints the file size and mean load time for each format.
+     *
+     * @param args Optional task count and number of measured iterations.
+     */
+    public static void main(String[] args) throws IOException, JettVarkisException {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASK_COUNT;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        ArrayList<Task> tasks = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < taskCount; i++) {
+            switch (i % 3) {
+            case 0:
+                tasks.add(new Todo("benchmark todo " + i));
+                break;
+            case 1:
+                tasks.add(new Deadline("benchmark deadline " + i, start.plusHours(i)));
+                break;
+            default:
+                tasks.add(new Event("benchmark event " + i, start.plusHours(i), start.plusHours(i + 1)));
+                break;
+            }
+        }
+
+        System.out.printf("%d tasks, %d iterations%n", taskCount, iterations);
+        System.out.printf("%-8s %12s %12s%n", "format", "size (KiB)", "load (ms)");
+        File directory = Files.createTempDirectory("jettvarkis-bench").toFile();
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            String path = new File(directory, format + ".dat").getPath();
+            Storage storage = new Storage(path, false, Storage.DEFAULT_FSYNC_POLICY, format);
+            storage.save(tasks);
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                storage.load();
+            }
+            long begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                storage.load();
+            }
+            double millis = (System.nanoTime() - begin) / 1e6 / iterations;
+            System.out.printf("%-8s %12d %12.1f%n", format, new File(path).length() / 1024, millis);
+        }
+        FsyncPolicyBenchmark.deleteRecursively(directory);
+    }
+}
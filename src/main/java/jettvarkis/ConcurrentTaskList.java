@@ -0,0 +1,394 @@
+package jettvarkis;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.reminder.ReminderScheduler;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.Task;
+
+/**
+ * Represents a TaskList that can be shared between threads, such as a GUI and a
+ * scripting channel serving the same tasks.
+ * Queries take a shared read lock, so any number of them run at once, and changes
+ * take an exclusive write lock. Both are reentrant, so that a command run through
+ * {@link #update(Action)} can call the list again while it holds the lock.
+ * Every index is built when the list is constructed, since a query that built one on
+ * first use would change the list while other queries read it. Tasks loaded lazily are
+ * therefore all decoded up front.
+ * Each update ends by publishing the list's new {@link TaskSnapshot}, which readers can
+ * take and work on without any lock. {@link #getTasks()} returns it to threads that do
+ * not hold the lock, instead of copying the tasks. A find that would have to wait for
+ * the read lock scans the published snapshot instead of using the find index, so that
+ * neither listing nor finding tasks ever blocks behind an update. Other queries take
+ * the read lock and wait for an update in progress.
+ */
+public class ConcurrentTaskList extends TaskList {
+
+    /**
+     * Represents a call on the underlying list that may throw a checked exception.
+     */
+    @FunctionalInterface
+    private interface LockedCall<T, E extends Exception> {
+        /**
+         * Makes the call.
+         *
+         * @return The result of the call.
+         * @throws E
+         *             If the call fails.
+         */
+        T call() throws E;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile TaskSnapshot publishedSnapshot;
+
+    /**
+     * Constructs an empty ConcurrentTaskList.
+     */
+    public ConcurrentTaskList() {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Constructs a ConcurrentTaskList holding a copy of the given tasks.
+     *
+     * @param tasks
+     *            The tasks to initialize the list with.
+     */
+    public ConcurrentTaskList(List<Task> tasks) {
+        super(new ArrayList<>(tasks));
+        buildIndexes();
+        publishedSnapshot = super.getSnapshot();
+    }
+
+    /**
+     * Runs the read while holding the read lock, so that no update runs in between its calls.
+     *
+     * @param read
+     *            The calls to run.
+     * @throws JettVarkisException
+     *             If the read throws it.
+     */
+    @Override
+    public void read(Action read) throws JettVarkisException {
+        reading(() -> {
+            read.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the update while holding the write lock, so that no other read or update
+     * runs in between its calls.
+     *
+     * @param update
+     *            The calls to run.
+     * @throws JettVarkisException
+     *             If the update throws it.
+     */
+    @Override
+    public void update(Action update) throws JettVarkisException {
+        writing(() -> {
+            update.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void addTodo(String description) throws JettVarkisException {
+        writing(() -> {
+            super.addTodo(description);
+            return null;
+        });
+    }
+
+    @Override
+    public void addDeadline(String description, String by) throws JettVarkisException {
+        writing(() -> {
+            super.addDeadline(description, by);
+            return null;
+        });
+    }
+
+    @Override
+    public void addDeadline(String description, LocalDateTime by) throws JettVarkisException {
+        writing(() -> {
+            super.addDeadline(description, by);
+            return null;
+        });
+    }
+
+    @Override
+    public void addEvent(String description, String from, String to) throws JettVarkisException {
+        writing(() -> {
+            super.addEvent(description, from, to);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Task> addEvent(String description, LocalDateTime from, LocalDateTime to)
+            throws JettVarkisException {
+        return writing(() -> super.addEvent(description, from, to));
+    }
+
+    @Override
+    public void addRecurringDeadline(String description, LocalDateTime by, Recurrence recurrence)
+            throws JettVarkisException {
+        writing(() -> {
+            super.addRecurringDeadline(description, by, recurrence);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Task> addRecurringEvent(String description, LocalDateTime from, LocalDateTime to,
+            Recurrence recurrence) throws JettVarkisException {
+        return writing(() -> super.addRecurringEvent(description, from, to, recurrence));
+    }
+
+    @Override
+    public ConflictPolicy getConflictPolicy() {
+        return reading(super::getConflictPolicy);
+    }
+
+    @Override
+    public void setConflictPolicy(ConflictPolicy conflictPolicy) {
+        writing(() -> {
+            super.setConflictPolicy(conflictPolicy);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Task> getTask(int index) {
+        return reading(() -> super.getTask(index));
+    }
+
+    @Override
+    public Optional<Task> getTaskById(long id) {
+        return reading(() -> super.getTaskById(id));
+    }
+
+    @Override
+    public int indexOfId(long id) {
+        return reading(() -> super.indexOfId(id));
+    }
+
+    @Override
+    public boolean assignMissingIds() {
+        return writing(super::assignMissingIds);
+    }
+
+    /**
+     * Returns the tasks in the list. A thread holding the lock gets a read-only view of
+     * the tasks, and any other thread gets the last published snapshot, since the tasks
+     * may change as soon as the call returns.
+     *
+     * @return A read-only list of the tasks.
+     */
+    @Override
+    public List<Task> getTasks() {
+        if (lock.isWriteLockedByCurrentThread() || lock.getReadHoldCount() > 0) {
+            return Collections.unmodifiableList(super.getTasks());
+        }
+        return publishedSnapshot;
+    }
+
+    /**
+     * Returns the version of the list published by the last update, without taking any
+     * lock. A thread in the middle of an update gets the version including its changes.
+     *
+     * @return The current version of the list.
+     */
+    @Override
+    public TaskSnapshot getSnapshot() {
+        if (lock.isWriteLockedByCurrentThread()) {
+            return super.getSnapshot();
+        }
+        return publishedSnapshot;
+    }
+
+    @Override
+    public int getTaskCount() {
+        return reading(super::getTaskCount);
+    }
+
+    @Override
+    public int getDoneCount() {
+        return reading(super::getDoneCount);
+    }
+
+    @Override
+    public BitSet findIndicesByStatus(boolean isDone) {
+        return reading(() -> super.findIndicesByStatus(isDone));
+    }
+
+    /**
+     * Finds the tasks that contain the given keyword, ignoring case.
+     * The find index is used if the read lock can be taken without waiting. Otherwise,
+     * such as while an update is being applied, the last published snapshot is scanned.
+     *
+     * @param keyword
+     *            The keyword to search for.
+     * @return A list of tasks that match the keyword.
+     */
+    @Override
+    public List<Task> findTasks(String keyword) {
+        return readingWithoutWaiting(() -> super.findTasks(keyword), snapshot -> {
+            BitSet indices = scanForKeyword(snapshot, keyword);
+            List<Task> matches = new ArrayList<>(indices.cardinality());
+            indices.stream().forEach(i -> matches.add(snapshot.get(i)));
+            return matches;
+        });
+    }
+
+    /**
+     * Returns the indices of the tasks that {@link #findTasks(String)} finds. A thread that
+     * does not hold the lock may get the indices in the last published snapshot.
+     *
+     * @param keyword
+     *            The keyword to search for.
+     * @return The zero-based indices of the tasks that match the keyword.
+     */
+    @Override
+    public BitSet findTaskIndices(String keyword) {
+        return readingWithoutWaiting(() -> super.findTaskIndices(keyword),
+                snapshot -> scanForKeyword(snapshot, keyword));
+    }
+
+    @Override
+    public BitSet findPastDueIndices(LocalDateTime now) {
+        return reading(() -> super.findPastDueIndices(now));
+    }
+
+    @Override
+    public List<Task> findEventsBetween(LocalDateTime from, LocalDateTime to) {
+        return reading(() -> super.findEventsBetween(from, to));
+    }
+
+    @Override
+    public List<Task> findUpcomingDeadlines(LocalDateTime now, int limit) {
+        return reading(() -> super.findUpcomingDeadlines(now, limit));
+    }
+
+    @Override
+    public List<Task> findOverdueDeadlines(LocalDateTime now) {
+        return reading(() -> super.findOverdueDeadlines(now));
+    }
+
+    @Override
+    public long getFindIndexBytes() {
+        return reading(super::getFindIndexBytes);
+    }
+
+    @Override
+    public Task markTask(int index) {
+        return writing(() -> super.markTask(index));
+    }
+
+    @Override
+    public Task unmarkTask(int index) {
+        return writing(() -> super.unmarkTask(index));
+    }
+
+    @Override
+    public List<Task> markTasks(BitSet indices) {
+        return writing(() -> super.markTasks(indices));
+    }
+
+    @Override
+    public List<Task> unmarkTasks(BitSet indices) {
+        return writing(() -> super.unmarkTasks(indices));
+    }
+
+    @Override
+    public void setReminderScheduler(ReminderScheduler reminders) {
+        writing(() -> {
+            super.setReminderScheduler(reminders);
+            return null;
+        });
+    }
+
+    @Override
+    public Task deleteTask(int index) {
+        return writing(() -> super.deleteTask(index));
+    }
+
+    @Override
+    public List<Task> deleteTasks(BitSet indices) {
+        return writing(() -> super.deleteTasks(indices));
+    }
+
+    @Override
+    public void restoreTasks(int[] indices, List<Task> restoredTasks) {
+        writing(() -> {
+            super.restoreTasks(indices, restoredTasks);
+            return null;
+        });
+    }
+
+    private <T, E extends Exception> T reading(LockedCall<T, E> call) throws E {
+        lock.readLock().lock();
+        try {
+            return call.call();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the call while holding the read lock if it can be taken at once, and applies
+     * the fallback to the last published snapshot otherwise. A thread that already holds
+     * the lock always makes the call. The lock is not taken while other threads are queued
+     * for it, so that a stream of readers cannot keep a writer waiting.
+     */
+    private <T> T readingWithoutWaiting(LockedCall<T, RuntimeException> call, Function<TaskSnapshot, T> fallback) {
+        if (lock.isWriteLockedByCurrentThread() || lock.getReadHoldCount() > 0) {
+            return call.call();
+        }
+        if (!lock.hasQueuedThreads() && lock.readLock().tryLock()) {
+            try {
+                return call.call();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return fallback.apply(publishedSnapshot);
+    }
+
+    private static BitSet scanForKeyword(TaskSnapshot snapshot, String keyword) {
+        assert keyword != null;
+        String lowerKeyword = keyword.toLowerCase();
+        BitSet indices = new BitSet(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (matchesKeyword(snapshot.get(i), lowerKeyword)) {
+                indices.set(i);
+            }
+        }
+        return indices;
+    }
+
+    private <T, E extends Exception> T writing(LockedCall<T, E> call) throws E {
+        // A read lock cannot be upgraded, so taking the write lock while holding it would never return
+        assert lock.getReadHoldCount() == 0 || lock.isWriteLockedByCurrentThread()
+                : "Cannot update the list while reading it";
+        lock.writeLock().lock();
+        try {
+            return call.call();
+        } finally {
+            if (lock.getWriteHoldCount() == 1) {
+                publishedSnapshot = super.getSnapshot();
+            }
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package jettvarkis;
+
+/**
+ * Represents how TaskList handles a new event whose time overlaps existing events.
+ */
+public enum ConflictPolicy {
+    /** The event is added without looking for overlapping events. */
+    ALLOW,
+    /** The event is added, and the overlapping events are reported back. */
+    WARN,
+    /** The event is not added if any event overlaps it. */
+    REJECT
+}
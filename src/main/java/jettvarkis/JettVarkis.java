@@ -1,9 +1,16 @@
 package jettvarkis;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
 import jettvarkis.command.Command;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.EditHistory;
 import jettvarkis.parser.Parser;
+import jettvarkis.reminder.ReminderScheduler;
+import jettvarkis.storage.JournalCompactor;
 import jettvarkis.storage.Storage;
+import jettvarkis.storage.TaskFileFormat;
 import jettvarkis.trivia.Trivia;
 import jettvarkis.trivia.TriviaList;
 import jettvarkis.ui.Ui;
@@ -18,6 +25,10 @@ public class JettVarkis {
     private final Ui ui;
     private TaskList tasks;
     private final Storage storage;
+    private final ReminderScheduler reminders;
+    private final EditHistory editHistory = new EditHistory();
+    // Bound to the console at construction, since getResponse() redirects System.out
+    private volatile Consumer<String> reminderDisplay = System.out::println;
     private TriviaList triviaList;
     private String currentTriviaCategory;
     private boolean isQuizMode = false;
@@ -26,6 +37,11 @@ public class JettVarkis {
     /**
      * Constructs a new JettVarkis object.
      * Initializes the UI, storage, and loads tasks from the specified file path.
+     * Task mutations are persisted through a journal next to the task file, which is
+     * periodically compacted into the task file in the background.
+     * Tasks loaded from a file without ids are given ids, which are saved straight away.
+     * Reminders for upcoming deadlines and events are printed to the console until a
+     * reminder display is set.
      * If loading tasks fails, an empty TaskList is created.
      *
      * @param filePath The path to the file where tasks are stored.
@@ -33,13 +49,24 @@ public class JettVarkis {
     public JettVarkis(String filePath) {
         assert filePath != null && !filePath.trim().isEmpty();
         ui = new Ui();
-        storage = new Storage(filePath);
+        storage = new Storage(filePath, true, Storage.DEFAULT_FSYNC_POLICY, TaskFileFormat.BINARY);
+        storage.setLoadPool(ForkJoinPool.commonPool());
         try {
-            tasks = new TaskList(storage.load());
+            tasks = new TaskList(storage.loadLazily());
+            if (tasks.assignMissingIds()) {
+                // One-shot migration: ids given to the tasks of an older file must survive restarts
+                storage.save(tasks.getTasks());
+            }
+            storage.startCompaction(JournalCompactor.DEFAULT_MAX_JOURNAL_BYTES,
+                    JournalCompactor.DEFAULT_INTERVAL_MILLIS);
+            storage.startWriteBehind();
         } catch (JettVarkisException e) {
             // Error should be handled by the GUI
             tasks = new TaskList();
         }
+        reminders = new ReminderScheduler(task -> reminderDisplay.accept(ui.getReminderMessage(task)));
+        tasks.setReminderScheduler(reminders);
+        reminders.start();
         try {
             // Load a default trivia category
             currentTriviaCategory = "default";
@@ -64,14 +91,16 @@ public class JettVarkis {
             java.io.PrintStream old = System.out;
             System.setOut(ps);
 
-            if (isQuizMode) {
-                handleQuizMode(input);
-            } else {
-                handleCommandMode(input);
+            try {
+                if (isQuizMode) {
+                    handleQuizMode(input);
+                } else {
+                    handleCommandMode(input);
+                }
+            } finally {
+                System.out.flush();
+                System.setOut(old);
             }
-
-            System.out.flush();
-            System.setOut(old);
             return baos.toString();
         } catch (JettVarkisException e) {
             return e.getMessage();
@@ -81,7 +110,22 @@ public class JettVarkis {
     private void handleCommandMode(String input) throws JettVarkisException {
         Command c = Parser.parse(input);
         assert c != null : "Parsed command cannot be null";
-        c.execute(ui, tasks, storage, this); // Pass this JettVarkis instance
+        // Run the whole command under the list's lock, since it journals tasks by their positions
+        if (c.isReadOnly()) {
+            tasks.read(() -> c.execute(ui, tasks, storage, this));
+        } else {
+            tasks.update(() -> {
+                try {
+                    c.execute(ui, tasks, storage, this);
+                } catch (JettVarkisException | RuntimeException e) {
+                    // The command may have changed the list before failing, which the positions
+                    // held by the recorded edits would no longer match
+                    editHistory.clear();
+                    throw e;
+                }
+                c.getEdit().ifPresent(editHistory::record);
+            });
+        }
     }
 
     private void handleQuizMode(String input) {
@@ -145,6 +189,39 @@ public class JettVarkis {
         this.currentTriviaCategory = currentTriviaCategory;
     }
 
+    /**
+     * Sets where reminders for upcoming deadlines and events are shown.
+     * The display is called on the reminder scheduler's thread.
+     *
+     * @param reminderDisplay
+     *            The consumer of the reminder messages.
+     */
+    public void setReminderDisplay(Consumer<String> reminderDisplay) {
+        assert reminderDisplay != null;
+        this.reminderDisplay = reminderDisplay;
+    }
+
+    /**
+     * Stops the reminder scheduler, flushes pending task changes to disk and stops the
+     * background storage threads.
+     *
+     * @throws JettVarkisException
+     *             If the pending changes cannot be written.
+     */
+    public void close() throws JettVarkisException {
+        reminders.close();
+        storage.close();
+    }
+
+    /**
+     * Gets the history of edits made to the task list, which undo and redo work through.
+     *
+     * @return The EditHistory object.
+     */
+    public EditHistory getEditHistory() {
+        return editHistory;
+    }
+
     /**
      * Gets the Storage object.
      *
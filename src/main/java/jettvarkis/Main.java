@@ -8,6 +8,7 @@ import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import jettvarkis.exception.JettVarkisException;
 import jettvarkis.gui.MainWindow;
 
 /**
@@ -34,4 +35,13 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        try {
+            jettVarkis.close();
+        } catch (JettVarkisException e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -1,22 +1,83 @@
 package jettvarkis;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.index.BitColumn;
+import jettvarkis.index.DeadlineIndex;
+import jettvarkis.index.EventIntervalTree;
+import jettvarkis.index.TaskIdMap;
+import jettvarkis.index.TrigramIndex;
+import jettvarkis.reminder.ReminderScheduler;
+import jettvarkis.storage.LazyTaskList;
 import jettvarkis.task.Deadline;
 import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.StringPool;
 import jettvarkis.task.Task;
 import jettvarkis.task.Todo;
 
 /**
  * Represents a list of tasks in the JettVarkis application.
- * Manages operations such as adding, deleting, and retrieving tasks.
+ * Manages operations such as adding, deleting, and retrieving tasks, and keeps indexes
+ * over the tasks that are each built the first time they are needed, so that a lazily
+ * loaded list is not decoded at start-up. Tasks must be changed through this list rather
+ * than directly, so that the indexes, the snapshot and any reminders follow every change.
+ * Tasks changed in place are stored back into the underlying list, so that it may be
+ * one that keeps its tasks encoded, such as a {@link jettvarkis.storage.ColumnarTaskList}.
  */
 public class TaskList {
-    private ArrayList<Task> tasks;
+    public static final ConflictPolicy DEFAULT_CONFLICT_POLICY = ConflictPolicy.WARN;
+
+    /**
+     * Represents calls on a TaskList that are run together by {@link #read(Action)} or
+     * {@link #update(Action)}.
+     */
+    @FunctionalInterface
+    public interface Action {
+        /**
+         * Runs the calls.
+         *
+         * @throws JettVarkisException
+         *             If any of the calls fails.
+         */
+        void run() throws JettVarkisException;
+    }
+
+    private List<Task> tasks;
+    /** The number of occurrences of each task, for detecting duplicates. */
+    private Map<Task, Integer> taskCounts;
+    /** The trigrams of each description, which narrow the tasks find has to check. */
+    private TrigramIndex trigramIndex;
+    /**
+     * The events by time, which new events are checked against for overlaps according to
+     * the {@link ConflictPolicy}. A recurring event is held once, and only the occurrences
+     * within the time looked up are computed.
+     */
+    private EventIntervalTree eventIndex;
+    /** The deadlines by due date, holding a recurring deadline once like the event index. */
+    private DeadlineIndex deadlineIndex;
+    /** The tasks by their stable ids, in a primitive hash map. */
+    private TaskIdMap taskIds;
+    /** Whether each task is done, in list order, so statuses are counted a word at a time. */
+    private BitColumn doneColumn;
+    /** The current immutable version of the list, kept up to date once one has been taken. */
+    private TaskSnapshot snapshot;
+    private long nextId = Task.NO_ID + 1;
+    private ConflictPolicy conflictPolicy = DEFAULT_CONFLICT_POLICY;
+    /** The scheduler whose reminders follow every add, delete, mark and unmark, if any. */
+    private ReminderScheduler reminders;
 
     /**
      * Constructs an empty TaskList.
@@ -29,9 +90,10 @@ public class TaskList {
      * Constructs a TaskList with the given list of tasks.
      *
      * @param tasks
-     *            The ArrayList of tasks to initialize the TaskList with.
+     *            The list of tasks to initialize the TaskList with, e.g. one that
+     *            decodes its tasks lazily or keeps them outside the heap.
      */
-    public TaskList(ArrayList<Task> tasks) {
+    public TaskList(List<Task> tasks) {
         assert tasks != null;
         this.tasks = tasks;
     }
@@ -44,11 +106,8 @@ public class TaskList {
      */
     public void addTodo(String description) throws JettVarkisException {
         assert description != null;
-        Task newTask = new Todo(description);
-        if (isDuplicate(newTask)) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
-        }
-        tasks.add(newTask);
+        Task newTask = new Todo(intern(description));
+        addIfAbsent(newTask);
     }
 
     /**
@@ -62,11 +121,8 @@ public class TaskList {
     public void addDeadline(String description, String by) throws JettVarkisException {
         assert description != null;
         assert by != null;
-        Task newTask = new Deadline(description, by);
-        if (isDuplicate(newTask)) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
-        }
-        tasks.add(newTask);
+        Task newTask = new Deadline(intern(description), intern(by));
+        addIfAbsent(newTask);
     }
 
     /**
@@ -80,11 +136,8 @@ public class TaskList {
     public void addDeadline(String description, java.time.LocalDateTime by) throws JettVarkisException {
         assert description != null;
         assert by != null;
-        Task newTask = new Deadline(description, by);
-        if (isDuplicate(newTask)) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
-        }
-        tasks.add(newTask);
+        Task newTask = new Deadline(intern(description), by);
+        addIfAbsent(newTask);
     }
 
     /**
@@ -101,15 +154,14 @@ public class TaskList {
         assert description != null;
         assert from != null;
         assert to != null;
-        Task newTask = new Event(description, from, to);
-        if (isDuplicate(newTask)) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
-        }
-        tasks.add(newTask);
+        Task newTask = new Event(intern(description), intern(from), intern(to));
+        addIfAbsent(newTask);
     }
 
     /**
      * Adds a new Event task to the list with LocalDateTime objects.
+     * Unless the conflict policy is {@link ConflictPolicy#ALLOW}, existing events whose
+     * times overlap the new event are looked up first.
      *
      * @param description
      *            The description of the Event task.
@@ -117,17 +169,84 @@ public class TaskList {
      *            The start time of the event as a LocalDateTime object.
      * @param to
      *            The end time of the event as a LocalDateTime object.
+     * @return The existing events overlapping the new event, ordered by start time, or
+     *         an empty list if the conflict policy is {@link ConflictPolicy#ALLOW}.
+     * @throws JettVarkisException
+     *             If the task is a duplicate, or if it overlaps an existing event and the
+     *             conflict policy is {@link ConflictPolicy#REJECT}.
      */
-    public void addEvent(String description, java.time.LocalDateTime from, java.time.LocalDateTime to)
+    public List<Task> addEvent(String description, java.time.LocalDateTime from, java.time.LocalDateTime to)
             throws JettVarkisException {
         assert description != null;
         assert from != null;
         assert to != null;
-        Task newTask = new Event(description, from, to);
-        if (isDuplicate(newTask)) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
-        }
-        tasks.add(newTask);
+        return addEventIfNoConflict(new Event(intern(description), from, to));
+    }
+
+    /**
+     * Adds a new recurring Deadline task to the list.
+     *
+     * @param description
+     *            The description of the Deadline task.
+     * @param by
+     *            The due date of the first occurrence.
+     * @param recurrence
+     *            The rule by which the task falls due again.
+     */
+    public void addRecurringDeadline(String description, java.time.LocalDateTime by, Recurrence recurrence)
+            throws JettVarkisException {
+        assert description != null;
+        assert by != null;
+        assert recurrence != null;
+        addIfAbsent(new RecurringDeadline(intern(description), by, recurrence));
+    }
+
+    /**
+     * Adds a new recurring Event task to the list.
+     * Only the first occurrence is checked for overlapping events, since a recurrence
+     * without an end has no last occurrence to check up to.
+     *
+     * @param description
+     *            The description of the Event task.
+     * @param from
+     *            The start time of the first occurrence.
+     * @param to
+     *            The end time of the first occurrence.
+     * @param recurrence
+     *            The rule by which the event takes place again.
+     * @return The existing events overlapping the first occurrence, ordered by start
+     *         time, or an empty list if the conflict policy is {@link ConflictPolicy#ALLOW}.
+     * @throws JettVarkisException
+     *             If the task is a duplicate, or if its first occurrence overlaps an
+     *             existing event and the conflict policy is {@link ConflictPolicy#REJECT}.
+     */
+    public List<Task> addRecurringEvent(String description, java.time.LocalDateTime from,
+            java.time.LocalDateTime to, Recurrence recurrence) throws JettVarkisException {
+        assert description != null;
+        assert from != null;
+        assert to != null;
+        assert recurrence != null;
+        return addEventIfNoConflict(new RecurringEvent(intern(description), from, to, recurrence));
+    }
+
+    /**
+     * Returns how new events that overlap existing events are handled.
+     *
+     * @return The conflict policy.
+     */
+    public ConflictPolicy getConflictPolicy() {
+        return conflictPolicy;
+    }
+
+    /**
+     * Sets how new events that overlap existing events are handled.
+     *
+     * @param conflictPolicy
+     *            The conflict policy to apply to events added from now on.
+     */
+    public void setConflictPolicy(ConflictPolicy conflictPolicy) {
+        assert conflictPolicy != null;
+        this.conflictPolicy = conflictPolicy;
     }
 
     /**
@@ -145,15 +264,102 @@ public class TaskList {
         return Optional.of(tasks.get(index));
     }
 
+    /**
+     * Retrieves a task from the list based on its id.
+     *
+     * @param id
+     *            The id of the task to retrieve.
+     * @return An Optional containing the Task if found, or an empty Optional if no
+     *         task has the id.
+     */
+    public Optional<Task> getTaskById(long id) {
+        return Optional.ofNullable(getIdIndex().get(id));
+    }
+
+    /**
+     * Returns the current position of the task with the given id.
+     * Tasks added to the list get increasing ids, so the list is usually ordered by id
+     * and the task is first looked for by binary search. Tasks given ids by
+     * {@link #assignMissingIds()} or edited into the file by hand may be out of order,
+     * in which case the list is scanned.
+     *
+     * @param id
+     *            The id of the task.
+     * @return The zero-based index of the task, or -1 if no task has the id.
+     */
+    public int indexOfId(long id) {
+        Task task = getIdIndex().get(id);
+        if (task == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = tasks.get(mid).getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        // The binary search can miss a task among ones that are out of id order
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) == task) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives an id to every task that has none, such as the tasks of a file saved before
+     * tasks had ids. The new ids follow the largest existing id, in list order.
+     * A lazily loaded list is only checked from the flags of its encoded rows, so a file
+     * whose tasks all have ids stays encoded.
+     *
+     * @return True if any task was given an id, in which case the tasks should be saved
+     *         so that the ids are kept.
+     */
+    public boolean assignMissingIds() {
+        if (taskIds != null) {
+            return false;
+        }
+        boolean hasIdlessTasks = tasks instanceof LazyTaskList
+                ? ((LazyTaskList) tasks).hasTasksWithoutIds()
+                : tasks.stream().anyMatch(task -> !task.hasId());
+        if (hasIdlessTasks) {
+            getIdIndex();
+        }
+        return hasIdlessTasks;
+    }
+
     /**
      * Returns the entire list of tasks.
      *
-     * @return An ArrayList containing all tasks in the list.
+     * @return A list containing all tasks in the list.
      */
-    public ArrayList<Task> getTasks() {
+    public List<Task> getTasks() {
         return tasks;
     }
 
+    /**
+     * Returns an immutable version of the list as it is now, which stays the same however
+     * the list changes afterwards. The list keeps its current version up to date from
+     * the first call on, sharing all but the changed parts with the version before, so
+     * later calls take constant time and hold on to no copy of the tasks.
+     *
+     * @return The current version of the list.
+     */
+    public TaskSnapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot = TaskSnapshot.of(tasks);
+        }
+        return snapshot;
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
@@ -163,6 +369,55 @@ public class TaskList {
         return tasks.size();
     }
 
+    /**
+     * Runs a read that spans several calls on this list, such as listing the tasks
+     * together with their count, so that the calls see the same tasks.
+     * A plain TaskList is used from one thread at a time, so the read is simply run.
+     *
+     * @param read
+     *            The calls to run.
+     * @throws JettVarkisException
+     *             If the read throws it.
+     */
+    public void read(Action read) throws JettVarkisException {
+        read.run();
+    }
+
+    /**
+     * Runs an update that spans several calls on this list, such as changing tasks
+     * and then journalling them by their positions, so that no other update can move
+     * the tasks in between.
+     * A plain TaskList is used from one thread at a time, so the update is simply run.
+     *
+     * @param update
+     *            The calls to run.
+     * @throws JettVarkisException
+     *             If the update throws it.
+     */
+    public void update(Action update) throws JettVarkisException {
+        update.run();
+    }
+
+    /**
+     * Returns the number of tasks that are done.
+     *
+     * @return The number of done tasks.
+     */
+    public int getDoneCount() {
+        return getDoneColumn().cardinality();
+    }
+
+    /**
+     * Returns the indices of the tasks with the given status.
+     *
+     * @param isDone
+     *            True to find the done tasks, false to find the pending ones.
+     * @return The zero-based indices of the tasks with the status.
+     */
+    public BitSet findIndicesByStatus(boolean isDone) {
+        return getDoneColumn().findAll(isDone);
+    }
+
     /**
      * Finds and returns a list of tasks that contain the given keyword in their
      * string representation.
@@ -174,11 +429,247 @@ public class TaskList {
      */
     public List<Task> findTasks(String keyword) {
         assert keyword != null;
-        return tasks.stream()
-                .filter(task -> task.toString().toLowerCase().contains(keyword.toLowerCase()))
+        String lowerKeyword = keyword.toLowerCase();
+        List<Task> candidates = getTrigramIndex().findCandidates(lowerKeyword).orElse(tasks);
+        return candidates.stream()
+                .filter(task -> matchesKeyword(task, lowerKeyword))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns whether the task is one that {@link #findTasks(String)} finds for the keyword.
+     *
+     * @param task
+     *            The task to check.
+     * @param lowerKeyword
+     *            The keyword, in lower case.
+     * @return True if the task's string representation contains the keyword, ignoring case.
+     */
+    static boolean matchesKeyword(Task task, String lowerKeyword) {
+        return task.toString().toLowerCase().contains(lowerKeyword);
+    }
+
+    /**
+     * Returns the indices of the tasks that {@link #findTasks(String)} finds.
+     *
+     * @param keyword
+     *            The keyword to search for.
+     * @return The zero-based indices of the tasks that match the keyword.
+     */
+    public BitSet findTaskIndices(String keyword) {
+        assert keyword != null;
+        List<Task> matches = findTasks(keyword);
+        BitSet indices = new BitSet(tasks.size());
+        // Matches restored by undo come back in id order, which is not list order if ids were assigned out of order
+        Set<Task> unplacedMatches = Collections.newSetFromMap(new IdentityHashMap<>(matches.size()));
+        unplacedMatches.addAll(matches);
+        for (int i = 0; i < tasks.size() && !unplacedMatches.isEmpty(); i++) {
+            if (unplacedMatches.remove(tasks.get(i))) {
+                indices.set(i);
+            }
+        }
+        assert unplacedMatches.isEmpty() : "Matches must all be in the list";
+        return indices;
+    }
+
+    /**
+     * Returns the indices of the deadlines that were due before the given time,
+     * whether or not they are done. Recurring deadlines are never included.
+     *
+     * @param now
+     *            The time before which deadlines count as past due.
+     * @return The zero-based indices of the past-due deadlines.
+     */
+    public BitSet findPastDueIndices(java.time.LocalDateTime now) {
+        assert now != null;
+        BitSet indices = new BitSet(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task instanceof Deadline && ((Deadline) task).isDueBefore(now)) {
+                indices.set(i);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the events that overlap the given time range, ordered by start time.
+     * An event overlaps the range if it starts before the range ends and ends after
+     * the range starts. Events whose times could not be parsed are never included.
+     * Each occurrence of a recurring event within the range is listed on its own.
+     *
+     * @param from
+     *            The start of the range.
+     * @param to
+     *            The end of the range, which must be after the start.
+     * @return A list of the overlapping events.
+     */
+    public List<Task> findEventsBetween(java.time.LocalDateTime from, java.time.LocalDateTime to) {
+        assert from != null && to != null;
+        assert from.isBefore(to) : "Range must start before it ends";
+        return new ArrayList<>(getEventIndex().findOverlapping(from, to));
+    }
+
+    /**
+     * Returns the earliest deadlines that are not done and are due at or after the given
+     * time, ordered by due date.
+     * Deadlines whose due dates could not be parsed are never included, and a recurring
+     * deadline is listed as its next occurrence.
+     *
+     * @param now
+     *            The time from which deadlines count as upcoming.
+     * @param limit
+     *            The maximum number of deadlines to return.
+     * @return A list of up to limit upcoming deadlines.
+     */
+    public List<Task> findUpcomingDeadlines(java.time.LocalDateTime now, int limit) {
+        assert now != null;
+        assert limit >= 0;
+        return new ArrayList<>(getDeadlineIndex().findUpcoming(now, limit));
+    }
+
+    /**
+     * Returns the deadlines that are not done and were due before the given time,
+     * ordered by due date.
+     * Deadlines whose due dates could not be parsed are never included, and neither are
+     * recurring deadlines, whose next occurrence is always upcoming.
+     *
+     * @param now
+     *            The time before which deadlines count as overdue.
+     * @return A list of the overdue deadlines.
+     */
+    public List<Task> findOverdueDeadlines(java.time.LocalDateTime now) {
+        assert now != null;
+        return new ArrayList<>(getDeadlineIndex().findOverdue(now));
+    }
+
+    /**
+     * Returns an estimate of the heap held by the index used to find tasks.
+     * The index is built by the first find, so this is zero until then.
+     *
+     * @return The estimated size of the find index in bytes.
+     */
+    public long getFindIndexBytes() {
+        return trigramIndex == null ? 0 : trigramIndex.getEstimatedBytes();
+    }
+
+    /**
+     * Marks a task as done based on its index, cancelling its reminder.
+     *
+     * @param index
+     *            The zero-based index of the task to mark.
+     * @return The marked Task object.
+     */
+    public Task markTask(int index) {
+        assert index >= 0 && index < tasks.size() : "Index out of bounds: " + index;
+        Task task = tasks.get(index);
+        task.markAsDone();
+        // Written back for a list that keeps its tasks encoded, such as a ColumnarTaskList
+        tasks.set(index, task);
+        if (doneColumn != null) {
+            doneColumn.set(index, true);
+        }
+        if (deadlineIndex != null && task instanceof Deadline) {
+            deadlineIndex.updateStatus((Deadline) task);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withStatus(index, true);
+        }
+        if (reminders != null) {
+            reminders.cancel(task);
+        }
+        return task;
+    }
+
+    /**
+     * Marks a task as not done based on its index, scheduling its reminder again.
+     *
+     * @param index
+     *            The zero-based index of the task to unmark.
+     * @return The unmarked Task object.
+     */
+    public Task unmarkTask(int index) {
+        assert index >= 0 && index < tasks.size() : "Index out of bounds: " + index;
+        Task task = tasks.get(index);
+        task.markAsUndone();
+        // Written back for a list that keeps its tasks encoded, such as a ColumnarTaskList
+        tasks.set(index, task);
+        if (doneColumn != null) {
+            doneColumn.set(index, false);
+        }
+        if (deadlineIndex != null && task instanceof Deadline) {
+            deadlineIndex.updateStatus((Deadline) task);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withStatus(index, false);
+        }
+        if (reminders != null) {
+            reminders.schedule(task);
+        }
+        return task;
+    }
+
+    /**
+     * Marks the tasks at the given indices as done, cancelling their reminders.
+     *
+     * @param indices
+     *            The zero-based indices of the tasks to mark, all of which must be
+     *            within the list.
+     * @return The marked Task objects, in list order.
+     */
+    public List<Task> markTasks(BitSet indices) {
+        assert indices != null;
+        assert indices.length() <= tasks.size() : "Index out of bounds: " + (indices.length() - 1);
+        List<Task> markedTasks = new ArrayList<>(indices.cardinality());
+        // Update the snapshot once for all the tasks rather than once for each
+        TaskSnapshot oldSnapshot = snapshot;
+        snapshot = null;
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            markedTasks.add(markTask(i));
+        }
+        if (oldSnapshot != null) {
+            snapshot = oldSnapshot.withStatuses(indices, true);
+        }
+        return markedTasks;
+    }
+
+    /**
+     * Marks the tasks at the given indices as not done, scheduling their reminders again.
+     *
+     * @param indices
+     *            The zero-based indices of the tasks to unmark, all of which must be
+     *            within the list.
+     * @return The unmarked Task objects, in list order.
+     */
+    public List<Task> unmarkTasks(BitSet indices) {
+        assert indices != null;
+        assert indices.length() <= tasks.size() : "Index out of bounds: " + (indices.length() - 1);
+        List<Task> unmarkedTasks = new ArrayList<>(indices.cardinality());
+        // Update the snapshot once for all the tasks rather than once for each
+        TaskSnapshot oldSnapshot = snapshot;
+        snapshot = null;
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            unmarkedTasks.add(unmarkTask(i));
+        }
+        if (oldSnapshot != null) {
+            snapshot = oldSnapshot.withStatuses(indices, false);
+        }
+        return unmarkedTasks;
+    }
+
+    /**
+     * Attaches a reminder scheduler and schedules reminders for the tasks already in the list.
+     * Of a lazily loaded list, only the tasks that may still fall due are decoded.
+     *
+     * @param reminders
+     *            The scheduler that reminders are kept in from now on.
+     */
+    public void setReminderScheduler(ReminderScheduler reminders) {
+        assert reminders != null;
+        this.reminders = reminders;
+        reminders.scheduleAll(tasks);
+    }
+
     /**
      * Deletes a task from the list based on its index.
      *
@@ -188,15 +679,278 @@ public class TaskList {
      */
     public Task deleteTask(int index) {
         assert index >= 0 && index < tasks.size() : "Index out of bounds: " + index;
-        return tasks.remove(index);
+        Task deletedTask = tasks.remove(index);
+        if (doneColumn != null) {
+            doneColumn.remove(index);
+        }
+        if (snapshot != null) {
+            BitSet deleted = new BitSet();
+            deleted.set(index);
+            snapshot = snapshot.withoutAll(deleted);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.remove(deletedTask);
+        }
+        removeFromIndexes(deletedTask);
+        return deletedTask;
+    }
+
+    /**
+     * Deletes the tasks at the given indices from the list.
+     * The remaining tasks are moved up in a single pass over the list, rather than
+     * once for every deleted task, so deleting many tasks costs about as much as
+     * deleting one.
+     *
+     * @param indices
+     *            The zero-based indices of the tasks to delete, all of which must be
+     *            within the list.
+     * @return The deleted Task objects, in list order.
+     */
+    public List<Task> deleteTasks(BitSet indices) {
+        assert indices != null;
+        assert indices.length() <= tasks.size() : "Index out of bounds: " + (indices.length() - 1);
+        List<Task> deletedTasks = new ArrayList<>(indices.cardinality());
+        int first = indices.nextSetBit(0);
+        if (first < 0) {
+            return deletedTasks;
+        }
+        int size = tasks.size();
+        int kept = first;
+        for (int i = first; i < size; i++) {
+            Task task = tasks.get(i);
+            if (indices.get(i)) {
+                deletedTasks.add(task);
+            } else {
+                tasks.set(kept++, task);
+            }
+        }
+        tasks.subList(kept, size).clear();
+        if (doneColumn != null) {
+            doneColumn.removeAll(indices);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withoutAll(indices);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.removeAll(deletedTasks);
+        }
+        deletedTasks.forEach(this::removeFromIndexes);
+        return deletedTasks;
     }
 
-    private boolean isDuplicate(Task newTask) {
-        for (Task existingTask : tasks) {
-            if (existingTask.equals(newTask)) {
-                return true;
+    /**
+     * Puts tasks back into the list at the given positions, such as deleted tasks
+     * restored by undo. The tasks keep their ids, which must fit the ids around their
+     * positions, and the tasks after each position are moved down in a single pass.
+     *
+     * @param indices
+     *            The zero-based positions the tasks end up at, in ascending order.
+     * @param restoredTasks
+     *            The tasks to put back, one for each position.
+     */
+    public void restoreTasks(int[] indices, List<Task> restoredTasks) {
+        assert indices != null && restoredTasks != null;
+        assert indices.length == restoredTasks.size();
+        if (indices.length == 0) {
+            return;
+        }
+        getIdIndex();
+        int oldSize = tasks.size();
+        assert indices[indices.length - 1] < oldSize + indices.length : "Index out of bounds";
+        // The restored tasks stand in for the new slots until the tasks after them are moved down
+        tasks.addAll(restoredTasks);
+        int source = oldSize - 1;
+        int next = indices.length - 1;
+        for (int target = tasks.size() - 1; next >= 0; target--) {
+            tasks.set(target, target == indices[next] ? restoredTasks.get(next--) : tasks.get(source--));
+        }
+        if (doneColumn != null) {
+            boolean[] statuses = new boolean[indices.length];
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = restoredTasks.get(i).isDone();
+            }
+            doneColumn.insertAll(indices, statuses);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withInserted(indices, restoredTasks);
+        }
+        for (Task task : restoredTasks) {
+            assert task.hasId() && taskIds.get(task.getId()) == null : "Restored tasks must keep unused ids";
+            taskIds.put(task.getId(), task);
+            if (taskCounts != null) {
+                taskCounts.merge(task, 1, Integer::sum);
+            }
+            if (trigramIndex != null) {
+                trigramIndex.restore(task);
             }
+            if (eventIndex != null && task instanceof Event) {
+                eventIndex.add((Event) task);
+            }
+            if (deadlineIndex != null && task instanceof Deadline) {
+                deadlineIndex.add((Deadline) task);
+            }
+            if (reminders != null) {
+                reminders.schedule(task);
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted task from every index but the trigram index, which removes
+     * many tasks at once more cheaply than one at a time.
+     */
+    private void removeFromIndexes(Task deletedTask) {
+        if (taskIds != null) {
+            taskIds.remove(deletedTask.getId());
         }
-        return false;
+        if (taskCounts != null) {
+            taskCounts.computeIfPresent(deletedTask, (task, count) -> count == 1 ? null : count - 1);
+        }
+        if (eventIndex != null && deletedTask instanceof Event) {
+            eventIndex.remove((Event) deletedTask);
+        }
+        if (deadlineIndex != null && deletedTask instanceof Deadline) {
+            deadlineIndex.remove((Deadline) deletedTask);
+        }
+        if (reminders != null) {
+            reminders.cancel(deletedTask);
+        }
+    }
+
+    private void addIfAbsent(Task newTask) throws JettVarkisException {
+        checkNotDuplicate(newTask);
+        TaskIdMap idIndex = getIdIndex();
+        newTask.setId(nextId++);
+        idIndex.put(newTask.getId(), newTask);
+        tasks.add(newTask);
+        taskCounts.put(newTask, 1);
+        if (doneColumn != null) {
+            doneColumn.add(newTask.isDone());
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withAdded(newTask);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.add(newTask);
+        }
+        if (eventIndex != null && newTask instanceof Event) {
+            eventIndex.add((Event) newTask);
+        }
+        if (deadlineIndex != null && newTask instanceof Deadline) {
+            deadlineIndex.add((Deadline) newTask);
+        }
+        if (reminders != null) {
+            reminders.schedule(newTask);
+        }
+    }
+
+    private List<Task> addEventIfNoConflict(Event newTask) throws JettVarkisException {
+        checkNotDuplicate(newTask);
+        java.time.LocalDateTime from = newTask.getFrom().get();
+        java.time.LocalDateTime to = newTask.getTo().get();
+        List<Task> conflictingEvents = conflictPolicy == ConflictPolicy.ALLOW || !from.isBefore(to)
+                ? new ArrayList<>()
+                : findEventsBetween(from, to);
+        if (conflictPolicy == ConflictPolicy.REJECT && !conflictingEvents.isEmpty()) {
+            String conflicts = conflictingEvents.stream()
+                    .map(Task::toString)
+                    .collect(Collectors.joining("; "));
+            throw new JettVarkisException(JettVarkisException.ErrorType.EVENT_CONFLICT, conflicts);
+        }
+        addIfAbsent(newTask);
+        return conflictingEvents;
+    }
+
+    /**
+     * Builds every index that is not built yet, so that later queries only read them.
+     */
+    void buildIndexes() {
+        getTaskCounts();
+        getTrigramIndex();
+        getEventIndex();
+        getDeadlineIndex();
+        getIdIndex();
+        getDoneColumn();
+    }
+
+    private TrigramIndex getTrigramIndex() {
+        if (trigramIndex == null) {
+            trigramIndex = new TrigramIndex();
+            tasks.forEach(trigramIndex::add);
+        }
+        return trigramIndex;
+    }
+
+    private EventIntervalTree getEventIndex() {
+        if (eventIndex == null) {
+            eventIndex = new EventIntervalTree();
+            for (Task task : tasks) {
+                if (task instanceof Event) {
+                    eventIndex.add((Event) task);
+                }
+            }
+        }
+        return eventIndex;
+    }
+
+    private DeadlineIndex getDeadlineIndex() {
+        if (deadlineIndex == null) {
+            deadlineIndex = new DeadlineIndex();
+            for (Task task : tasks) {
+                if (task instanceof Deadline) {
+                    deadlineIndex.add((Deadline) task);
+                }
+            }
+        }
+        return deadlineIndex;
+    }
+
+    private BitColumn getDoneColumn() {
+        if (doneColumn == null) {
+            doneColumn = new BitColumn();
+            for (Task task : tasks) {
+                doneColumn.add(task.isDone());
+            }
+        }
+        return doneColumn;
+    }
+
+    private TaskIdMap getIdIndex() {
+        if (taskIds == null) {
+            taskIds = new TaskIdMap();
+            for (Task task : tasks) {
+                nextId = Math.max(nextId, task.getId() + 1);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                if (!task.hasId()) {
+                    task.setId(nextId++);
+                    tasks.set(i, task);
+                }
+                taskIds.put(task.getId(), task);
+            }
+        }
+        return taskIds;
+    }
+
+    private Map<Task, Integer> getTaskCounts() {
+        if (taskCounts == null) {
+            taskCounts = new HashMap<>();
+            for (Task task : tasks) {
+                taskCounts.merge(task, 1, Integer::sum);
+            }
+        }
+        return taskCounts;
+    }
+
+    private void checkNotDuplicate(Task newTask) throws JettVarkisException {
+        if (getTaskCounts().containsKey(newTask)) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.DUPLICATE_TASK);
+        }
+    }
+
+    private static String intern(String value) {
+        // Shares one copy of a description added many times, e.g. "standup", with the tasks loaded from file
+        return StringPool.getShared().intern(value);
     }
 }
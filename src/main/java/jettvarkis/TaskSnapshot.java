@@ -0,0 +1,422 @@
+package jettvarkis;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import jettvarkis.task.Task;
+
+/**
+ * Represents an immutable version of a {@link TaskList}: its tasks in order, and whether
+ * each was done when the version was taken.
+ * The tasks are held in a persistent vector, a tree of 32-way nodes whose leaves hold
+ * 32 tasks each and a bit mask of their statuses, plus a tail leaf that new tasks are
+ * appended to. Each change to the list makes a new version that copies only the nodes
+ * on the path to the leaf it changes and shares the rest with the version before, so
+ * the list keeps its current version up to date as it changes and taking it is free.
+ * Deleting or restoring tasks rebuilds the leaves from the first task deleted or
+ * restored onwards, as doing so in the list itself moves every later task.
+ * The task objects are shared with the list, so a task marked after the version was
+ * taken shows its new status; {@link #isDone(int)} gives its status in this version.
+ */
+public final class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final TaskSnapshot EMPTY = new TaskSnapshot(0, BITS, new Object[WIDTH], Leaf.EMPTY, 0);
+
+    /**
+     * Represents up to 32 consecutive tasks and their statuses, one bit each.
+     */
+    private static final class Leaf {
+        static final Leaf EMPTY = new Leaf(new Task[0], 0);
+
+        final Task[] tasks;
+        final int doneMask;
+
+        Leaf(Task[] tasks, int doneMask) {
+            this.tasks = tasks;
+            this.doneMask = doneMask;
+        }
+
+        boolean isDone(int offset) {
+            return (doneMask & (1 << offset)) != 0;
+        }
+    }
+
+    /**
+     * Collects tasks into full leaves, which are appended to a snapshot whole.
+     */
+    private static final class Builder {
+        private TaskSnapshot snapshot = EMPTY;
+        private Task[] buffer = new Task[WIDTH];
+        private int doneMask;
+        private int count;
+
+        void add(Task task, boolean isDone) {
+            buffer[count] = task;
+            doneMask |= isDone ? 1 << count : 0;
+            if (++count == WIDTH) {
+                snapshot = snapshot.withLeaf(new Leaf(buffer, doneMask));
+                buffer = new Task[WIDTH];
+                doneMask = 0;
+                count = 0;
+            }
+        }
+
+        void addLeaf(Leaf leaf) {
+            assert count == 0 && leaf.tasks.length == WIDTH : "Leaves are only shared whole and aligned";
+            snapshot = snapshot.withLeaf(leaf);
+        }
+
+        TaskSnapshot build() {
+            if (count == 0) {
+                return snapshot;
+            }
+            Task[] tasks = new Task[count];
+            System.arraycopy(buffer, 0, tasks, 0, count);
+            return snapshot.withLeaf(new Leaf(tasks, doneMask));
+        }
+    }
+
+    private final int size;
+    /** The number of index bits consumed above the leaves, a multiple of {@link #BITS}. */
+    private final int shift;
+    private final Object[] root;
+    private final Leaf tail;
+    private final int doneCount;
+
+    private TaskSnapshot(int size, int shift, Object[] root, Leaf tail, int doneCount) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.doneCount = doneCount;
+    }
+
+    /**
+     * Returns a snapshot of the given tasks with their current statuses.
+     *
+     * @param tasks
+     *            The tasks, in list order.
+     * @return The snapshot.
+     */
+    static TaskSnapshot of(List<Task> tasks) {
+        Builder builder = new Builder();
+        for (Task task : tasks) {
+            builder.add(task, task.isDone());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the task at the given position.
+     *
+     * @param index
+     *            The zero-based position of the task.
+     * @return The task.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        return leafFor(index).tasks[index & MASK];
+    }
+
+    /**
+     * Returns the number of tasks in the snapshot.
+     *
+     * @return The number of tasks.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the task at the given position was done when the snapshot was taken.
+     *
+     * @param index
+     *            The zero-based position of the task.
+     * @return True if the task was done.
+     */
+    public boolean isDone(int index) {
+        checkIndex(index);
+        return leafFor(index).isDone(index & MASK);
+    }
+
+    /**
+     * Returns the number of tasks that were done when the snapshot was taken.
+     *
+     * @return The number of done tasks.
+     */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the positions of the tasks with the given status in the snapshot.
+     *
+     * @param isDone
+     *            True to find the done tasks, false to find the pending ones.
+     * @return The zero-based positions of the tasks with the status.
+     */
+    public BitSet findIndicesByStatus(boolean isDone) {
+        BitSet indices = new BitSet(size);
+        for (int start = 0; start < size; start += WIDTH) {
+            Leaf leaf = leafFor(start);
+            int mask = isDone ? leaf.doneMask : ~leaf.doneMask;
+            for (int bits = mask & (int) ((1L << leaf.tasks.length) - 1); bits != 0; bits &= bits - 1) {
+                indices.set(start + Integer.numberOfTrailingZeros(bits));
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Returns a snapshot with the task appended.
+     *
+     * @param task
+     *            The task to append.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withAdded(Task task) {
+        int tailLength = tail.tasks.length;
+        if (tailLength == WIDTH) {
+            return withLeaf(new Leaf(new Task[] {task}, task.isDone() ? 1 : 0));
+        }
+        Task[] tasks = new Task[tailLength + 1];
+        System.arraycopy(tail.tasks, 0, tasks, 0, tailLength);
+        tasks[tailLength] = task;
+        int doneMask = tail.doneMask | (task.isDone() ? 1 << tailLength : 0);
+        return new TaskSnapshot(size + 1, shift, root, new Leaf(tasks, doneMask),
+                doneCount + (task.isDone() ? 1 : 0));
+    }
+
+    /**
+     * Returns a snapshot in which the task at the given position has the given status.
+     *
+     * @param index
+     *            The zero-based position of the task.
+     * @param isDone
+     *            The new status of the task.
+     * @return The new snapshot, or this one if the status is unchanged.
+     */
+    TaskSnapshot withStatus(int index, boolean isDone) {
+        BitSet indices = new BitSet();
+        indices.set(index);
+        return withStatuses(indices, isDone);
+    }
+
+    /**
+     * Returns a snapshot in which the tasks at the given positions have the given status.
+     * Every leaf and node changed is copied once, however many of its tasks change.
+     *
+     * @param indices
+     *            The zero-based positions of the tasks, all of which must be within the snapshot.
+     * @param isDone
+     *            The new status of the tasks.
+     * @return The new snapshot, or this one if no status changes.
+     */
+    TaskSnapshot withStatuses(BitSet indices, boolean isDone) {
+        assert indices.length() <= size : "Index out of bounds: " + (indices.length() - 1);
+        int tailOffset = getTailOffset();
+        int[] doneDelta = new int[1];
+        Object[] newRoot = indices.nextSetBit(0) < tailOffset && indices.nextSetBit(0) >= 0
+                ? (Object[]) setStatuses(shift, root, 0, indices, isDone, doneDelta)
+                : root;
+        Leaf newTail = (Leaf) setStatuses(0, tail, tailOffset, indices, isDone, doneDelta);
+        if (newRoot == root && newTail == tail) {
+            return this;
+        }
+        return new TaskSnapshot(size, shift, newRoot, newTail, doneCount + doneDelta[0]);
+    }
+
+    /**
+     * Returns a snapshot without the tasks at the given positions.
+     * The leaves before the first removed task are shared, and the tasks after it are
+     * packed into new leaves.
+     *
+     * @param indices
+     *            The zero-based positions of the tasks to remove, all of which must be
+     *            within the snapshot.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withoutAll(BitSet indices) {
+        assert indices.length() <= size : "Index out of bounds: " + (indices.length() - 1);
+        int first = indices.nextSetBit(0);
+        if (first < 0) {
+            return this;
+        }
+        Builder builder = new Builder();
+        int start = 0;
+        for (; start + WIDTH <= first && start < getTailOffset(); start += WIDTH) {
+            builder.addLeaf(leafFor(start));
+        }
+        for (; start < size; start += WIDTH) {
+            Leaf leaf = leafFor(start);
+            for (int offset = 0; offset < leaf.tasks.length; offset++) {
+                if (!indices.get(start + offset)) {
+                    builder.add(leaf.tasks[offset], leaf.isDone(offset));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a snapshot with the tasks inserted at the given positions, with their
+     * current statuses. The leaves before the first inserted task are shared, and the
+     * tasks after it are packed into new leaves.
+     *
+     * @param indices
+     *            The zero-based positions the tasks end up at, in ascending order.
+     * @param insertedTasks
+     *            The tasks to insert, one for each position.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withInserted(int[] indices, List<Task> insertedTasks) {
+        assert indices.length == insertedTasks.size();
+        if (indices.length == 0) {
+            return this;
+        }
+        assert indices[indices.length - 1] < size + indices.length : "Index out of bounds";
+        Builder builder = new Builder();
+        int start = 0;
+        for (; start + WIDTH <= indices[0] && start < getTailOffset(); start += WIDTH) {
+            builder.addLeaf(leafFor(start));
+        }
+        int next = 0;
+        for (; start < size; start += WIDTH) {
+            Leaf leaf = leafFor(start);
+            for (int offset = 0; offset < leaf.tasks.length; offset++) {
+                // Positions are counted in the new snapshot, which has the inserted tasks so far before this one
+                while (next < indices.length && indices[next] == start + offset + next) {
+                    Task task = insertedTasks.get(next++);
+                    builder.add(task, task.isDone());
+                }
+                builder.add(leaf.tasks[offset], leaf.isDone(offset));
+            }
+        }
+        while (next < indices.length) {
+            Task task = insertedTasks.get(next++);
+            builder.add(task, task.isDone());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the position of the first task in the tail leaf.
+     */
+    private int getTailOffset() {
+        return size - tail.tasks.length;
+    }
+
+    private Leaf leafFor(int index) {
+        if (index >= getTailOffset()) {
+            return tail;
+        }
+        Object node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = ((Object[]) node)[(index >>> level) & MASK];
+        }
+        return (Leaf) node;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Returns a snapshot with the leaf appended. The snapshot must end on a leaf boundary,
+     * so that its tail is full or empty, and only the last leaf appended may be partial.
+     */
+    private TaskSnapshot withLeaf(Leaf leaf) {
+        assert tail.tasks.length == WIDTH || size == 0 : "Tail must be full to append a leaf";
+        int newDoneCount = doneCount + Integer.bitCount(leaf.doneMask);
+        if (size == 0) {
+            return new TaskSnapshot(leaf.tasks.length, shift, root, leaf, newDoneCount);
+        }
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // The tree is full, so it becomes the first child of a new root
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new TaskSnapshot(size + leaf.tasks.length, newShift, newRoot, leaf, newDoneCount);
+    }
+
+    /**
+     * Returns a copy of the node with the full tail leaf added after its last leaf.
+     */
+    private Object[] pushTail(int level, Object[] node, Leaf tailLeaf) {
+        Object[] copy = node.clone();
+        int child = ((size - 1) >>> level) & MASK;
+        if (level == BITS) {
+            copy[child] = tailLeaf;
+        } else if (node[child] != null) {
+            copy[child] = pushTail(level - BITS, (Object[]) node[child], tailLeaf);
+        } else {
+            copy[child] = newPath(level - BITS, tailLeaf);
+        }
+        return copy;
+    }
+
+    private static Object newPath(int level, Leaf leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    /**
+     * Returns a copy of the node covering the tasks from the given position with the
+     * statuses of the given tasks set, or the node itself if none of them changes.
+     * Subtrees holding none of the tasks are skipped without being visited.
+     */
+    private static Object setStatuses(int level, Object node, int start, BitSet indices, boolean isDone,
+            int[] doneDelta) {
+        if (level == 0) {
+            Leaf leaf = (Leaf) node;
+            int mask = leaf.doneMask;
+            int end = start + leaf.tasks.length;
+            for (int i = indices.nextSetBit(start); i >= 0 && i < end; i = indices.nextSetBit(i + 1)) {
+                mask = isDone ? mask | 1 << (i - start) : mask & ~(1 << (i - start));
+            }
+            if (mask == leaf.doneMask) {
+                return leaf;
+            }
+            doneDelta[0] += Integer.bitCount(mask) - Integer.bitCount(leaf.doneMask);
+            return new Leaf(leaf.tasks, mask);
+        }
+        Object[] children = (Object[]) node;
+        Object[] copy = null;
+        int childSpan = 1 << level;
+        for (int i = 0; i < WIDTH && children[i] != null; i++) {
+            int childStart = start + i * childSpan;
+            int next = indices.nextSetBit(childStart);
+            if (next < 0) {
+                break;
+            }
+            if (next >= childStart + childSpan) {
+                continue;
+            }
+            Object child = setStatuses(level - BITS, children[i], childStart, indices, isDone, doneDelta);
+            if (child != children[i]) {
+                copy = copy == null ? children.clone() : copy;
+                copy[i] = child;
+            }
+        }
+        return copy == null ? node : copy;
+    }
+}
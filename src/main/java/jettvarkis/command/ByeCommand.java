@@ -1,6 +1,7 @@
 package jettvarkis.command;
 
 import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
 import jettvarkis.storage.Storage;
 import jettvarkis.ui.Ui;
 
@@ -11,18 +12,22 @@ public class ByeCommand extends Command {
 
     /**
      * Executes the Bye command.
-     * Displays a goodbye message to the user.
+     * Flushes pending task changes to disk and displays a goodbye message to the user.
      *
      * @param ui
      *            The Ui object to interact with the user.
      * @param tasks
      *            The TaskList object (not used in this command).
      * @param storage
-     *            The Storage object (not used in this command).
+     *            The Storage object to flush.
+     * @throws JettVarkisException
+     *             If the pending task changes cannot be written.
      */
     @Override
-    public void execute(Ui ui, TaskList tasks, Storage storage, jettvarkis.JettVarkis jettVarkis) {
+    public void execute(Ui ui, TaskList tasks, Storage storage, jettvarkis.JettVarkis jettVarkis)
+            throws JettVarkisException {
         assert ui != null : "Ui object cannot be null";
+        storage.flush();
         ui.showGoodbye();
     }
 
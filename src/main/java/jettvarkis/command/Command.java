@@ -1,7 +1,10 @@
 package jettvarkis.command;
 
+import java.util.Optional;
+
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.Edit;
 import jettvarkis.storage.Storage;
 import jettvarkis.ui.Ui;
 
@@ -11,6 +14,9 @@ import jettvarkis.ui.Ui;
  * class.
  */
 public abstract class Command {
+
+    private Edit edit;
+
     /**
      * Executes the command.
      * This method must be implemented by concrete command classes to define their
@@ -39,4 +45,35 @@ public abstract class Command {
     public boolean isExit() {
         return false;
     }
+
+    /**
+     * Checks if this command only reads the task list, in which case it may run
+     * alongside other reading commands on a list shared between threads.
+     *
+     * @return True if the command never changes the task list, false otherwise.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Returns the edit this command made to the task list when it was executed, which
+     * can be undone. Commands that do not change the list, or whose changes cannot be
+     * undone, have no edit.
+     *
+     * @return The edit, or an empty Optional if there is none.
+     */
+    public Optional<Edit> getEdit() {
+        return Optional.ofNullable(edit);
+    }
+
+    /**
+     * Records the edit this command made to the task list, so that it can be undone.
+     *
+     * @param edit
+     *            The edit.
+     */
+    protected void setEdit(Edit edit) {
+        this.edit = edit;
+    }
 }
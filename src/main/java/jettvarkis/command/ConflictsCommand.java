@@ -0,0 +1,46 @@
+package jettvarkis.command;
+
+import jettvarkis.ConflictPolicy;
+import jettvarkis.TaskList;
+import jettvarkis.storage.Storage;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents a Conflicts command. This command sets how new events that overlap
+ * existing events are handled.
+ */
+public class ConflictsCommand extends Command {
+    private final ConflictPolicy conflictPolicy;
+
+    /**
+     * Constructs a ConflictsCommand with the specified policy.
+     *
+     * @param conflictPolicy
+     *            The policy to apply to events added from now on.
+     */
+    public ConflictsCommand(ConflictPolicy conflictPolicy) {
+        assert conflictPolicy != null;
+        this.conflictPolicy = conflictPolicy;
+    }
+
+    /**
+     * Executes the Conflicts command.
+     * Sets the conflict policy of the task list and confirms it to the user.
+     *
+     * @param ui
+     *            The Ui object to interact with the user.
+     * @param tasks
+     *            The TaskList object whose conflict policy is set.
+     * @param storage
+     *            The Storage object (not used in this command).
+     * @param jettVarkis
+     *            The main JettVarkis object (not used in this command).
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage, jettvarkis.JettVarkis jettVarkis) {
+        assert ui != null;
+        assert tasks != null;
+        tasks.setConflictPolicy(conflictPolicy);
+        ui.showConflictPolicy(conflictPolicy);
+    }
+}
@@ -5,7 +5,9 @@ import java.util.Optional;
 
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.AddEdit;
 import jettvarkis.storage.Storage;
+import jettvarkis.task.Recurrence;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
 
@@ -19,6 +21,7 @@ public class DeadlineCommand extends Command {
     private final LocalDateTime by;
     private final String originalBy;
     private final boolean showWarning;
+    private final Recurrence recurrence;
 
     /**
      * Constructs a DeadlineCommand with the specified description and due date/time
@@ -35,6 +38,28 @@ public class DeadlineCommand extends Command {
         this.by = by;
         this.originalBy = null;
         this.showWarning = false;
+        this.recurrence = null;
+    }
+
+    /**
+     * Constructs a DeadlineCommand for a recurring deadline with the specified
+     * description, first due date/time and recurrence.
+     *
+     * @param description
+     *            The description of the Deadline task.
+     * @param by
+     *            The due date/time of the first occurrence.
+     * @param recurrence
+     *            The rule by which the task falls due again.
+     */
+    public DeadlineCommand(String description, LocalDateTime by, Recurrence recurrence) {
+        assert description != null && !description.trim().isEmpty();
+        assert by != null && recurrence != null;
+        this.description = description;
+        this.by = by;
+        this.originalBy = null;
+        this.showWarning = false;
+        this.recurrence = recurrence;
     }
 
     /**
@@ -52,6 +77,7 @@ public class DeadlineCommand extends Command {
         this.by = null;
         this.originalBy = by;
         this.showWarning = false;
+        this.recurrence = null;
     }
 
     /**
@@ -71,6 +97,7 @@ public class DeadlineCommand extends Command {
         this.by = null;
         this.originalBy = by;
         this.showWarning = showWarning;
+        this.recurrence = null;
     }
 
     /**
@@ -100,7 +127,9 @@ public class DeadlineCommand extends Command {
         if (showWarning) {
             ui.showError("Did you mean to use a format like 'd/M/yyyy HHmm'? Still adding as a string.");
         }
-        if (by != null) {
+        if (recurrence != null) {
+            tasks.addRecurringDeadline(description, by, recurrence);
+        } else if (by != null) {
             tasks.addDeadline(description, by);
         } else {
             tasks.addDeadline(description, originalBy);
@@ -109,6 +138,7 @@ public class DeadlineCommand extends Command {
         Optional<Task> task = tasks.getTask(tasks.getTaskCount() - 1);
         assert task.isPresent() : "Newly added task should be present";
         task.ifPresent(value -> ui.showAddedTask(value, tasks.getTaskCount()));
-        storage.save(tasks.getTasks());
+        storage.saveAdd(tasks.getTasks(), task.get());
+        setEdit(new AddEdit(task.get()));
     }
 }
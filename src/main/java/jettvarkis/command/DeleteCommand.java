@@ -1,12 +1,11 @@
 package jettvarkis.command;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.List;
 
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.DeleteEdit;
 import jettvarkis.storage.Storage;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
@@ -25,17 +24,28 @@ public class DeleteCommand extends MultiTaskCommand {
         super(taskIndices);
     }
 
+    /**
+     * Constructs a DeleteCommand with the specified task indices, index ranges and task ids.
+     *
+     * @param taskIndices The zero-based indices of the tasks to be deleted.
+     * @param taskRanges Pairs of zero-based first and last indices of further tasks to be deleted.
+     * @param taskIds The ids of further tasks to be deleted.
+     */
+    public DeleteCommand(int[] taskIndices, int[] taskRanges, long[] taskIds) {
+        super(taskIndices, taskRanges, taskIds);
+    }
+
     /**
      * Executes the Delete command.
-     * Deletes the tasks at the specified indices from the task list, displays a
-     * confirmation message to the user,
-     * and saves the updated task list to storage.
+     * Deletes the tasks at the specified indices, in the specified ranges, or with the
+     * specified ids from the task list in a single pass, displays a confirmation message
+     * to the user, and saves the updated task list to storage.
      *
      * @param ui The Ui object to interact with the user.
      * @param tasks The TaskList object from which to delete the tasks.
      * @param storage The Storage object to save the tasks.
      * @param jettVarkis The main JettVarkis object (not used in this command).
-     * @throws JettVarkisException If any task index is out of bounds.
+     * @throws JettVarkisException If any task index is out of bounds or no task has one of the ids.
      */
     @Override
     public void execute(Ui ui, TaskList tasks, Storage storage,
@@ -43,20 +53,18 @@ public class DeleteCommand extends MultiTaskCommand {
         assert ui != null;
         assert tasks != null;
         assert storage != null;
-        // Sort indices in descending order to avoid issues with shifting indices after deletion
-        Integer[] sortedIndices = Arrays.stream(taskIndices).boxed()
-                .sorted(Comparator.reverseOrder())
-                .toArray(Integer[]::new);
-
-        List<Task> deletedTasks = new ArrayList<>();
-        try {
-            for (int index : sortedIndices) {
-                deletedTasks.add(tasks.deleteTask(index));
-            }
-            ui.showDeletedTasks(deletedTasks, tasks.getTaskCount());
-            storage.save(tasks.getTasks());
-        } catch (IndexOutOfBoundsException e) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.TASK_NOT_FOUND);
+        BitSet indexSet = resolveIndexSet(tasks);
+        List<Task> deletedTasks = tasks.deleteTasks(indexSet);
+        ui.showDeletedTasks(deletedTasks, tasks.getTaskCount());
+        // Recorded from the back, so that each deletion leaves the indices before it unchanged
+        int[] deletedIndices = new int[deletedTasks.size()];
+        int count = 0;
+        for (int index = indexSet.length() - 1; index >= 0; index = indexSet.previousSetBit(index - 1)) {
+            deletedIndices[count++] = index;
+        }
+        storage.saveDelete(tasks.getTasks(), deletedIndices);
+        if (!deletedTasks.isEmpty()) {
+            setEdit(new DeleteEdit(indexSet, deletedTasks));
         }
     }
 }
@@ -1,11 +1,15 @@
 package jettvarkis.command;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.AddEdit;
 import jettvarkis.storage.Storage;
+import jettvarkis.task.Recurrence;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
 
@@ -20,6 +24,7 @@ public class EventCommand extends Command {
     private final String originalFrom;
     private final String originalTo;
     private final boolean shouldShowWarning;
+    private final Recurrence recurrence;
 
     /**
      * Constructs an EventCommand with the specified description, start time, and
@@ -40,6 +45,32 @@ public class EventCommand extends Command {
         this.originalFrom = null;
         this.originalTo = null;
         this.shouldShowWarning = false;
+        this.recurrence = null;
+    }
+
+    /**
+     * Constructs an EventCommand for a recurring event with the specified
+     * description, first start and end time, and recurrence.
+     *
+     * @param description
+     *            The description of the Event task.
+     * @param from
+     *            The start time of the first occurrence.
+     * @param to
+     *            The end time of the first occurrence.
+     * @param recurrence
+     *            The rule by which the event takes place again.
+     */
+    public EventCommand(String description, LocalDateTime from, LocalDateTime to, Recurrence recurrence) {
+        assert description != null && !description.trim().isEmpty();
+        assert from != null && to != null && recurrence != null;
+        this.description = description;
+        this.from = from;
+        this.to = to;
+        this.originalFrom = null;
+        this.originalTo = null;
+        this.shouldShowWarning = false;
+        this.recurrence = recurrence;
     }
 
     /**
@@ -61,6 +92,7 @@ public class EventCommand extends Command {
         this.originalFrom = from;
         this.originalTo = to;
         this.shouldShowWarning = false;
+        this.recurrence = null;
     }
 
     /**
@@ -84,6 +116,7 @@ public class EventCommand extends Command {
         this.originalFrom = from;
         this.originalTo = to;
         this.shouldShowWarning = shouldShowWarning;
+        this.recurrence = null;
     }
 
     /**
@@ -92,6 +125,8 @@ public class EventCommand extends Command {
      * the user,
      * and saves the updated task list to storage.
      * If a warning is flagged, it displays a date format warning to the user.
+     * Any existing events overlapping the new one are reported according to the
+     * task list's conflict policy.
      *
      * @param ui
      *            The Ui object to interact with the user.
@@ -102,7 +137,8 @@ public class EventCommand extends Command {
      * @param jettVarkis
      *            The main JettVarkis object (not used in this command).
      * @throws JettVarkisException
-     *             If there is an error during execution (e.g., storage error).
+     *             If there is an error during execution (e.g., storage error), or the
+     *             event overlaps another and the conflict policy rejects it.
      */
     @Override
     public void execute(Ui ui, TaskList tasks, Storage storage,
@@ -113,8 +149,11 @@ public class EventCommand extends Command {
         if (shouldShowWarning) {
             ui.showError("Did you mean to use a format like 'd/M/yyyy HHmm'? Still adding as a string.");
         }
-        if (from != null && to != null) {
-            tasks.addEvent(description, from, to);
+        List<Task> conflictingEvents = new ArrayList<>();
+        if (recurrence != null) {
+            conflictingEvents = tasks.addRecurringEvent(description, from, to, recurrence);
+        } else if (from != null && to != null) {
+            conflictingEvents = tasks.addEvent(description, from, to);
         } else {
             tasks.addEvent(description, originalFrom, originalTo);
         }
@@ -122,6 +161,10 @@ public class EventCommand extends Command {
         Optional<Task> task = tasks.getTask(tasks.getTaskCount() - 1);
         assert task.isPresent() : "Newly added task should be present";
         task.ifPresent(value -> ui.showAddedTask(value, tasks.getTaskCount()));
-        storage.save(tasks.getTasks());
+        if (!conflictingEvents.isEmpty()) {
+            ui.showEventConflicts(conflictingEvents);
+        }
+        storage.saveAdd(tasks.getTasks(), task.get());
+        setEdit(new AddEdit(task.get()));
     }
 }
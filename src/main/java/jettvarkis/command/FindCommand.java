@@ -49,4 +49,14 @@ public class FindCommand extends Command {
         assert foundTasks != null : "Found tasks list should not be null";
         ui.showFoundTasks(foundTasks);
     }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
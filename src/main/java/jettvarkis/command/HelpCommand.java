@@ -35,4 +35,14 @@ public class HelpCommand extends Command {
     public boolean isExit() {
         return false;
     }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -1,17 +1,39 @@
 package jettvarkis.command;
 
 import jettvarkis.TaskList;
+import jettvarkis.TaskSnapshot;
 import jettvarkis.storage.Storage;
 import jettvarkis.ui.Ui;
 
 /**
- * Represents a List command. This command displays all tasks in the list.
+ * Represents a List command. This command displays all tasks in the list, or only
+ * those that are done or pending.
  */
 public class ListCommand extends Command {
 
+    /** Whether to list only the done tasks or only the pending ones, or null to list all tasks. */
+    private final Boolean isDone;
+
+    /**
+     * Constructs a ListCommand that lists all tasks.
+     */
+    public ListCommand() {
+        this.isDone = null;
+    }
+
+    /**
+     * Constructs a ListCommand that lists only the tasks with the given status.
+     *
+     * @param isDone True to list the done tasks, false to list the pending ones.
+     */
+    public ListCommand(boolean isDone) {
+        this.isDone = isDone;
+    }
+
     /**
      * Executes the List command.
-     * Displays all tasks currently in the task list to the user.
+     * Displays the tasks to the user from a snapshot of the list, with their positions in
+     * the whole list so that they can still be referred to when filtered.
      *
      * @param ui
      *            The Ui object to interact with the user.
@@ -24,7 +46,22 @@ public class ListCommand extends Command {
     public void execute(Ui ui, TaskList tasks, Storage storage, jettvarkis.JettVarkis jettVarkis) {
         assert ui != null;
         assert tasks != null;
-        assert tasks.getTasks() != null : "Task list from getTasks() should not be null";
-        ui.showTasks(tasks.getTasks());
+        TaskSnapshot snapshot = tasks.getSnapshot();
+        assert snapshot != null : "Snapshot from getSnapshot() should not be null";
+        if (isDone == null) {
+            ui.showTasks(snapshot);
+        } else {
+            ui.showTasksByStatus(snapshot, snapshot.findIndicesByStatus(isDone), isDone, snapshot.getDoneCount());
+        }
+    }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
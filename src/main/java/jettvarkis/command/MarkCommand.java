@@ -1,7 +1,11 @@
 package jettvarkis.command;
 
+import java.util.BitSet;
 import java.util.List;
 
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
 
@@ -20,13 +24,45 @@ public class MarkCommand extends UpdateStatusCommand {
     }
 
     /**
-     * Updates the status of the task by marking it as done.
+     * Constructs a MarkCommand with the specified task indices, index ranges and task ids.
      *
-     * @param task The task to be marked as done.
+     * @param taskIndices The zero-based indices of the tasks to be marked.
+     * @param taskRanges Pairs of zero-based first and last indices of further tasks to be marked.
+     * @param taskIds The ids of further tasks to be marked.
+     */
+    public MarkCommand(int[] taskIndices, int[] taskRanges, long[] taskIds) {
+        super(taskIndices, taskRanges, taskIds);
+    }
+
+    /**
+     * Constructs a MarkCommand that marks the tasks chosen by a selection.
+     *
+     * @param selection The rule choosing the tasks to be marked.
+     */
+    public MarkCommand(TaskSelection selection) {
+        super(selection);
+    }
+
+    /**
+     * Updates the status of the tasks by marking them as done.
+     *
+     * @param tasks The TaskList object containing the tasks.
+     * @param indexSet The zero-based indices of the tasks to be marked as done.
+     * @return The tasks that were marked as done, in list order.
      */
     @Override
-    protected void updateTaskStatus(Task task) {
-        task.markAsDone();
+    protected List<Task> updateTaskStatuses(TaskList tasks, BitSet indexSet) {
+        return tasks.markTasks(indexSet);
+    }
+
+    /**
+     * Returns true, since this command marks tasks as done.
+     *
+     * @return True.
+     */
+    @Override
+    protected boolean isMarkingDone() {
+        return true;
     }
 
     /**
@@ -39,4 +75,17 @@ public class MarkCommand extends UpdateStatusCommand {
     protected void showResult(Ui ui, List<Task> tasks) {
         ui.showMarkedTasks(tasks);
     }
+
+    /**
+     * Persists the tasks that were marked as done.
+     *
+     * @param storage The Storage object to save the tasks.
+     * @param tasks The TaskList object containing the updated tasks.
+     * @param updatedIndices The zero-based indices of the updated tasks.
+     * @throws JettVarkisException If there is an error writing to storage.
+     */
+    @Override
+    protected void saveResult(Storage storage, TaskList tasks, int[] updatedIndices) throws JettVarkisException {
+        storage.saveMark(tasks.getTasks(), updatedIndices);
+    }
 }
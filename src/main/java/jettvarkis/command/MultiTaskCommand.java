@@ -1,12 +1,22 @@
 package jettvarkis.command;
 
+import java.util.BitSet;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+
 /**
- * Represents a command that operates on multiple tasks identified by their indices.
+ * Represents a command that operates on multiple tasks identified by their indices,
+ * ranges of indices, ids, or a {@link TaskSelection}.
  * This is an abstract class that provides a common structure for commands that need to
- * process an array of task indices.
+ * process a set of task indices. Ranges, ids and selections are resolved to the current
+ * indices of the tasks when the command is executed.
  */
 public abstract class MultiTaskCommand extends Command {
     protected final int[] taskIndices;
+    protected final int[] taskRanges;
+    protected final long[] taskIds;
+    protected final TaskSelection selection;
 
     /**
      * Constructs a MultiTaskCommand with the specified task indices.
@@ -14,6 +24,69 @@ public abstract class MultiTaskCommand extends Command {
      * @param taskIndices The zero-based indices of the tasks to be processed.
      */
     public MultiTaskCommand(int... taskIndices) {
+        this(taskIndices, new int[0], new long[0]);
+    }
+
+    /**
+     * Constructs a MultiTaskCommand with the specified task indices, index ranges and task ids.
+     *
+     * @param taskIndices The zero-based indices of the tasks to be processed.
+     * @param taskRanges Pairs of zero-based first and last indices of further tasks to be processed.
+     * @param taskIds The ids of further tasks to be processed.
+     */
+    public MultiTaskCommand(int[] taskIndices, int[] taskRanges, long[] taskIds) {
+        assert taskIndices != null && taskRanges != null && taskIds != null;
+        assert taskRanges.length % 2 == 0 : "Ranges must come in pairs of indices";
         this.taskIndices = taskIndices;
+        this.taskRanges = taskRanges;
+        this.taskIds = taskIds;
+        this.selection = null;
+    }
+
+    /**
+     * Constructs a MultiTaskCommand that processes the tasks chosen by a selection.
+     *
+     * @param selection The rule choosing the tasks to be processed.
+     */
+    public MultiTaskCommand(TaskSelection selection) {
+        assert selection != null;
+        this.taskIndices = new int[0];
+        this.taskRanges = new int[0];
+        this.taskIds = new long[0];
+        this.selection = selection;
+    }
+
+    /**
+     * Returns the current indices of the tasks to be processed.
+     * Ranges are added to the set whole rather than index by index.
+     *
+     * @param tasks The TaskList object containing the tasks.
+     * @return The zero-based indices of the tasks to be processed.
+     * @throws JettVarkisException If an index or range reaches past the end of the list,
+     *     or no task has one of the ids.
+     */
+    protected BitSet resolveIndexSet(TaskList tasks) throws JettVarkisException {
+        int taskCount = tasks.getTaskCount();
+        BitSet indexSet = selection == null ? new BitSet(taskCount) : selection.select(tasks);
+        for (int index : taskIndices) {
+            if (index < 0 || index >= taskCount) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.TASK_NOT_FOUND);
+            }
+            indexSet.set(index);
+        }
+        for (int i = 0; i < taskRanges.length; i += 2) {
+            if (taskRanges[i + 1] >= taskCount) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.TASK_NOT_FOUND);
+            }
+            indexSet.set(taskRanges[i], taskRanges[i + 1] + 1);
+        }
+        for (long taskId : taskIds) {
+            int index = tasks.indexOfId(taskId);
+            if (index < 0) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.TASK_NOT_FOUND);
+            }
+            indexSet.set(index);
+        }
+        return indexSet;
     }
 }
@@ -0,0 +1,52 @@
+package jettvarkis.command;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents an Overdue command. This command displays the deadlines that have passed
+ * without being done.
+ */
+public class OverdueCommand extends Command {
+
+    /**
+     * Executes the Overdue command.
+     * Finds the pending deadlines that were due before now and displays them, oldest first.
+     *
+     * @param ui
+     *            The Ui object to interact with the user.
+     * @param tasks
+     *            The TaskList object to search for deadlines.
+     * @param storage
+     *            The Storage object (not used in this command).
+     * @param jettVarkis
+     *            The main JettVarkis object (not used in this command).
+     * @throws JettVarkisException
+     *             If there is an error during execution.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage,
+                        jettvarkis.JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        List<Task> overdueDeadlines = tasks.findOverdueDeadlines(LocalDateTime.now());
+        assert overdueDeadlines != null : "Overdue deadlines list should not be null";
+        ui.showOverdueDeadlines(overdueDeadlines);
+    }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
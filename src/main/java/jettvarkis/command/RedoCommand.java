@@ -0,0 +1,35 @@
+package jettvarkis.command;
+
+import jettvarkis.JettVarkis;
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.Edit;
+import jettvarkis.storage.Storage;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents a Redo command. Redoes the most recently undone edit to the task list.
+ */
+public class RedoCommand extends Command {
+
+    /**
+     * Executes the Redo command.
+     * Redoes the most recently undone edit to the task list, persists the result, and
+     * tells the user which edit was redone.
+     *
+     * @param ui The Ui to interact with the user.
+     * @param tasks The TaskList to redo the edit on.
+     * @param storage The Storage to persist the result to.
+     * @param jettVarkis The JettVarkis instance holding the edit history.
+     * @throws JettVarkisException If there is nothing to redo, or the result cannot be persisted.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage, JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        assert storage != null;
+        assert jettVarkis != null;
+        Edit edit = jettVarkis.getEditHistory().redo(tasks, storage);
+        ui.showRedoneEdit(edit.getDescription());
+    }
+}
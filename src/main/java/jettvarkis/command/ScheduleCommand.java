@@ -0,0 +1,69 @@
+package jettvarkis.command;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents a Schedule command. This command displays the events that take place
+ * during a given time range.
+ */
+public class ScheduleCommand extends Command {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    /**
+     * Constructs a ScheduleCommand for the specified time range.
+     *
+     * @param from
+     *            The start of the range.
+     * @param to
+     *            The end of the range, which must be after the start.
+     */
+    public ScheduleCommand(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null;
+        assert from.isBefore(to) : "Range must start before it ends";
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Executes the Schedule command.
+     * Finds the events overlapping the time range and displays them to the user.
+     *
+     * @param ui
+     *            The Ui object to interact with the user.
+     * @param tasks
+     *            The TaskList object to search for events.
+     * @param storage
+     *            The Storage object (not used in this command).
+     * @param jettVarkis
+     *            The main JettVarkis object (not used in this command).
+     * @throws JettVarkisException
+     *             If there is an error during execution.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage,
+                        jettvarkis.JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        List<Task> scheduledEvents = tasks.findEventsBetween(from, to);
+        assert scheduledEvents != null : "Scheduled events list should not be null";
+        ui.showScheduledEvents(scheduledEvents);
+    }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
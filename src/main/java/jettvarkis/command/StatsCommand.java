@@ -0,0 +1,48 @@
+package jettvarkis.command;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.StringPool;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents a Stats command. This command displays how many tasks there are and how
+ * much heap has been saved by sharing the strings that tasks repeat.
+ */
+public class StatsCommand extends Command {
+
+    /**
+     * Executes the Stats command.
+     * Counts the tasks and the done tasks, and displays them along with the size of the
+     * find index and what the shared string pool has saved so far.
+     *
+     * @param ui
+     *            The Ui object to interact with the user.
+     * @param tasks
+     *            The TaskList object to count.
+     * @param storage
+     *            The Storage object (not used in this command).
+     * @param jettVarkis
+     *            The main JettVarkis object (not used in this command).
+     * @throws JettVarkisException
+     *             If there is an error during execution.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage,
+                        jettvarkis.JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        ui.showStats(tasks.getTaskCount(), tasks.getDoneCount(), tasks.getFindIndexBytes(), StringPool.getShared());
+    }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package jettvarkis.command;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+import jettvarkis.TaskList;
+
+/**
+ * Represents a rule selecting the tasks a bulk command applies to: every task, the
+ * tasks matching a keyword, or the deadlines that were due before now.
+ * The rule is applied when the command executes, and yields the indices of the
+ * selected tasks as a set of bits rather than a list of tasks.
+ */
+public class TaskSelection {
+
+    /**
+     * Enumerates the kinds of rules by which tasks are selected.
+     */
+    private enum Kind {
+        ALL,
+        MATCHING,
+        PAST_DUE
+    }
+
+    private final Kind kind;
+    private final String keyword;
+
+    private TaskSelection(Kind kind, String keyword) {
+        this.kind = kind;
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns a selection of every task in the list.
+     *
+     * @return The selection.
+     */
+    public static TaskSelection all() {
+        return new TaskSelection(Kind.ALL, null);
+    }
+
+    /**
+     * Returns a selection of the tasks that the find command would list for the keyword.
+     *
+     * @param keyword The keyword to search for.
+     * @return The selection.
+     */
+    public static TaskSelection matching(String keyword) {
+        assert keyword != null && !keyword.isEmpty();
+        return new TaskSelection(Kind.MATCHING, keyword);
+    }
+
+    /**
+     * Returns a selection of the deadlines that were due before the selection is applied,
+     * whether or not they are done.
+     *
+     * @return The selection.
+     */
+    public static TaskSelection pastDue() {
+        return new TaskSelection(Kind.PAST_DUE, null);
+    }
+
+    /**
+     * Returns the indices of the selected tasks in the given list.
+     *
+     * @param tasks The TaskList object to select tasks from.
+     * @return The zero-based indices of the selected tasks.
+     */
+    public BitSet select(TaskList tasks) {
+        assert tasks != null;
+        switch (kind) {
+        case ALL:
+            BitSet indices = new BitSet(tasks.getTaskCount());
+            indices.set(0, tasks.getTaskCount());
+            return indices;
+        case MATCHING:
+            return tasks.findTaskIndices(keyword);
+        case PAST_DUE:
+            return tasks.findPastDueIndices(LocalDateTime.now());
+        default:
+            throw new AssertionError("Unknown selection: " + kind);
+        }
+    }
+}
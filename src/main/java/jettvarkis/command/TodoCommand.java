@@ -4,6 +4,7 @@ import java.util.Optional;
 
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.AddEdit;
 import jettvarkis.storage.Storage;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
@@ -54,6 +55,7 @@ public class TodoCommand extends Command {
         Optional<Task> task = tasks.getTask(tasks.getTaskCount() - 1);
         assert task.isPresent() : "Newly added task should be present";
         task.ifPresent(value -> ui.showAddedTask(value, tasks.getTaskCount()));
-        storage.save(tasks.getTasks());
+        storage.saveAdd(tasks.getTasks(), task.get());
+        setEdit(new AddEdit(task.get()));
     }
 }
@@ -0,0 +1,35 @@
+package jettvarkis.command;
+
+import jettvarkis.JettVarkis;
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.Edit;
+import jettvarkis.storage.Storage;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents an Undo command. Undoes the most recent edit to the task list that has not been undone.
+ */
+public class UndoCommand extends Command {
+
+    /**
+     * Executes the Undo command.
+     * Undoes the most recent edit to the task list that has not been undone, persists
+     * the result, and tells the user which edit was undone.
+     *
+     * @param ui The Ui to interact with the user.
+     * @param tasks The TaskList to undo the edit on.
+     * @param storage The Storage to persist the result to.
+     * @param jettVarkis The JettVarkis instance holding the edit history.
+     * @throws JettVarkisException If there is nothing to undo, or the result cannot be persisted.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage, JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        assert storage != null;
+        assert jettVarkis != null;
+        Edit edit = jettVarkis.getEditHistory().undo(tasks, storage);
+        ui.showUndoneEdit(edit.getDescription());
+    }
+}
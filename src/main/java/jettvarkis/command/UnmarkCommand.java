@@ -1,7 +1,11 @@
 package jettvarkis.command;
 
+import java.util.BitSet;
 import java.util.List;
 
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
 
@@ -20,13 +24,45 @@ public class UnmarkCommand extends UpdateStatusCommand {
     }
 
     /**
-     * Updates the status of the task by marking it as not done.
+     * Constructs an UnmarkCommand with the specified task indices, index ranges and task ids.
      *
-     * @param task The task to be marked as not done.
+     * @param taskIndices The zero-based indices of the tasks to be unmarked.
+     * @param taskRanges Pairs of zero-based first and last indices of further tasks to be unmarked.
+     * @param taskIds The ids of further tasks to be unmarked.
+     */
+    public UnmarkCommand(int[] taskIndices, int[] taskRanges, long[] taskIds) {
+        super(taskIndices, taskRanges, taskIds);
+    }
+
+    /**
+     * Constructs an UnmarkCommand that unmarks the tasks chosen by a selection.
+     *
+     * @param selection The rule choosing the tasks to be unmarked.
+     */
+    public UnmarkCommand(TaskSelection selection) {
+        super(selection);
+    }
+
+    /**
+     * Updates the status of the tasks by marking them as not done.
+     *
+     * @param tasks The TaskList object containing the tasks.
+     * @param indexSet The zero-based indices of the tasks to be marked as not done.
+     * @return The tasks that were marked as not done, in list order.
      */
     @Override
-    protected void updateTaskStatus(Task task) {
-        task.markAsUndone();
+    protected List<Task> updateTaskStatuses(TaskList tasks, BitSet indexSet) {
+        return tasks.unmarkTasks(indexSet);
+    }
+
+    /**
+     * Returns false, since this command marks tasks as not done.
+     *
+     * @return False.
+     */
+    @Override
+    protected boolean isMarkingDone() {
+        return false;
     }
 
     /**
@@ -39,4 +75,17 @@ public class UnmarkCommand extends UpdateStatusCommand {
     protected void showResult(Ui ui, List<Task> tasks) {
         ui.showUnmarkedTasks(tasks);
     }
+
+    /**
+     * Persists the tasks that were marked as not done.
+     *
+     * @param storage The Storage object to save the tasks.
+     * @param tasks The TaskList object containing the updated tasks.
+     * @param updatedIndices The zero-based indices of the updated tasks.
+     * @throws JettVarkisException If there is an error writing to storage.
+     */
+    @Override
+    protected void saveResult(Storage storage, TaskList tasks, int[] updatedIndices) throws JettVarkisException {
+        storage.saveUnmark(tasks.getTasks(), updatedIndices);
+    }
 }
@@ -0,0 +1,66 @@
+package jettvarkis.command;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+import jettvarkis.ui.Ui;
+
+/**
+ * Represents an Upcoming command. This command displays the deadlines that are due
+ * next and not yet done.
+ */
+public class UpcomingCommand extends Command {
+    public static final int DEFAULT_COUNT = 5;
+
+    private final int count;
+
+    /**
+     * Constructs an UpcomingCommand that shows the specified number of deadlines.
+     *
+     * @param count
+     *            The maximum number of deadlines to show.
+     */
+    public UpcomingCommand(int count) {
+        assert count > 0;
+        this.count = count;
+    }
+
+    /**
+     * Executes the Upcoming command.
+     * Finds the pending deadlines due from now on and displays the earliest ones.
+     *
+     * @param ui
+     *            The Ui object to interact with the user.
+     * @param tasks
+     *            The TaskList object to search for deadlines.
+     * @param storage
+     *            The Storage object (not used in this command).
+     * @param jettVarkis
+     *            The main JettVarkis object (not used in this command).
+     * @throws JettVarkisException
+     *             If there is an error during execution.
+     */
+    @Override
+    public void execute(Ui ui, TaskList tasks, Storage storage,
+                        jettvarkis.JettVarkis jettVarkis) throws JettVarkisException {
+        assert ui != null;
+        assert tasks != null;
+        List<Task> upcomingDeadlines = tasks.findUpcomingDeadlines(LocalDateTime.now(), count);
+        assert upcomingDeadlines != null : "Upcoming deadlines list should not be null";
+        ui.showUpcomingDeadlines(upcomingDeadlines);
+    }
+
+    /**
+     * Returns true, indicating that this command only reads the task list.
+     *
+     * @return True.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -1,10 +1,11 @@
 package jettvarkis.command;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.history.StatusEdit;
 import jettvarkis.storage.Storage;
 import jettvarkis.task.Task;
 import jettvarkis.ui.Ui;
@@ -24,16 +25,37 @@ public abstract class UpdateStatusCommand extends MultiTaskCommand {
         super(taskIndices);
     }
 
+    /**
+     * Constructs an UpdateStatusCommand with the specified task indices, index ranges and task ids.
+     *
+     * @param taskIndices The zero-based indices of the tasks to be updated.
+     * @param taskRanges Pairs of zero-based first and last indices of further tasks to be updated.
+     * @param taskIds The ids of further tasks to be updated.
+     */
+    public UpdateStatusCommand(int[] taskIndices, int[] taskRanges, long[] taskIds) {
+        super(taskIndices, taskRanges, taskIds);
+    }
+
+    /**
+     * Constructs an UpdateStatusCommand that updates the tasks chosen by a selection.
+     *
+     * @param selection The rule choosing the tasks to be updated.
+     */
+    public UpdateStatusCommand(TaskSelection selection) {
+        super(selection);
+    }
+
     /**
      * Executes the status update command.
-     * Iterates through the specified task indices, applies the status update to each task,
-     * displays the result to the user, and saves the updated task list to storage.
+     * Resolves the specified tasks to a set of indices, applies the status update to all
+     * of them at once, displays the result to the user, and saves the updated task list
+     * to storage.
      *
      * @param ui The Ui object to interact with the user.
      * @param tasks The TaskList object containing the tasks.
      * @param storage The Storage object to save the tasks.
      * @param jettVarkis The main JettVarkis object.
-     * @throws JettVarkisException If any task index is invalid.
+     * @throws JettVarkisException If any task index or id is invalid, or a selection matches no task.
      */
     @Override
     public void execute(Ui ui, TaskList tasks, Storage storage, jettvarkis.JettVarkis jettVarkis)
@@ -41,28 +63,37 @@ public abstract class UpdateStatusCommand extends MultiTaskCommand {
         assert ui != null;
         assert tasks != null;
         assert storage != null;
-        List<Task> affectedTasks = new ArrayList<>();
-        for (int taskIndex : taskIndices) {
-            if (taskIndex < 0 || taskIndex >= tasks.getTaskCount()) {
-                throw new JettVarkisException(JettVarkisException.ErrorType.TASK_NOT_FOUND);
-            }
-            tasks.getTask(taskIndex).ifPresent(task -> {
-                updateTaskStatus(task);
-                affectedTasks.add(task);
-            });
+        BitSet indexSet = resolveIndexSet(tasks);
+        if (indexSet.isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.NO_MATCHING_TASKS);
         }
-        if (!affectedTasks.isEmpty()) {
-            showResult(ui, affectedTasks);
-            storage.save(tasks.getTasks());
+        // Only the tasks whose status changes are recorded, so undo leaves the others as they were
+        BitSet changedIndices = tasks.findIndicesByStatus(!isMarkingDone());
+        changedIndices.and(indexSet);
+        List<Task> affectedTasks = updateTaskStatuses(tasks, indexSet);
+        showResult(ui, affectedTasks);
+        saveResult(storage, tasks, indexSet.stream().toArray());
+        if (!changedIndices.isEmpty()) {
+            setEdit(new StatusEdit(changedIndices, isMarkingDone()));
         }
     }
 
     /**
-     * Updates the status of a single task. This method must be implemented by concrete subclasses.
+     * Checks whether this command marks tasks as done or as not done. This method must be implemented by
+     * concrete subclasses.
      *
-     * @param task The task to be updated.
+     * @return True if the tasks are marked as done, false if they are marked as not done.
      */
-    protected abstract void updateTaskStatus(Task task);
+    protected abstract boolean isMarkingDone();
+
+    /**
+     * Updates the status of the tasks at the given indices. This method must be implemented by concrete subclasses.
+     *
+     * @param tasks The TaskList object containing the tasks.
+     * @param indexSet The zero-based indices of the tasks to be updated.
+     * @return The updated tasks, in list order.
+     */
+    protected abstract List<Task> updateTaskStatuses(TaskList tasks, BitSet indexSet);
 
     /**
      * Displays the result of the status update to the user. This method must be implemented by concrete subclasses.
@@ -71,4 +102,15 @@ public abstract class UpdateStatusCommand extends MultiTaskCommand {
      * @param tasks The list of tasks that were affected.
      */
     protected abstract void showResult(Ui ui, List<Task> tasks);
+
+    /**
+     * Persists the status update. This method must be implemented by concrete subclasses.
+     *
+     * @param storage The Storage object to save the tasks.
+     * @param tasks The TaskList object containing the updated tasks.
+     * @param updatedIndices The zero-based indices of the updated tasks.
+     * @throws JettVarkisException If there is an error writing to storage.
+     */
+    protected abstract void saveResult(Storage storage, TaskList tasks, int[] updatedIndices)
+            throws JettVarkisException;
 }
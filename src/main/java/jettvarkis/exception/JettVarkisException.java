@@ -32,18 +32,48 @@ public class JettVarkisException extends Exception {
                 + "Usage: event [description] /from [date/time] /to [date/time]"),
         MISSING_TASK_NUMBER(
                 "Which thread in the tapestry of tasks do you wish to touch? A number is required. "
-                + "Usage: mark/unmark/delete [task number]"),
+                + "Usage: mark/unmark/delete [task number or #id]"),
         INVALID_TASK_NUMBER(
                 "This number points to nothing in the void. Choose from what exists in your grimoire. "
                 + "Use 'list' to see available tasks."),
         TASK_NOT_FOUND(
                 "The mists of time obscure this task from view. It dwells not within your collection."),
+        INVALID_TASK_SELECTION(
+                "Which tasks shall I gather? Name them all, those matching a keyword, or those past due. "
+                + "Usage: mark/unmark all [/find keyword or /overdue]"),
+        NO_MATCHING_TASKS(
+                "I searched every corner of the grimoire, yet no task answers to this description."),
+        INVALID_LIST_FILTER(
+                "Shall I reveal the finished tales or the unfinished ones? Usage: list [done or pending]"),
+        NOTHING_TO_UNDO("No deed remains that I could unweave. Time has kept its course."),
+        NOTHING_TO_REDO("No unwoven deed awaits its return. Only what was undone can be done again."),
         UNKNOWN_COMMAND(
                 "These words echo strangely in the halls of memory. I know not this incantation. "
                 + "Use 'help' to see available commands."),
         EMPTY_FIND_KEYWORD(
                 "To search the depths of memory, one must provide a key. What shall we seek? "
                 + "Usage: find [keyword]"),
+        EMPTY_SCHEDULE_RANGE(
+                "To glimpse what the hours hold, I must know where to look in time's flow. "
+                + "Usage: schedule /from [date/time] /to [date/time]"),
+        INVALID_SCHEDULE_RANGE(
+                "This span of time cannot be read. Use dates like d/M/yyyy HHmm or yyyy-MM-dd, "
+                + "and let the 'from' time precede the 'to' time."),
+        EVENT_CONFLICT(
+                "This moment is already claimed. Even I cannot be in two places at once. "
+                + "Overlapping events"),
+        INVALID_CONFLICT_POLICY(
+                "How shall I treat events that collide in time? Choose allow, warn or reject. "
+                + "Usage: conflicts [allow/warn/reject]"),
+        INVALID_UPCOMING_COUNT(
+                "How far ahead shall I peer? Name a positive number of deadlines. "
+                + "Usage: upcoming [count]"),
+        INVALID_RECURRENCE(
+                "This cycle cannot be read. A task may return every day, week or month, and may end "
+                + "on a date after it first begins. Usage: /every [day/week/month] /until [date]"),
+        UNPARSED_RECURRENCE_DATE(
+                "A cycle needs a fixed point in time to turn around. Give recurring tasks dates like "
+                + "d/M/yyyy HHmm or yyyy-MM-dd."),
         FILE_OPERATION_ERROR(
                 "The scrolls resist our touch. Some barrier prevents the preservation of knowledge."),
         CORRUPTED_DATA_ERROR(
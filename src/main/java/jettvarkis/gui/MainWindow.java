@@ -1,5 +1,6 @@
 package jettvarkis.gui;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -37,6 +38,7 @@ public class MainWindow extends VBox { // Changed from AnchorPane to VBox
 
     /**
      * Sets the JettVarkis instance for the controller.
+     * Reminders from the instance are shown as dialogs from JettVarkis.
      *
      * @param d The JettVarkis instance.
      */
@@ -46,6 +48,8 @@ public class MainWindow extends VBox { // Changed from AnchorPane to VBox
         // Add welcome message
         dialogContainer.getChildren().add(
                 DialogBox.getJettVarkisDialog(jettVarkis.getWelcomeMessage(), jettVarkisImage));
+        jettVarkis.setReminderDisplay(message -> Platform.runLater(() -> dialogContainer.getChildren().add(
+                DialogBox.getJettVarkisDialog(message, jettVarkisImage))));
     }
 
     /**
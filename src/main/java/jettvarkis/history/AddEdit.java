@@ -0,0 +1,47 @@
+package jettvarkis.history;
+
+import java.util.List;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+
+/**
+ * Represents the addition of a task to the end of the list. Undoing it deletes the
+ * task, and redoing it appends the same task again with the same id.
+ */
+public class AddEdit implements Edit {
+
+    private final Task task;
+
+    /**
+     * Constructs an AddEdit for a task that was just added.
+     *
+     * @param task
+     *            The added task, which must have an id.
+     */
+    public AddEdit(Task task) {
+        assert task != null && task.hasId();
+        this.task = task;
+    }
+
+    @Override
+    public void undo(TaskList tasks, Storage storage) throws JettVarkisException {
+        int index = tasks.indexOfId(task.getId());
+        assert index == tasks.getTaskCount() - 1 : "An added task is the last task until its addition is undone";
+        tasks.deleteTask(index);
+        storage.saveDelete(tasks.getTasks(), index);
+    }
+
+    @Override
+    public void redo(TaskList tasks, Storage storage) throws JettVarkisException {
+        tasks.restoreTasks(new int[] {tasks.getTaskCount()}, List.of(task));
+        storage.saveAdd(tasks.getTasks(), task);
+    }
+
+    @Override
+    public String getDescription() {
+        return "the addition of " + task;
+    }
+}
@@ -0,0 +1,61 @@
+package jettvarkis.history;
+
+import java.util.BitSet;
+import java.util.List;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+
+/**
+ * Represents the deletion of tasks from the list. Undoing it puts the deleted tasks
+ * back at their positions, with their ids and statuses, and redoing it deletes them
+ * again.
+ */
+public class DeleteEdit implements Edit {
+
+    private final int[] indices;
+    private final List<Task> deletedTasks;
+
+    /**
+     * Constructs a DeleteEdit for tasks that were just deleted.
+     *
+     * @param indices
+     *            The zero-based positions the tasks were deleted from.
+     * @param deletedTasks
+     *            The deleted tasks, in list order.
+     */
+    public DeleteEdit(BitSet indices, List<Task> deletedTasks) {
+        assert indices != null && deletedTasks != null;
+        assert indices.cardinality() == deletedTasks.size();
+        this.indices = indices.stream().toArray();
+        this.deletedTasks = List.copyOf(deletedTasks);
+    }
+
+    @Override
+    public void undo(TaskList tasks, Storage storage) throws JettVarkisException {
+        tasks.restoreTasks(indices, deletedTasks);
+        storage.saveRestore(tasks.getTasks(), indices, deletedTasks);
+    }
+
+    @Override
+    public void redo(TaskList tasks, Storage storage) throws JettVarkisException {
+        BitSet indexSet = new BitSet();
+        int[] deletedIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            indexSet.set(indices[i]);
+            // Recorded from the back, as a delete command records them
+            deletedIndices[indices.length - 1 - i] = indices[i];
+        }
+        tasks.deleteTasks(indexSet);
+        storage.saveDelete(tasks.getTasks(), deletedIndices);
+    }
+
+    @Override
+    public String getDescription() {
+        return deletedTasks.size() == 1
+                ? "the deletion of " + deletedTasks.get(0)
+                : "the deletion of " + deletedTasks.size() + " tasks";
+    }
+}
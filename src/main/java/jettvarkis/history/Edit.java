@@ -0,0 +1,46 @@
+package jettvarkis.history;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+
+/**
+ * Represents a change a command made to the task list, kept as the operations that
+ * reverse and reapply it rather than as a copy of the list, so an edit holds only the
+ * tasks it affected.
+ * Edits record tasks by their positions, which stay valid because edits are always
+ * undone and redone in order, on the list exactly as the edit left it.
+ */
+public interface Edit {
+
+    /**
+     * Reverses the change and persists the reversal.
+     *
+     * @param tasks
+     *            The task list as the change left it.
+     * @param storage
+     *            The storage to persist the reversal to.
+     * @throws JettVarkisException
+     *             If the reversal cannot be persisted.
+     */
+    void undo(TaskList tasks, Storage storage) throws JettVarkisException;
+
+    /**
+     * Applies the change again after it was undone and persists it.
+     *
+     * @param tasks
+     *            The task list as the undo left it.
+     * @param storage
+     *            The storage to persist the change to.
+     * @throws JettVarkisException
+     *             If the change cannot be persisted.
+     */
+    void redo(TaskList tasks, Storage storage) throws JettVarkisException;
+
+    /**
+     * Returns a description of the change for display, e.g. "the deletion of 500 tasks".
+     *
+     * @return The description.
+     */
+    String getDescription();
+}
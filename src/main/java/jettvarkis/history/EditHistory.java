@@ -0,0 +1,131 @@
+package jettvarkis.history;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+
+/**
+ * Represents the history of edits made to the task list, which can be undone and
+ * redone in order.
+ * Only the most recent edits are kept, up to a fixed number, so the memory held is
+ * proportional to the tasks those edits affected rather than to the size of the list.
+ * Recording a new edit discards the edits that were undone and not yet redone.
+ */
+public class EditHistory {
+
+    /** The number of edits kept by default. */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final int capacity;
+    private final Deque<Edit> undoStack = new ArrayDeque<>();
+    private final Deque<Edit> redoStack = new ArrayDeque<>();
+
+    /**
+     * Constructs an empty EditHistory keeping up to {@link #DEFAULT_CAPACITY} edits.
+     */
+    public EditHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty EditHistory keeping up to the given number of edits.
+     *
+     * @param capacity
+     *            The largest number of edits that can be undone.
+     */
+    public EditHistory(int capacity) {
+        assert capacity > 0 : "Capacity must be positive";
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records an edit that was just made, forgetting the oldest edit if the history is full.
+     *
+     * @param edit
+     *            The edit.
+     */
+    public void record(Edit edit) {
+        assert edit != null;
+        redoStack.clear();
+        undoStack.push(edit);
+        if (undoStack.size() > capacity) {
+            undoStack.removeLast();
+        }
+    }
+
+    /**
+     * Undoes the most recent edit that has not been undone.
+     * If the undo fails, the history is cleared, since the list may no longer be as
+     * the remaining edits expect.
+     *
+     * @param tasks
+     *            The task list.
+     * @param storage
+     *            The storage to persist the reversal to.
+     * @return The edit that was undone.
+     * @throws JettVarkisException
+     *             If there is no edit to undo, or the reversal cannot be persisted.
+     */
+    public Edit undo(TaskList tasks, Storage storage) throws JettVarkisException {
+        if (undoStack.isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.NOTHING_TO_UNDO);
+        }
+        Edit edit = undoStack.pop();
+        try {
+            edit.undo(tasks, storage);
+        } catch (JettVarkisException e) {
+            clear();
+            throw e;
+        }
+        redoStack.push(edit);
+        return edit;
+    }
+
+    /**
+     * Redoes the most recently undone edit.
+     * If the redo fails, the history is cleared, since the list may no longer be as
+     * the remaining edits expect.
+     *
+     * @param tasks
+     *            The task list.
+     * @param storage
+     *            The storage to persist the change to.
+     * @return The edit that was redone.
+     * @throws JettVarkisException
+     *             If there is no edit to redo, or the change cannot be persisted.
+     */
+    public Edit redo(TaskList tasks, Storage storage) throws JettVarkisException {
+        if (redoStack.isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.NOTHING_TO_REDO);
+        }
+        Edit edit = redoStack.pop();
+        try {
+            edit.redo(tasks, storage);
+        } catch (JettVarkisException e) {
+            clear();
+            throw e;
+        }
+        undoStack.push(edit);
+        return edit;
+    }
+
+    /**
+     * Returns the number of edits that can be undone.
+     *
+     * @return The number of edits in the undo history.
+     */
+    public int getUndoCount() {
+        return undoStack.size();
+    }
+
+    /**
+     * Forgets every edit.
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package jettvarkis.history;
+
+import java.util.BitSet;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+
+/**
+ * Represents the marking of tasks as done or not done. Only the tasks whose status
+ * changed are kept, so undoing it gives back each task's earlier status.
+ */
+public class StatusEdit implements Edit {
+
+    private final BitSet indices;
+    private final boolean isDone;
+
+    /**
+     * Constructs a StatusEdit for tasks whose status was just changed.
+     *
+     * @param indices
+     *            The zero-based positions of the tasks whose status changed.
+     * @param isDone
+     *            True if the tasks were marked as done, false if they were marked as not done.
+     */
+    public StatusEdit(BitSet indices, boolean isDone) {
+        assert indices != null;
+        this.indices = (BitSet) indices.clone();
+        this.isDone = isDone;
+    }
+
+    @Override
+    public void undo(TaskList tasks, Storage storage) throws JettVarkisException {
+        setStatuses(tasks, storage, !isDone);
+    }
+
+    @Override
+    public void redo(TaskList tasks, Storage storage) throws JettVarkisException {
+        setStatuses(tasks, storage, isDone);
+    }
+
+    @Override
+    public String getDescription() {
+        int count = indices.cardinality();
+        return "the marking of " + count + (count == 1 ? " task" : " tasks") + (isDone ? " as done" : " as not done");
+    }
+
+    private void setStatuses(TaskList tasks, Storage storage, boolean status) throws JettVarkisException {
+        if (status) {
+            tasks.markTasks(indices);
+            storage.saveMark(tasks.getTasks(), indices.stream().toArray());
+        } else {
+            tasks.unmarkTasks(indices);
+            storage.saveUnmark(tasks.getTasks(), indices.stream().toArray());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package jettvarkis.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Represents a column of one bit per task, kept in list order in an array of 64-bit
+ * words so that counting the set bits takes one popcount per 64 tasks.
+ * Removing a bit moves the bits after it down by one, a word at a time, so the column
+ * stays aligned with the list it describes.
+ */
+public class BitColumn {
+
+    private static final int INITIAL_WORDS = 4;
+
+    private long[] words;
+    private int size;
+
+    /**
+     * Constructs an empty BitColumn.
+     */
+    public BitColumn() {
+        words = new long[INITIAL_WORDS];
+    }
+
+    /**
+     * Appends a bit to the end of the column.
+     *
+     * @param value
+     *            The value of the new bit.
+     */
+    public void add(boolean value) {
+        if (size == words.length * Long.SIZE) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        size++;
+        set(size - 1, value);
+    }
+
+    /**
+     * Returns the bit at the given position.
+     *
+     * @param index
+     *            The zero-based position of the bit.
+     * @return The value of the bit.
+     */
+    public boolean get(int index) {
+        assert index >= 0 && index < size : "Index out of bounds: " + index;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit at the given position.
+     *
+     * @param index
+     *            The zero-based position of the bit.
+     * @param value
+     *            The new value of the bit.
+     */
+    public void set(int index, boolean value) {
+        assert index >= 0 && index < size : "Index out of bounds: " + index;
+        if (value) {
+            words[index >>> 6] |= 1L << index;
+        } else {
+            words[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Removes the bit at the given position, moving the bits after it down by one.
+     *
+     * @param index
+     *            The zero-based position of the bit.
+     */
+    public void remove(int index) {
+        assert index >= 0 && index < size : "Index out of bounds: " + index;
+        int wordIndex = index >>> 6;
+        int lastWordIndex = (size - 1) >>> 6;
+        long word = words[wordIndex];
+        long lowMask = (1L << index) - 1;
+        // Keep the bits below the index, and move the bits above it down by one
+        words[wordIndex] = (word & lowMask) | ((word >>> 1) & ~lowMask);
+        for (int i = wordIndex + 1; i <= lastWordIndex; i++) {
+            words[i - 1] |= words[i] << (Long.SIZE - 1);
+            words[i] >>>= 1;
+        }
+        size--;
+    }
+
+    /**
+     * Removes the bits at the given positions in a single pass, moving the remaining
+     * bits down to close the gaps.
+     *
+     * @param indices
+     *            The zero-based positions of the bits to remove.
+     */
+    public void removeAll(BitSet indices) {
+        assert indices.length() <= size : "Index out of bounds: " + (indices.length() - 1);
+        int first = indices.nextSetBit(0);
+        if (first < 0) {
+            return;
+        }
+        int kept = first;
+        for (int i = first; i < size; i++) {
+            if (!indices.get(i)) {
+                set(kept++, get(i));
+            }
+        }
+        int oldSize = size;
+        size = kept;
+        clearFrom(kept, oldSize);
+    }
+
+    /**
+     * Inserts bits at the given positions in a single pass, moving the bits after each
+     * of them up to make room.
+     *
+     * @param indices
+     *            The zero-based positions the new bits end up at, in ascending order.
+     * @param values
+     *            The values of the new bits, one for each position.
+     */
+    public void insertAll(int[] indices, boolean[] values) {
+        assert indices.length == values.length;
+        if (indices.length == 0) {
+            return;
+        }
+        int oldSize = size;
+        for (int i = 0; i < indices.length; i++) {
+            add(false);
+        }
+        assert indices[indices.length - 1] < size : "Index out of bounds: " + indices[indices.length - 1];
+        int source = oldSize - 1;
+        int next = indices.length - 1;
+        for (int target = size - 1; next >= 0; target--) {
+            if (target == indices[next]) {
+                set(target, values[next--]);
+            } else {
+                set(target, get(source--));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bits in the column.
+     *
+     * @return The size of the column.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of set bits, counted a word at a time.
+     *
+     * @return The number of set bits.
+     */
+    public int cardinality() {
+        int count = 0;
+        int wordCount = (size + Long.SIZE - 1) >>> 6;
+        for (int i = 0; i < wordCount; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the positions of the bits with the given value.
+     *
+     * @param value
+     *            The value of the bits to find.
+     * @return The zero-based positions of the matching bits.
+     */
+    public BitSet findAll(boolean value) {
+        BitSet indices = BitSet.valueOf(Arrays.copyOf(words, (size + Long.SIZE - 1) >>> 6));
+        if (!value) {
+            indices.flip(0, size);
+        }
+        return indices;
+    }
+
+    /**
+     * Clears the bits in [from, to), which lie past the end of the column, so that
+     * words read whole hold no stale bits.
+     */
+    private void clearFrom(int from, int to) {
+        for (int i = from; i < to; i++) {
+            words[i >>> 6] &= ~(1L << i);
+        }
+    }
+}
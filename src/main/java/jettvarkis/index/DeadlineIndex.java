@@ -0,0 +1,178 @@
+package jettvarkis.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import jettvarkis.task.Deadline;
+import jettvarkis.task.RecurringDeadline;
+
+/**
+ * Represents an index of the deadlines whose due dates were parsed, ordered by due date.
+ * Deadlines due at the same time are ordered by when they were indexed, so the order
+ * matches the task list. Only deadlines that are not done are kept in order, so looking
+ * up the pending deadlines due before or after a given time takes O(log n) to find the
+ * first one and O(1) for each one after it, however many deadlines are done.
+ * A deadline marked or unmarked must be passed to {@link #updateStatus(Deadline)}, and
+ * keeps its place among deadlines due at the same time. Deadlines are tracked by
+ * identity, so equal deadlines loaded from a file are indexed separately.
+ * Recurring deadlines are kept apart, and only the next occurrence of each is
+ * computed when upcoming deadlines are looked up. A recurring deadline is never
+ * overdue, since each occurrence gives way to the next one once it has passed.
+ */
+public class DeadlineIndex {
+
+    private final NavigableMap<Key, Deadline> deadlines = new TreeMap<>();
+    private final Map<Deadline, Key> keys = new IdentityHashMap<>();
+    private final NavigableMap<Key, RecurringDeadline> recurringDeadlines = new TreeMap<>();
+    private long nextSequenceNumber;
+
+    /**
+     * Indexes a deadline. Deadlines without a parsed due date are ignored.
+     *
+     * @param deadline
+     *            The deadline to index.
+     */
+    public void add(Deadline deadline) {
+        assert deadline != null;
+        assert !keys.containsKey(deadline) : "Deadline is already indexed";
+        if (deadline.getBy().isEmpty()) {
+            return;
+        }
+        Key key = new Key(deadline.getBy().get(), nextSequenceNumber++);
+        keys.put(deadline, key);
+        if (!deadline.isDone()) {
+            putPending(key, deadline);
+        }
+    }
+
+    /**
+     * Moves a deadline into or out of the pending deadlines after it was marked as done
+     * or not done. Deadlines that are not indexed are ignored.
+     *
+     * @param deadline
+     *            The deadline whose status changed.
+     */
+    public void updateStatus(Deadline deadline) {
+        assert deadline != null;
+        Key key = keys.get(deadline);
+        if (key == null) {
+            return;
+        }
+        if (deadline.isDone()) {
+            deadlines.remove(key);
+            recurringDeadlines.remove(key);
+        } else {
+            putPending(key, deadline);
+        }
+    }
+
+    /**
+     * Removes a deadline from the index.
+     *
+     * @param deadline
+     *            The deadline to remove.
+     */
+    public void remove(Deadline deadline) {
+        assert deadline != null;
+        Key key = keys.remove(deadline);
+        if (key != null) {
+            deadlines.remove(key);
+            recurringDeadlines.remove(key);
+        }
+    }
+
+    /**
+     * Returns the earliest deadlines that are not done and are due at or after the given
+     * time, ordered by due date.
+     * A recurring deadline is represented by its next occurrence.
+     *
+     * @param now
+     *            The time from which deadlines count as upcoming.
+     * @param limit
+     *            The maximum number of deadlines to return.
+     * @return Up to limit upcoming deadlines.
+     */
+    public List<Deadline> findUpcoming(LocalDateTime now, int limit) {
+        assert now != null;
+        assert limit >= 0;
+        Key firstKey = new Key(now, Long.MIN_VALUE);
+        List<Deadline> upcoming = collectFirst(deadlines.tailMap(firstKey, true).values(), limit);
+        if (recurringDeadlines.isEmpty()) {
+            return upcoming;
+        }
+        for (RecurringDeadline deadline : recurringDeadlines.values()) {
+            deadline.findNextOccurrence(now).ifPresent(upcoming::add);
+        }
+        // The sort is stable, so deadlines due together keep the order they were collected in
+        upcoming.sort(Comparator.comparing(deadline -> deadline.getBy().get()));
+        return new ArrayList<>(upcoming.subList(0, Math.min(limit, upcoming.size())));
+    }
+
+    /**
+     * Returns the deadlines that are not done and were due before the given time,
+     * ordered by due date.
+     *
+     * @param now
+     *            The time before which deadlines count as overdue.
+     * @return The overdue deadlines.
+     */
+    public List<Deadline> findOverdue(LocalDateTime now) {
+        assert now != null;
+        Key firstUpcomingKey = new Key(now, Long.MIN_VALUE);
+        return new ArrayList<>(deadlines.headMap(firstUpcomingKey, false).values());
+    }
+
+    /**
+     * Returns the number of deadlines in the index, whether done or not.
+     *
+     * @return The number of indexed deadlines.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    private void putPending(Key key, Deadline deadline) {
+        if (deadline instanceof RecurringDeadline) {
+            recurringDeadlines.put(key, (RecurringDeadline) deadline);
+        } else {
+            deadlines.put(key, deadline);
+        }
+    }
+
+    private static List<Deadline> collectFirst(Collection<Deadline> candidates, int limit) {
+        List<Deadline> first = new ArrayList<>();
+        for (Deadline deadline : candidates) {
+            if (first.size() >= limit) {
+                break;
+            }
+            first.add(deadline);
+        }
+        return first;
+    }
+
+    /**
+     * Orders deadlines by due date and then by when they were indexed.
+     */
+    private static class Key implements Comparable<Key> {
+        private final LocalDateTime by;
+        private final long sequenceNumber;
+
+        private Key(LocalDateTime by, long sequenceNumber) {
+            this.by = by;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int comparison = by.compareTo(other.by);
+            return comparison != 0 ? comparison : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
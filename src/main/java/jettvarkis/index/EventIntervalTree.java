@@ -0,0 +1,232 @@
+package jettvarkis.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import jettvarkis.task.Event;
+import jettvarkis.task.RecurringEvent;
+
+/**
+ * Represents an interval tree over the events whose start and end times were parsed.
+ * The tree is an AVL tree ordered by start time, where every node also records the
+ * latest end time in its subtree. A query skips every subtree that ends before the
+ * queried range, so finding the k overlapping events takes O(log n + k) time.
+ * Events are treated as half-open intervals [from, to), so an event ending exactly
+ * when the range begins does not overlap it. Events are tracked by identity, so
+ * equal events loaded from a file are indexed separately.
+ * Recurring events are kept outside the tree, and only their occurrences overlapping
+ * the queried range are computed, so a query costs O(log n + k + r) for r recurring
+ * events however far they recur.
+ */
+public class EventIntervalTree {
+
+    private final Map<Event, Long> sequenceNumbers = new IdentityHashMap<>();
+    private final NavigableMap<Long, RecurringEvent> recurringEvents = new TreeMap<>();
+    private Node root;
+    private long nextSequenceNumber;
+
+    /**
+     * Indexes an event. Events without parsed start and end times are ignored.
+     *
+     * @param event
+     *            The event to index.
+     */
+    public void add(Event event) {
+        assert event != null;
+        assert !sequenceNumbers.containsKey(event) : "Event is already indexed";
+        if (event.getFrom().isEmpty() || event.getTo().isEmpty()) {
+            return;
+        }
+        long sequenceNumber = nextSequenceNumber++;
+        sequenceNumbers.put(event, sequenceNumber);
+        if (event instanceof RecurringEvent) {
+            recurringEvents.put(sequenceNumber, (RecurringEvent) event);
+        } else {
+            root = insert(root, new Node(event, sequenceNumber));
+        }
+    }
+
+    /**
+     * Removes an event from the tree.
+     *
+     * @param event
+     *            The event to remove.
+     */
+    public void remove(Event event) {
+        assert event != null;
+        Long sequenceNumber = sequenceNumbers.remove(event);
+        if (sequenceNumber == null) {
+            return;
+        }
+        if (event instanceof RecurringEvent) {
+            recurringEvents.remove(sequenceNumber);
+            return;
+        }
+        root = delete(root, toEpochSecond(event.getFrom().get()), sequenceNumber);
+    }
+
+    /**
+     * Returns the events overlapping the given range, ordered by start time.
+     * Each overlapping occurrence of a recurring event is returned as a separate event.
+     *
+     * @param from
+     *            The start of the range.
+     * @param to
+     *            The end of the range, which must be after the start.
+     * @return The events that start before the range ends and end after it starts.
+     */
+    public List<Event> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null;
+        assert from.isBefore(to) : "Range must start before it ends";
+        List<Event> overlapping = new ArrayList<>();
+        collectOverlapping(root, toEpochSecond(from), toEpochSecond(to), overlapping);
+        if (!recurringEvents.isEmpty()) {
+            recurringEvents.values().forEach(event -> overlapping.addAll(event.findOccurrences(from, to)));
+            // The sort is stable, so events starting together keep the order they were collected in
+            overlapping.sort(Comparator.comparing(event -> event.getFrom().get()));
+        }
+        return overlapping;
+    }
+
+    /**
+     * Returns the number of events in the tree.
+     *
+     * @return The number of indexed events.
+     */
+    public int size() {
+        return sequenceNumbers.size();
+    }
+
+    private static void collectOverlapping(Node node, long from, long to, List<Event> overlapping) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, overlapping);
+        if (node.start >= to) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (node.end > from) {
+            overlapping.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, overlapping);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compareKeys(newNode.start, newNode.sequenceNumber, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, long start, long sequenceNumber) {
+        assert node != null : "Indexed event must be in the tree";
+        int comparison = compareKeys(start, sequenceNumber, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, sequenceNumber);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, sequenceNumber);
+        } else if (node.left == null || node.right == null) {
+            return node.left != null ? node.left : node.right;
+        } else {
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = delete(node.right, successor.start, successor.sequenceNumber);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        node.update();
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int compareKeys(long start, long sequenceNumber, Node node) {
+        int comparison = Long.compare(start, node.start);
+        return comparison != 0 ? comparison : Long.compare(sequenceNumber, node.sequenceNumber);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Holds one event, keyed by its start time and then by insertion order.
+     */
+    private static class Node {
+        private final Event event;
+        private final long start;
+        private final long end;
+        private final long sequenceNumber;
+        private long maxEnd;
+        private int height;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, long sequenceNumber) {
+            this.event = event;
+            this.start = toEpochSecond(event.getFrom().get());
+            this.end = toEpochSecond(event.getTo().get());
+            this.sequenceNumber = sequenceNumber;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+
+        private void update() {
+            height = 1 + Math.max(height(left), height(right));
+            maxEnd = Math.max(end, Math.max(left == null ? Long.MIN_VALUE : left.maxEnd,
+                    right == null ? Long.MIN_VALUE : right.maxEnd));
+        }
+    }
+}
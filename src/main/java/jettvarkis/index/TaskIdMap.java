@@ -0,0 +1,147 @@
+package jettvarkis.index;
+
+import java.util.Arrays;
+
+import jettvarkis.task.Task;
+
+/**
+ * Represents a hash map from task ids to tasks, keyed on primitive longs so that
+ * neither lookups nor insertions box their keys.
+ * The map uses open addressing with linear probing in two parallel arrays, and fills
+ * the gap left by a removed entry by shifting the entries probed after it back, so
+ * no tombstones build up however many tasks are deleted.
+ * Id {@link Task#NO_ID} marks an empty slot and cannot be used as a key.
+ */
+public class TaskIdMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private Task[] values;
+    private int shift;
+    private int size;
+
+    /**
+     * Constructs an empty TaskIdMap.
+     */
+    public TaskIdMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Maps the id to the task, replacing any task it was mapped to.
+     *
+     * @param id
+     *            The id of the task.
+     * @param task
+     *            The task.
+     */
+    public void put(long id, Task task) {
+        assert id != Task.NO_ID && task != null;
+        int slot = findSlot(id);
+        if (keys[slot] == Task.NO_ID) {
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = task;
+        // Keep the table at most half full so that probe sequences stay short
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id
+     *            The id to look up.
+     * @return The task, or null if no task has the id.
+     */
+    public Task get(long id) {
+        if (id == Task.NO_ID) {
+            return null;
+        }
+        return values[findSlot(id)];
+    }
+
+    /**
+     * Removes the task with the given id.
+     *
+     * @param id
+     *            The id to remove.
+     * @return The removed task, or null if no task had the id.
+     */
+    public Task remove(long id) {
+        if (id == Task.NO_ID) {
+            return null;
+        }
+        int slot = findSlot(id);
+        Task removed = values[slot];
+        if (removed == null) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != Task.NO_ID; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            // Move the entry into the gap unless its home lies cyclically between the gap and it
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = Task.NO_ID;
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Returns the number of ids in the map.
+     *
+     * @return The number of mapped ids.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot holding the id, or the empty slot where it would be inserted.
+     */
+    private int findSlot(long id) {
+        int mask = keys.length - 1;
+        int slot = home(id);
+        while (keys[slot] != Task.NO_ID && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long id) {
+        // Fibonacci hashing spreads the sequential ids tasks are given over the whole table
+        return (int) ((id * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Task[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != Task.NO_ID) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        assert Integer.bitCount(capacity) == 1 : "Capacity must be a power of two";
+        keys = new long[capacity];
+        values = new Task[capacity];
+        Arrays.fill(keys, Task.NO_ID);
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+}
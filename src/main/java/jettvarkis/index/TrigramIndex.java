@@ -0,0 +1,355 @@
+package jettvarkis.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import jettvarkis.task.Task;
+
+/**
+ * Represents an index from every three-character substring (trigram) of each task's
+ * lower-cased display string to the tasks containing it. A keyword of at least three
+ * characters can only occur in a task holding all of the keyword's trigrams, which
+ * narrows down the tasks to verify for any substring, not just whole words.
+ * Each task gets an id in list order, and each trigram keeps a sorted array of ids.
+ * The trigrams overlapping the status icon are not indexed, so marking a task never
+ * changes its trigrams. Tasks are tracked by identity, so equal tasks loaded from a
+ * file are indexed separately.
+ */
+public class TrigramIndex {
+
+    /** The length of the substrings the index is keyed on. */
+    public static final int GRAM_LENGTH = 3;
+
+    /** Display strings start with the type and status icons, e.g. "[T][X] ". */
+    private static final int STATUS_ICON_INDEX = 4;
+    private static final char[] STATUS_ICONS = { ' ', 'x' };
+    private static final long[] STATUS_GRAMS = statusGrams();
+
+    // Rough 64-bit JVM sizes with compressed references, used for memory accounting
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int HASH_ENTRY_BYTES = 32;
+    private static final int BOXED_LONG_BYTES = 16;
+    private static final int POSTING_BYTES = OBJECT_HEADER_BYTES + REFERENCE_BYTES + Integer.BYTES;
+
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private final Map<Task, Integer> ids = new IdentityHashMap<>();
+    private final List<Task> tasksById = new ArrayList<>();
+    private long idCount;
+    private boolean isInListOrder = true;
+
+    /**
+     * Indexes a task. Tasks must be added in list order, i.e. each newly added task
+     * is assumed to come after every task already in the index.
+     *
+     * @param task
+     *            The task to index.
+     */
+    public void add(Task task) {
+        assert task != null;
+        assert !ids.containsKey(task) : "Task is already indexed";
+        int id = tasksById.size();
+        ids.put(task, id);
+        tasksById.add(task);
+        for (long gram : taskGrams(task)) {
+            postings.computeIfAbsent(gram, key -> new Posting()).append(id);
+            idCount++;
+        }
+    }
+
+    /**
+     * Indexes a task that is put back into the list before its end, such as a deleted
+     * task restored by undo. The task is given an id after every other task's, so from
+     * then on candidates are sorted back into list order by their task ids, which must
+     * follow list order.
+     *
+     * @param task
+     *            The task to index.
+     */
+    public void restore(Task task) {
+        add(task);
+        isInListOrder = false;
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task
+     *            The task to remove.
+     */
+    public void remove(Task task) {
+        assert task != null;
+        Integer id = ids.remove(task);
+        if (id == null) {
+            return;
+        }
+        tasksById.set(id, null);
+        for (long gram : taskGrams(task)) {
+            Posting posting = postings.get(gram);
+            if (posting != null && posting.remove(id)) {
+                idCount--;
+                if (posting.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes many tasks from the index at once.
+     * Each posting list holding any of the tasks is compacted once, however many of
+     * the tasks it holds, rather than once for every task.
+     *
+     * @param tasks
+     *            The tasks to remove.
+     */
+    public void removeAll(Collection<Task> tasks) {
+        assert tasks != null;
+        BitSet removedIds = new BitSet();
+        Set<Long> affectedGrams = new HashSet<>();
+        for (Task task : tasks) {
+            Integer id = ids.remove(task);
+            if (id == null) {
+                continue;
+            }
+            tasksById.set(id, null);
+            removedIds.set(id);
+            for (long gram : taskGrams(task)) {
+                affectedGrams.add(gram);
+            }
+        }
+        for (long gram : affectedGrams) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            idCount -= posting.removeAll(removedIds);
+            if (posting.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks that may contain the keyword, in list order.
+     * Every task whose lower-cased display string contains the keyword is included,
+     * but the candidates still need to be verified against the keyword.
+     * The index cannot narrow down a keyword shorter than {@link #GRAM_LENGTH}
+     * characters, or one made up of status icon trigrams only, in which case every
+     * task must be checked.
+     *
+     * @param keyword
+     *            The lower-cased keyword.
+     * @return An Optional containing the candidate tasks, or an empty Optional if
+     *         every task is a candidate.
+     */
+    public Optional<List<Task>> findCandidates(String keyword) {
+        assert keyword != null;
+        List<Posting> keywordPostings = new ArrayList<>();
+        for (long gram : distinctGrams(keyword, -1)) {
+            if (isStatusGram(gram)) {
+                continue;
+            }
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                return Optional.of(new ArrayList<>());
+            }
+            keywordPostings.add(posting);
+        }
+        if (keywordPostings.isEmpty()) {
+            return Optional.empty();
+        }
+        keywordPostings.sort((first, second) -> Integer.compare(first.size, second.size));
+        int[] candidateIds = Arrays.copyOf(keywordPostings.get(0).ids, keywordPostings.get(0).size);
+        int candidateCount = candidateIds.length;
+        for (int i = 1; i < keywordPostings.size() && candidateCount > 0; i++) {
+            candidateCount = keywordPostings.get(i).retainIn(candidateIds, candidateCount);
+        }
+        List<Task> candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.add(tasksById.get(candidateIds[i]));
+        }
+        if (!isInListOrder) {
+            candidates.sort(Comparator.comparingLong(Task::getId));
+        }
+        return Optional.of(candidates);
+    }
+
+    /**
+     * Returns the number of distinct trigrams in the index.
+     *
+     * @return The number of trigrams.
+     */
+    public int getTrigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Returns the number of task ids held across all trigrams.
+     *
+     * @return The total length of the posting arrays.
+     */
+    public long getPostingCount() {
+        return idCount;
+    }
+
+    /**
+     * Returns an estimate of the heap held by the index, including the unused capacity
+     * of the posting arrays and the id slots of deleted tasks, which are not reused.
+     *
+     * @return The estimated size of the index in bytes.
+     */
+    public long getEstimatedBytes() {
+        long bytes = (long) postings.size()
+                * (HASH_ENTRY_BYTES + BOXED_LONG_BYTES + POSTING_BYTES + ARRAY_HEADER_BYTES);
+        for (Posting posting : postings.values()) {
+            bytes += (long) posting.ids.length * Integer.BYTES;
+        }
+        // The id map's entries are stored inline in its table, with a boxed id each
+        bytes += (long) ids.size() * (2 * 2 * REFERENCE_BYTES + OBJECT_HEADER_BYTES + Integer.BYTES);
+        bytes += ARRAY_HEADER_BYTES + (long) tasksById.size() * REFERENCE_BYTES;
+        return bytes;
+    }
+
+    private static long[] taskGrams(Task task) {
+        return distinctGrams(task.toString().toLowerCase(), STATUS_ICON_INDEX);
+    }
+
+    /**
+     * Returns the distinct trigrams of the text in ascending order, leaving out those
+     * overlapping the given index.
+     */
+    private static long[] distinctGrams(String text, int skippedIndex) {
+        int gramCount = Math.max(0, text.length() - GRAM_LENGTH + 1);
+        long[] grams = new long[gramCount];
+        int count = 0;
+        for (int i = 0; i < gramCount; i++) {
+            if (i <= skippedIndex && skippedIndex < i + GRAM_LENGTH) {
+                continue;
+            }
+            grams[count++] = gram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        Arrays.sort(grams, 0, count);
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinctCount == 0 || grams[distinctCount - 1] != grams[i]) {
+                grams[distinctCount++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinctCount);
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << (2 * Character.SIZE)) | ((long) second << Character.SIZE) | third;
+    }
+
+    private static boolean isStatusGram(long gram) {
+        for (long statusGram : STATUS_GRAMS) {
+            if (gram == statusGram) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the trigrams that can overlap the status icon of a display string.
+     * A keyword trigram of this form may only occur in a task at the unindexed status
+     * icon, so it cannot be used to narrow down the candidates.
+     */
+    private static long[] statusGrams() {
+        long[] grams = new long[STATUS_ICONS.length * GRAM_LENGTH];
+        int count = 0;
+        for (char icon : STATUS_ICONS) {
+            grams[count++] = gram(']', '[', icon);
+            grams[count++] = gram('[', icon, ']');
+            grams[count++] = gram(icon, ']', ' ');
+        }
+        return grams;
+    }
+
+    /**
+     * Holds the ids of the tasks containing one trigram, in ascending order.
+     */
+    private static class Posting {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Appends an id greater than every id already held.
+         */
+        private void append(int id) {
+            assert size == 0 || ids[size - 1] < id : "Ids must be appended in ascending order";
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            ids[size++] = id;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            if (size < ids.length / 4 && ids.length > INITIAL_CAPACITY) {
+                ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            return true;
+        }
+
+        /**
+         * Removes every id in the given set in one pass.
+         *
+         * @return The number of ids removed.
+         */
+        private int removeAll(BitSet removedIds) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removedIds.get(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            int removedCount = size - kept;
+            size = kept;
+            if (size < ids.length / 4 && ids.length > INITIAL_CAPACITY) {
+                ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            return removedCount;
+        }
+
+        /**
+         * Keeps only the first count candidate ids that are also held here.
+         * Both arrays are in ascending order, so they are merged in one pass.
+         *
+         * @return The number of candidate ids left.
+         */
+        private int retainIn(int[] candidateIds, int count) {
+            int retained = 0;
+            int i = 0;
+            for (int c = 0; c < count && i < size; c++) {
+                while (i < size && ids[i] < candidateIds[c]) {
+                    i++;
+                }
+                if (i < size && ids[i] == candidateIds[c]) {
+                    candidateIds[retained++] = candidateIds[c];
+                }
+            }
+            return retained;
+        }
+    }
+}
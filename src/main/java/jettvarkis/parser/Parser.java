@@ -1,14 +1,21 @@
 package jettvarkis.parser;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import jettvarkis.ConflictPolicy;
 import jettvarkis.command.ByeCommand;
 import jettvarkis.command.Command;
+import jettvarkis.command.ConflictsCommand;
 import jettvarkis.command.DeadlineCommand;
 import jettvarkis.command.DeleteCommand;
 import jettvarkis.command.EventCommand;
@@ -16,8 +23,15 @@ import jettvarkis.command.FindCommand;
 import jettvarkis.command.HelpCommand;
 import jettvarkis.command.ListCommand;
 import jettvarkis.command.MarkCommand;
+import jettvarkis.command.OverdueCommand;
+import jettvarkis.command.RedoCommand;
+import jettvarkis.command.ScheduleCommand;
+import jettvarkis.command.StatsCommand;
+import jettvarkis.command.TaskSelection;
 import jettvarkis.command.TodoCommand;
+import jettvarkis.command.UndoCommand;
 import jettvarkis.command.UnmarkCommand;
+import jettvarkis.command.UpcomingCommand;
 import jettvarkis.command.trivia.TriviaAddCommand;
 import jettvarkis.command.trivia.TriviaCreateCommand;
 import jettvarkis.command.trivia.TriviaDeleteCommand;
@@ -29,6 +43,10 @@ import jettvarkis.command.trivia.TriviaStopCommand;
 import jettvarkis.exception.JettVarkisException;
 import jettvarkis.task.Deadline;
 import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.StringPool;
 import jettvarkis.task.Task;
 import jettvarkis.task.Todo;
 
@@ -40,12 +58,27 @@ public class Parser {
     private static final int FILE_TYPE_INDEX = 0;
     private static final int FILE_IS_DONE_INDEX = 1;
     private static final int FILE_DESCRIPTION_INDEX = 2;
-    private static final int FILE_DEADLINE_BY_INDEX = 3;
-    private static final int FILE_EVENT_FROM_INDEX = 3;
-    private static final int FILE_EVENT_TO_INDEX = 4;
-
-    private static final int MIN_DEADLINE_PARTS = 4;
-    private static final int MIN_EVENT_PARTS = 5;
+    private static final int FILE_FIRST_DATE_INDEX = 3;
+    private static final int FILE_SECOND_FIELD_INDEX = 4;
+    private static final int FILE_THIRD_FIELD_INDEX = 5;
+    /** Marks a task reference as an id rather than a position in the list, e.g. "#42". */
+    private static final String TASK_ID_PREFIX = "#";
+    private static final String ALL_TASKS = "all";
+    private static final String FIND_SELECTION = "/find";
+    private static final String OVERDUE_SELECTION = "/overdue";
+    private static final String DONE_FILTER = "done";
+    private static final String PENDING_FILTER = "pending";
+    /** A range of task numbers, first and last inclusive, e.g. "100-5000". */
+    private static final Pattern TASK_RANGE_PATTERN = Pattern.compile("(\\d+)-(\\d+)");
+    private static final String RECURRENCE_SEPARATOR = "\\s+/every\\s+";
+    private static final Pattern FILE_RECURRENCE_PATTERN = Pattern.compile("every (\\w+)(?: until (.+))?");
+    /** A recurrence ending on a date without a time covers the whole of that day. */
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59);
+    private static final List<String> DATE_TIME_PATTERNS = List.of(
+            "d/M/yyyy HHmm", "yyyy-MM-dd HHmm", "d/M/yyyy", "yyyy-MM-dd");
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATTERS = DATE_TIME_PATTERNS.stream()
+            .map(DateTimeFormatter::ofPattern)
+            .collect(Collectors.toList());
 
     /**
      * Parses the full command string from the user and returns the corresponding
@@ -67,7 +100,7 @@ public class Parser {
         case "bye":
             return new ByeCommand();
         case "list":
-            return new ListCommand();
+            return parseListCommand(content);
         case "mark":
             return parseMarkCommand(content);
         case "unmark":
@@ -85,6 +118,20 @@ public class Parser {
                 throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_FIND_KEYWORD);
             }
             return new FindCommand(content.trim());
+        case "schedule":
+            return parseScheduleCommand(content);
+        case "conflicts":
+            return parseConflictsCommand(content);
+        case "upcoming":
+            return parseUpcomingCommand(content);
+        case "overdue":
+            return new OverdueCommand();
+        case "stats":
+            return new StatsCommand();
+        case "undo":
+            return new UndoCommand();
+        case "redo":
+            return new RedoCommand();
         case "trivia":
             return parseTriviaCommand(content);
         case "help": // Add this case
@@ -98,54 +145,44 @@ public class Parser {
      * Parses the content for a "mark" command.
      *
      * @param content
-     *            The content part of the command, expected to be the task number.
+     *            The content part of the command, expected to be task numbers, ranges or
+     *            ids, or "all" followed by an optional selection rule.
      * @return A MarkCommand object.
      * @throws JettVarkisException
-     *             If the task number is missing or invalid.
+     *             If the task number or selection rule is missing or invalid.
      */
     private static MarkCommand parseMarkCommand(String content) throws JettVarkisException {
         if (content == null || content.trim().isEmpty()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.MISSING_TASK_NUMBER);
         }
-        String[] indexStrings = content.trim().split("\\s+");
-        try {
-            int[] taskIndices = Arrays.stream(indexStrings)
-                    .mapToInt(s -> Integer.parseInt(s) - 1)
-                    .toArray();
-            if (Arrays.stream(taskIndices).anyMatch(i -> i < 0)) {
-                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
-            }
-            return new MarkCommand(taskIndices);
-        } catch (NumberFormatException e) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+        String[] references = content.trim().split("\\s+");
+        if (references[0].equals(ALL_TASKS)) {
+            return new MarkCommand(parseTaskSelection(content.trim().substring(ALL_TASKS.length()).trim()));
         }
+        return new MarkCommand(parseTaskIndices(references), parseTaskRanges(references),
+                parseTaskIds(references));
     }
 
     /**
      * Parses the content for an "unmark" command.
      *
      * @param content
-     *            The content part of the command, expected to be the task number.
+     *            The content part of the command, expected to be task numbers, ranges or
+     *            ids, or "all" followed by an optional selection rule.
      * @return An UnmarkCommand object.
      * @throws JettVarkisException
-     *             If the task number is missing or invalid.
+     *             If the task number or selection rule is missing or invalid.
      */
     private static UnmarkCommand parseUnmarkCommand(String content) throws JettVarkisException {
         if (content == null || content.trim().isEmpty()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.MISSING_TASK_NUMBER);
         }
-        String[] indexStrings = content.trim().split("\\s+");
-        try {
-            int[] taskIndices = Arrays.stream(indexStrings)
-                    .mapToInt(s -> Integer.parseInt(s) - 1)
-                    .toArray();
-            if (Arrays.stream(taskIndices).anyMatch(i -> i < 0)) {
-                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
-            }
-            return new UnmarkCommand(taskIndices);
-        } catch (NumberFormatException e) {
-            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+        String[] references = content.trim().split("\\s+");
+        if (references[0].equals(ALL_TASKS)) {
+            return new UnmarkCommand(parseTaskSelection(content.trim().substring(ALL_TASKS.length()).trim()));
         }
+        return new UnmarkCommand(parseTaskIndices(references), parseTaskRanges(references),
+                parseTaskIds(references));
     }
 
     /**
@@ -170,15 +207,19 @@ public class Parser {
      *
      * @param content
      *            The content part of the command, expected to be "description /by
-     *            datetime".
+     *            datetime", optionally followed by "/every unit /until datetime".
      * @return A DeadlineCommand object.
      * @throws JettVarkisException
-     *             If the description or due date is missing or invalid.
+     *             If the description, due date or recurrence is missing or invalid.
      */
     private static DeadlineCommand parseDeadlineCommand(String content) throws JettVarkisException {
         if (content == null || content.trim().isEmpty()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_DEADLINE_DESCRIPTION);
         }
+        String[] recurrenceParts = content.split(RECURRENCE_SEPARATOR, 2);
+        if (recurrenceParts.length > 1) {
+            return createRecurringDeadlineCommand(recurrenceParts[0], recurrenceParts[1]);
+        }
         String[] deadlineParts = content.split("\\s+/by\\s+", 2);
         if (deadlineParts.length < 2) {
             throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_DEADLINE_BY);
@@ -191,6 +232,24 @@ public class Parser {
         return createDeadlineCommand(description, by);
     }
 
+    private static DeadlineCommand createRecurringDeadlineCommand(String content, String rule)
+            throws JettVarkisException {
+        String[] deadlineParts = content.split("\\s+/by\\s+");
+        if (deadlineParts.length < 2) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_DEADLINE_BY);
+        }
+        if (deadlineParts.length > 2) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.MULTIPLE_DEADLINE_BY);
+        }
+        LocalDateTime by;
+        try {
+            by = parseDateTime(deadlineParts[1]);
+        } catch (DateTimeParseException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.UNPARSED_RECURRENCE_DATE);
+        }
+        return new DeadlineCommand(deadlineParts[0], by, parseRecurrence(rule, by));
+    }
+
     private static DeadlineCommand createDeadlineCommand(String description, String by) {
         try {
             LocalDateTime byDateTime = parseDateTime(by);
@@ -208,20 +267,23 @@ public class Parser {
      *
      * @param content
      *            The content part of the command, expected to be "description /from
-     *            datetime /to datetime".
+     *            datetime /to datetime", optionally followed by "/every unit /until datetime".
      * @return An EventCommand object.
      * @throws JettVarkisException
-     *             If the description, from, or to dates are missing or invalid.
+     *             If the description, from, or to dates or the recurrence are missing or invalid.
      */
     private static EventCommand parseEventCommand(String content) throws JettVarkisException {
         if (content == null || content.trim().isEmpty()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_EVENT_DESCRIPTION);
         }
-        String[] eventParts = content.split("\\s+/from\\s+", 2);
+        String[] recurrenceParts = content.split(RECURRENCE_SEPARATOR, 2);
+        String eventContent = recurrenceParts[0];
+        String rule = recurrenceParts.length > 1 ? recurrenceParts[1] : null;
+        String[] eventParts = eventContent.split("\\s+/from\\s+", 2);
         if (eventParts.length < 2) {
             throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_EVENT_FROM);
         }
-        if (content.split("\\s+/from\\s+").length > 2) {
+        if (eventContent.split("\\s+/from\\s+").length > 2) {
             throw new JettVarkisException(JettVarkisException.ErrorType.MULTIPLE_EVENT_FROM);
         }
 
@@ -236,9 +298,76 @@ public class Parser {
         String description = eventParts[0];
         String from = fromToParts[0];
         String to = fromToParts[1];
+        if (rule != null) {
+            return createRecurringEventCommand(description, from, to, rule);
+        }
         return createEventCommand(description, from, to);
     }
 
+    private static EventCommand createRecurringEventCommand(String description, String from, String to,
+            String rule) throws JettVarkisException {
+        LocalDateTime fromDateTime;
+        LocalDateTime toDateTime;
+        try {
+            fromDateTime = parseDateTime(from);
+            toDateTime = parseDateTime(to);
+        } catch (DateTimeParseException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.UNPARSED_RECURRENCE_DATE);
+        }
+        if (!fromDateTime.isBefore(toDateTime)) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_EVENT_TIMES);
+        }
+        return new EventCommand(description, fromDateTime, toDateTime, parseRecurrence(rule, fromDateTime));
+    }
+
+    /**
+     * Parses a recurrence rule entered by the user.
+     *
+     * @param rule
+     *            The rule following "/every", expected to be "unit", optionally
+     *            followed by "/until datetime".
+     * @param first
+     *            The due date or start time of the first occurrence.
+     * @return A Recurrence object.
+     * @throws JettVarkisException
+     *             If the unit is unknown, or the end cannot be parsed or comes before
+     *             the first occurrence.
+     */
+    private static Recurrence parseRecurrence(String rule, LocalDateTime first) throws JettVarkisException {
+        String[] untilParts = rule.trim().split("\\s+/until\\s+", 2);
+        Recurrence.Frequency frequency = Recurrence.Frequency.fromUnit(untilParts[0].trim().toLowerCase())
+                .orElseThrow(() -> new JettVarkisException(JettVarkisException.ErrorType.INVALID_RECURRENCE));
+        if (untilParts.length < 2) {
+            return new Recurrence(frequency);
+        }
+        try {
+            LocalDateTime until = parseRecurrenceEnd(untilParts[1].trim());
+            if (until.isBefore(first)) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_RECURRENCE);
+            }
+            return new Recurrence(frequency, until);
+        } catch (DateTimeParseException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_RECURRENCE);
+        }
+    }
+
+    /**
+     * Parses the end of a recurrence, where a date without a time stands for the end of that day.
+     */
+    private static LocalDateTime parseRecurrenceEnd(String until) throws DateTimeParseException {
+        for (int i = 0; i < DATE_TIME_PATTERNS.size(); i++) {
+            if (DATE_TIME_PATTERNS.get(i).contains("HHmm")) {
+                continue;
+            }
+            try {
+                return LocalDate.parse(until, DATE_TIME_FORMATTERS.get(i)).atTime(END_OF_DAY);
+            } catch (DateTimeParseException e) {
+                // Continue to try the next format
+            }
+        }
+        return parseDateTime(until);
+    }
+
     private static EventCommand createEventCommand(String description, String from, String to)
             throws JettVarkisException {
         try {
@@ -262,7 +391,7 @@ public class Parser {
      * Parses the content for a "delete" command.
      *
      * @param content
-     *            The content part of the command, expected to be the task number.
+     *            The content part of the command, expected to be task numbers, ranges or ids.
      * @return A DeleteCommand object.
      * @throws JettVarkisException
      *             If the task number is missing or invalid.
@@ -271,18 +400,220 @@ public class Parser {
         if (content == null || content.trim().isEmpty()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.MISSING_TASK_NUMBER);
         }
-        String[] indexStrings = content.trim().split("\\s+");
+        String[] references = content.trim().split("\\s+");
+        return new DeleteCommand(parseTaskIndices(references), parseTaskRanges(references),
+                parseTaskIds(references));
+    }
+
+    /**
+     * Parses the content of a list command: nothing to list every task, or "done" or
+     * "pending" to list only the tasks with that status.
+     *
+     * @param content
+     *            The content part of the command, or null if there is none.
+     * @return A ListCommand object.
+     * @throws JettVarkisException
+     *             If the content is not a recognised filter.
+     */
+    private static ListCommand parseListCommand(String content) throws JettVarkisException {
+        if (content == null || content.trim().isEmpty()) {
+            return new ListCommand();
+        }
+        switch (content.trim()) {
+        case DONE_FILTER:
+            return new ListCommand(true);
+        case PENDING_FILTER:
+            return new ListCommand(false);
+        default:
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_LIST_FILTER);
+        }
+    }
+
+    /**
+     * Parses the rule that follows "all" in a command selecting tasks in bulk: nothing to
+     * select every task, "/find keyword" to select the tasks matching the keyword, or
+     * "/overdue" to select the deadlines that were due before now.
+     *
+     * @param rule
+     *            The trimmed content after "all".
+     * @return The task selection.
+     * @throws JettVarkisException
+     *             If the rule is not recognised or the keyword is empty.
+     */
+    private static TaskSelection parseTaskSelection(String rule) throws JettVarkisException {
+        if (rule.isEmpty()) {
+            return TaskSelection.all();
+        }
+        if (rule.equals(OVERDUE_SELECTION)) {
+            return TaskSelection.pastDue();
+        }
+        String[] ruleParts = rule.split("\\s+", 2);
+        if (!ruleParts[0].equals(FIND_SELECTION)) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_SELECTION);
+        }
+        if (ruleParts.length < 2) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_FIND_KEYWORD);
+        }
+        return TaskSelection.matching(ruleParts[1]);
+    }
+
+    /**
+     * Parses the task numbers among the given task references into zero-based indices.
+     * References starting with {@link #TASK_ID_PREFIX} are ids and ranges are parsed
+     * separately, so both are skipped.
+     *
+     * @param references
+     *            The task references, e.g. "3" or "#42".
+     * @return The zero-based indices of the numbered tasks.
+     * @throws JettVarkisException
+     *             If a task number is not a positive integer.
+     */
+    private static int[] parseTaskIndices(String[] references) throws JettVarkisException {
         try {
-            int[] taskIndices = Arrays.stream(indexStrings)
-                    .mapToInt(s -> Integer.parseInt(s) - 1)
+            int[] taskIndices = Arrays.stream(references)
+                    .filter(reference -> !reference.startsWith(TASK_ID_PREFIX)
+                            && !TASK_RANGE_PATTERN.matcher(reference).matches())
+                    .mapToInt(reference -> Integer.parseInt(reference) - 1)
                     .toArray();
             if (Arrays.stream(taskIndices).anyMatch(i -> i < 0)) {
                 throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
             }
-            return new DeleteCommand(taskIndices);
+            return taskIndices;
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+        }
+    }
+
+    /**
+     * Parses the ranges of task numbers among the given task references, e.g. "100-5000".
+     *
+     * @param references
+     *            The task references.
+     * @return Pairs of the zero-based first and last index of each range.
+     * @throws JettVarkisException
+     *             If a range does not start at a positive number or ends before it starts.
+     */
+    private static int[] parseTaskRanges(String[] references) throws JettVarkisException {
+        List<Matcher> ranges = Arrays.stream(references)
+                .map(TASK_RANGE_PATTERN::matcher)
+                .filter(Matcher::matches)
+                .collect(Collectors.toList());
+        int[] taskRanges = new int[ranges.size() * 2];
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                taskRanges[2 * i] = Integer.parseInt(ranges.get(i).group(1)) - 1;
+                taskRanges[2 * i + 1] = Integer.parseInt(ranges.get(i).group(2)) - 1;
+                if (taskRanges[2 * i] < 0 || taskRanges[2 * i] > taskRanges[2 * i + 1]) {
+                    throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+                }
+            }
         } catch (NumberFormatException e) {
             throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
         }
+        return taskRanges;
+    }
+
+    /**
+     * Parses the task ids among the given task references.
+     * References without the {@link #TASK_ID_PREFIX} are task numbers and are skipped.
+     *
+     * @param references
+     *            The task references, e.g. "3" or "#42".
+     * @return The referenced task ids.
+     * @throws JettVarkisException
+     *             If a task id is not a positive integer.
+     */
+    private static long[] parseTaskIds(String[] references) throws JettVarkisException {
+        try {
+            long[] taskIds = Arrays.stream(references)
+                    .filter(reference -> reference.startsWith(TASK_ID_PREFIX))
+                    .mapToLong(reference -> Long.parseLong(reference.substring(TASK_ID_PREFIX.length())))
+                    .toArray();
+            if (Arrays.stream(taskIds).anyMatch(id -> id <= Task.NO_ID)) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+            }
+            return taskIds;
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_TASK_NUMBER);
+        }
+    }
+
+    /**
+     * Parses the content for a "schedule" command.
+     *
+     * @param content
+     *            The content part of the command, expected to be "/from datetime
+     *            /to datetime".
+     * @return A ScheduleCommand object.
+     * @throws JettVarkisException
+     *             If either time is missing or invalid, or the range does not start
+     *             before it ends.
+     */
+    private static ScheduleCommand parseScheduleCommand(String content) throws JettVarkisException {
+        if (content == null || !content.trim().startsWith("/from ")) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_SCHEDULE_RANGE);
+        }
+        String range = content.trim().substring("/from".length()).trim();
+        String[] fromToParts = range.split("\\s+/to\\s+", 2);
+        if (fromToParts.length < 2) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.EMPTY_SCHEDULE_RANGE);
+        }
+        try {
+            LocalDateTime from = parseDateTime(fromToParts[0]);
+            LocalDateTime to = parseDateTime(fromToParts[1]);
+            if (!from.isBefore(to)) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_SCHEDULE_RANGE);
+            }
+            return new ScheduleCommand(from, to);
+        } catch (DateTimeParseException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_SCHEDULE_RANGE);
+        }
+    }
+
+    /**
+     * Parses the content for a "conflicts" command.
+     *
+     * @param content
+     *            The content part of the command, expected to be "allow", "warn" or
+     *            "reject".
+     * @return A ConflictsCommand object.
+     * @throws JettVarkisException
+     *             If the policy is missing or unknown.
+     */
+    private static ConflictsCommand parseConflictsCommand(String content) throws JettVarkisException {
+        if (content == null || content.trim().isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_CONFLICT_POLICY);
+        }
+        try {
+            return new ConflictsCommand(ConflictPolicy.valueOf(content.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_CONFLICT_POLICY);
+        }
+    }
+
+    /**
+     * Parses the content for an "upcoming" command.
+     *
+     * @param content
+     *            The content part of the command, expected to be the number of
+     *            deadlines to show, or null to show the default number.
+     * @return An UpcomingCommand object.
+     * @throws JettVarkisException
+     *             If the number is not a positive integer.
+     */
+    private static UpcomingCommand parseUpcomingCommand(String content) throws JettVarkisException {
+        if (content == null || content.trim().isEmpty()) {
+            return new UpcomingCommand(UpcomingCommand.DEFAULT_COUNT);
+        }
+        try {
+            int count = Integer.parseInt(content.trim());
+            if (count <= 0) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_UPCOMING_COUNT);
+            }
+            return new UpcomingCommand(count);
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.INVALID_UPCOMING_COUNT);
+        }
     }
 
     private static Command parseTriviaCommand(String content) throws JettVarkisException {
@@ -368,6 +699,7 @@ public class Parser {
 
     /**
      * Parses a line from the task file and returns the corresponding Task object.
+     * The line may start with the task's id, e.g. "42 | T | 0 | read book".
      *
      * @param line
      *            The line read from the task file.
@@ -377,22 +709,100 @@ public class Parser {
      */
     public static Task parseFileLine(String line) throws JettVarkisException {
         assert line != null;
-        String[] parts = line.split(" \\| ");
-        assert parts.length >= 3 : "File line must have at least 3 parts: " + line;
+        String[] fields = line.split(" \\| ");
+        boolean hasId = isFileId(fields[0]);
+        String[] parts = hasId ? Arrays.copyOfRange(fields, 1, fields.length) : fields;
+        if (parts.length <= FILE_DESCRIPTION_INDEX) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
         String type = parts[FILE_TYPE_INDEX];
         boolean isDone = parts[FILE_IS_DONE_INDEX].equals("1");
         String description = parts[FILE_DESCRIPTION_INDEX];
+        String firstDate = parts.length > FILE_FIRST_DATE_INDEX ? parts[FILE_FIRST_DATE_INDEX] : null;
+        String secondField = parts.length > FILE_SECOND_FIELD_INDEX ? parts[FILE_SECOND_FIELD_INDEX] : null;
+        String thirdField = parts.length > FILE_THIRD_FIELD_INDEX ? parts[FILE_THIRD_FIELD_INDEX] : null;
+        Task task = parseFileFields(type, isDone, description, firstDate, secondField, thirdField);
+        if (hasId) {
+            task.setId(parseFileId(fields[0]));
+        }
+        return task;
+    }
+
+    /**
+     * Returns whether a task file field is a task id, i.e. made up of digits only.
+     *
+     * @param field
+     *            The first field of a task file line.
+     * @return True if the field holds an id rather than a task type.
+     */
+    public static boolean isFileId(String field) {
+        if (field.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) < '0' || field.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the id field of a task file line.
+     *
+     * @param field
+     *            A field for which {@link #isFileId(String)} holds.
+     * @return The task id.
+     * @throws JettVarkisException
+     *             If the id is zero or too large.
+     */
+    public static long parseFileId(String field) throws JettVarkisException {
+        try {
+            long id = Long.parseLong(field);
+            if (id == Task.NO_ID) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
 
+    /**
+     * Returns the Task described by the fields of a task file line that has
+     * already been split, so that loaders can avoid splitting with a regex.
+     *
+     * @param type
+     *            The task type field, e.g. "T".
+     * @param isDone
+     *            Whether the task is marked as done.
+     * @param description
+     *            The description field.
+     * @param firstDate
+     *            The deadline's due date or the event's start time, or null if absent.
+     * @param secondField
+     *            The event's end time or the deadline's recurrence, or null if absent.
+     * @param thirdField
+     *            The event's recurrence, or null if absent.
+     * @return A Task object built from the fields.
+     * @throws JettVarkisException
+     *             If the type is unknown, a required date field is missing, or a
+     *             recurrence is invalid or belongs to a task with unparsed dates.
+     */
+    public static Task parseFileFields(String type, boolean isDone, String description, String firstDate,
+            String secondField, String thirdField) throws JettVarkisException {
+        // Archives repeat the same descriptions many times over, so loaded tasks share one copy of each
+        String pooledDescription = StringPool.getShared().intern(description);
         Task task;
         switch (type) {
         case "T":
-            task = parseTodoFromFile(description);
+            task = parseTodoFromFile(pooledDescription);
             break;
         case "D":
-            task = parseDeadlineFromFile(description, parts);
+            task = parseDeadlineFromFile(pooledDescription, firstDate, secondField);
             break;
         case "E":
-            task = parseEventFromFile(description, parts);
+            task = parseEventFromFile(pooledDescription, firstDate, secondField, thirdField);
             break;
         default:
             throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
@@ -408,34 +818,72 @@ public class Parser {
         return new Todo(description);
     }
 
-    private static Task parseDeadlineFromFile(String description, String[] parts) throws JettVarkisException {
-        if (parts.length < MIN_DEADLINE_PARTS) {
+    private static Task parseDeadlineFromFile(String description, String byString, String recurrenceString)
+            throws JettVarkisException {
+        if (byString == null) {
             throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
         }
-        String byString = parts[FILE_DEADLINE_BY_INDEX];
         Optional<LocalDateTime> byDateTime = parseDateTimeSafely(byString);
+        if (recurrenceString != null) {
+            LocalDateTime by = byDateTime.orElseThrow(() ->
+                    new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR));
+            return new RecurringDeadline(description, by, parseRecurrenceFromFile(recurrenceString));
+        }
         if (byDateTime.isPresent()) {
             return new Deadline(description, byDateTime.get());
         } else {
-            return new Deadline(description, byString);
+            return new Deadline(description, StringPool.getShared().intern(byString));
         }
     }
 
-    private static Task parseEventFromFile(String description, String[] parts) throws JettVarkisException {
-        if (parts.length < MIN_EVENT_PARTS) {
+    private static Task parseEventFromFile(String description, String fromString, String toString,
+            String recurrenceString) throws JettVarkisException {
+        if (fromString == null || toString == null) {
             throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
         }
-        String fromString = parts[FILE_EVENT_FROM_INDEX];
-        String toString = parts[FILE_EVENT_TO_INDEX];
-
         Optional<LocalDateTime> fromDateTime = parseDateTimeSafely(fromString);
         Optional<LocalDateTime> toDateTime = parseDateTimeSafely(toString);
+        if (recurrenceString != null) {
+            if (fromDateTime.isEmpty() || toDateTime.isEmpty()) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+            }
+            return new RecurringEvent(description, fromDateTime.get(), toDateTime.get(),
+                    parseRecurrenceFromFile(recurrenceString));
+        }
 
         if (fromDateTime.isPresent() && toDateTime.isPresent()) {
             return new Event(description, fromDateTime.get(), toDateTime.get());
         } else {
-            return new Event(description, fromString, toString);
+            StringPool pool = StringPool.getShared();
+            return new Event(description, pool.intern(fromString), pool.intern(toString));
+        }
+    }
+
+    /**
+     * Parses a recurrence saved by {@link Recurrence#toFileString()}, e.g. "every week".
+     *
+     * @param recurrenceString
+     *            The recurrence field of a task file line.
+     * @return A Recurrence object.
+     * @throws JettVarkisException
+     *             If the field is not a valid recurrence.
+     */
+    private static Recurrence parseRecurrenceFromFile(String recurrenceString) throws JettVarkisException {
+        Matcher matcher = FILE_RECURRENCE_PATTERN.matcher(recurrenceString);
+        Optional<Recurrence.Frequency> frequency = matcher.matches()
+                ? Recurrence.Frequency.fromUnit(matcher.group(1))
+                : Optional.empty();
+        if (frequency.isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        if (matcher.group(2) == null) {
+            return new Recurrence(frequency.get());
         }
+        Optional<LocalDateTime> until = parseDateTimeSafely(matcher.group(2));
+        if (until.isEmpty()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return new Recurrence(frequency.get(), until.get());
     }
 
     /**
@@ -452,15 +900,10 @@ public class Parser {
         if (dateTimeString == null || dateTimeString.trim().isEmpty()) {
             throw new DateTimeParseException("Date-time string cannot be empty or null.", dateTimeString, 0);
         }
-        List<DateTimeFormatter> formatters = Arrays.asList(
-                DateTimeFormatter.ofPattern("d/M/yyyy HHmm"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"),
-                DateTimeFormatter.ofPattern("d/M/yyyy"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-
-        for (DateTimeFormatter formatter : formatters) {
+        for (int i = 0; i < DATE_TIME_PATTERNS.size(); i++) {
             try {
-                if (!formatter.toString().contains("HHmm")) {
+                DateTimeFormatter formatter = DATE_TIME_FORMATTERS.get(i);
+                if (!DATE_TIME_PATTERNS.get(i).contains("HHmm")) {
                     return java.time.LocalDate.parse(dateTimeString, formatter).atStartOfDay();
                 }
                 return LocalDateTime.parse(dateTimeString, formatter);
@@ -472,7 +915,8 @@ public class Parser {
     }
 
     /**
-     * Safely parses a date-time string into a LocalDateTime object.
+     * Safely parses a date-time string from the task file into a LocalDateTime object.
+     * Besides the formats users enter, the ISO format that tasks are saved in is accepted.
      * Returns an Optional.empty() if parsing fails.
      *
      * @param dateTimeString
@@ -483,6 +927,11 @@ public class Parser {
     private static Optional<LocalDateTime> parseDateTimeSafely(String dateTimeString) {
         try {
             return Optional.of(parseDateTime(dateTimeString));
+        } catch (DateTimeParseException e) {
+            // Not in a format users enter; try the format tasks are saved in
+        }
+        try {
+            return Optional.of(LocalDateTime.parse(dateTimeString));
         } catch (DateTimeParseException e) {
             return Optional.empty();
         }
@@ -0,0 +1,263 @@
+package jettvarkis.reminder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import jettvarkis.storage.LazyTaskList;
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.Task;
+
+/**
+ * Fires a reminder shortly before each pending deadline is due and each pending event
+ * starts, on a single background scheduler thread.
+ * Reminders are kept in a {@link TimingWheel} that ticks once every tick interval, so
+ * scheduling and cancelling a reminder are O(1) however many are pending. Deadlines
+ * and events whose times were not parsed get no reminder, and neither do tasks whose
+ * due date or start time has already passed. Tasks are tracked by identity.
+ * A recurring task has one reminder pending at a time, for its next occurrence; once
+ * it fires, the reminder for the occurrence after that is scheduled.
+ */
+public class ReminderScheduler {
+
+    /** How long before the due date or start time a reminder fires by default. */
+    public static final Duration DEFAULT_LEAD_TIME = Duration.ofMinutes(15);
+
+    /** How often the scheduler thread checks for due reminders by default. */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    private final ReminderSink sink;
+    private final Duration leadTime;
+    private final long tickMillis;
+    private final Clock clock;
+    private final TimingWheel<Reminder> wheel;
+    private final Map<Task, TimingWheel.Timeout<Reminder>> timeouts = new IdentityHashMap<>();
+    private final Thread scheduler;
+    private boolean isClosed;
+
+    /**
+     * Constructs a ReminderScheduler with the default lead time and tick interval,
+     * using the system clock.
+     *
+     * @param sink
+     *            The destination of the fired reminders.
+     */
+    public ReminderScheduler(ReminderSink sink) {
+        this(sink, DEFAULT_LEAD_TIME, DEFAULT_TICK_MILLIS, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a ReminderScheduler.
+     *
+     * @param sink
+     *            The destination of the fired reminders.
+     * @param leadTime
+     *            How long before the due date or start time a reminder fires.
+     * @param tickMillis
+     *            How often, in milliseconds, the scheduler checks for due reminders.
+     * @param clock
+     *            The clock that due dates and start times are compared against.
+     */
+    public ReminderScheduler(ReminderSink sink, Duration leadTime, long tickMillis, Clock clock) {
+        assert sink != null && leadTime != null && clock != null;
+        assert !leadTime.isNegative() && tickMillis > 0;
+        this.sink = sink;
+        this.leadTime = leadTime;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(currentTick());
+        this.scheduler = new Thread(this::runScheduler, "reminder-scheduler");
+        this.scheduler.setDaemon(true);
+    }
+
+    /**
+     * Starts the background scheduler thread.
+     */
+    public void start() {
+        scheduler.start();
+    }
+
+    /**
+     * Schedules a reminder for the task, replacing any reminder it already has.
+     * Tasks that are done, are not deadlines or events, or are already due are ignored.
+     * A recurring task is reminded of its next occurrence that is not yet due.
+     *
+     * @param task
+     *            The task to be reminded of.
+     */
+    public synchronized void schedule(Task task) {
+        assert task != null;
+        scheduleAfter(task, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Schedules a reminder for each of the tasks.
+     * Only the rows of a {@link LazyTaskList} that may still fall due are decoded, so
+     * that tasks done or past long ago stay encoded.
+     *
+     * @param tasks
+     *            The tasks to be reminded of.
+     */
+    public synchronized void scheduleAll(List<Task> tasks) {
+        assert tasks != null;
+        if (tasks instanceof LazyTaskList) {
+            LazyTaskList lazyTasks = (LazyTaskList) tasks;
+            lazyTasks.findRowsDueAfter(LocalDateTime.now(clock)).stream()
+                    .forEach(index -> schedule(lazyTasks.get(index)));
+            return;
+        }
+        tasks.forEach(this::schedule);
+    }
+
+    /**
+     * Cancels the task's pending reminder, if any.
+     *
+     * @param task
+     *            The task whose reminder is cancelled.
+     */
+    public synchronized void cancel(Task task) {
+        assert task != null;
+        TimingWheel.Timeout<Reminder> timeout = timeouts.remove(task);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    /**
+     * Returns the number of reminders that have not fired yet.
+     *
+     * @return The number of pending reminders.
+     */
+    public synchronized int getPendingCount() {
+        return timeouts.size();
+    }
+
+    /**
+     * Stops the scheduler thread. Pending reminders are dropped.
+     */
+    public void close() {
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+        }
+        if (scheduler.isAlive()) {
+            try {
+                scheduler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fires every reminder that has come due by the clock's current time.
+     * Called on every tick by the scheduler thread; reminders are delivered outside
+     * this scheduler's monitor so that a sink can call back into it.
+     */
+    void fireDueReminders() {
+        List<Reminder> dueReminders = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(currentTick(), dueReminders::add);
+            for (Reminder reminder : dueReminders) {
+                timeouts.remove(reminder.task);
+                if (reminder.task != reminder.occurrence) {
+                    scheduleAfter(reminder.task, reminder.dueTime);
+                }
+            }
+        }
+        dueReminders.forEach(reminder -> sink.remind(reminder.occurrence));
+    }
+
+    /**
+     * Schedules a reminder for the task's first occurrence due strictly after the given time.
+     */
+    private void scheduleAfter(Task task, LocalDateTime time) {
+        cancel(task);
+        if (task.isDone()) {
+            return;
+        }
+        Optional<Task> occurrence = findOccurrenceAfter(task, time);
+        if (occurrence.isEmpty()) {
+            return;
+        }
+        LocalDateTime dueTime = getDueTime(occurrence.get()).get();
+        long remindAtMillis = dueTime.minus(leadTime).atZone(clock.getZone()).toInstant().toEpochMilli();
+        // Round up so that a reminder never fires before its time
+        long deadlineTick = Math.floorDiv(remindAtMillis + tickMillis - 1, tickMillis);
+        timeouts.put(task, wheel.schedule(new Reminder(task, occurrence.get(), dueTime), deadlineTick));
+    }
+
+    private void runScheduler() {
+        while (awaitNextTick()) {
+            fireDueReminders();
+        }
+    }
+
+    /**
+     * Waits until the next tick starts. Returns false once the scheduler is closed.
+     */
+    private synchronized boolean awaitNextTick() {
+        long nextTickMillis = (currentTick() + 1) * tickMillis;
+        long waitMillis = nextTickMillis - clock.millis();
+        while (waitMillis > 0 && !isClosed) {
+            try {
+                wait(waitMillis);
+            } catch (InterruptedException e) {
+                return false;
+            }
+            waitMillis = nextTickMillis - clock.millis();
+        }
+        return !isClosed;
+    }
+
+    private long currentTick() {
+        return Math.floorDiv(clock.millis(), tickMillis);
+    }
+
+    /**
+     * Returns the task itself if it is due after the given time, or the first occurrence
+     * due after it if the task recurs.
+     */
+    private static Optional<Task> findOccurrenceAfter(Task task, LocalDateTime time) {
+        if (task instanceof RecurringDeadline) {
+            return ((RecurringDeadline) task).findOccurrenceAfter(time).map(Task.class::cast);
+        } else if (task instanceof RecurringEvent) {
+            return ((RecurringEvent) task).findOccurrenceAfter(time).map(Task.class::cast);
+        }
+        return getDueTime(task).filter(dueTime -> dueTime.isAfter(time)).map(dueTime -> task);
+    }
+
+    private static Optional<LocalDateTime> getDueTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFrom();
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Holds a pending reminder: the task it belongs to, and the occurrence and due time
+     * it is for, which are the task and its own due time unless the task recurs.
+     */
+    private static class Reminder {
+        private final Task task;
+        private final Task occurrence;
+        private final LocalDateTime dueTime;
+
+        private Reminder(Task task, Task occurrence, LocalDateTime dueTime) {
+            this.task = task;
+            this.occurrence = occurrence;
+            this.dueTime = dueTime;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jettvarkis.reminder;
+
+import jettvarkis.task.Task;
+
+/**
+ * Represents the destination of the reminders fired by a {@link ReminderScheduler},
+ * such as the GUI's dialog container or a headless log.
+ * Reminders are delivered on the scheduler's thread, so a sink that updates a user
+ * interface must hand the update over to that interface's own thread.
+ */
+@FunctionalInterface
+public interface ReminderSink {
+
+    /**
+     * Delivers a reminder that a task is approaching its due date or start time.
+     *
+     * @param task
+     *            The deadline or event the reminder is about.
+     */
+    void remind(Task task);
+}
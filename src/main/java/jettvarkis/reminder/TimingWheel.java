@@ -0,0 +1,215 @@
+package jettvarkis.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Represents a hierarchical timing wheel holding timeouts that expire at a given tick.
+ * Each level is a ring of {@value #SLOTS_PER_LEVEL} slots, and a slot on level n spans
+ * {@value #SLOTS_PER_LEVEL}^n ticks. A timeout is placed on the lowest level whose span
+ * covers its delay, so scheduling and cancelling are O(1) no matter how many timeouts
+ * are pending or how far ahead they expire. Whenever the lowest level wraps around,
+ * the next slot of the level above is cascaded down, so each timeout is moved at most
+ * once per level before it expires.
+ * The wheel is not thread-safe.
+ *
+ * @param <T>
+ *            The type of the payload carried by each timeout.
+ */
+public class TimingWheel<T> {
+
+    /** The number of slots on each level. */
+    public static final int SLOTS_PER_LEVEL = 64;
+
+    private static final int BITS_PER_LEVEL = Integer.numberOfTrailingZeros(SLOTS_PER_LEVEL);
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVEL_COUNT = 8;
+    private static final long MAX_DELAY_TICKS = (1L << (BITS_PER_LEVEL * LEVEL_COUNT)) - 1;
+
+    private final Timeout<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs an empty TimingWheel whose time starts at the given tick.
+     *
+     * @param startTick
+     *            The tick the wheel has already advanced to.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TimingWheel(long startTick) {
+        assert startTick >= 0;
+        this.currentTick = startTick;
+        this.slots = new Timeout[LEVEL_COUNT][SLOTS_PER_LEVEL];
+        for (Timeout<T>[] level : slots) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = Timeout.newSentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules a payload to expire at the given tick. A tick that has already been
+     * reached expires on the next tick.
+     *
+     * @param payload
+     *            The payload handed back when the timeout expires.
+     * @param deadlineTick
+     *            The tick at which the timeout expires.
+     * @return The handle used to cancel the timeout.
+     */
+    public Timeout<T> schedule(T payload, long deadlineTick) {
+        assert payload != null;
+        long tick = Math.min(Math.max(deadlineTick, currentTick + 1), currentTick + MAX_DELAY_TICKS);
+        Timeout<T> timeout = new Timeout<>(payload, tick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a pending timeout.
+     *
+     * @param timeout
+     *            The handle returned by {@link #schedule(Object, long)}.
+     * @return True if the timeout was pending, false if it had already expired or been cancelled.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        assert timeout != null;
+        if (timeout.previous == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the given tick, handing every timeout that
+     * expires on the way to the consumer, in order of expiry.
+     *
+     * @param tick
+     *            The tick to advance to; earlier ticks are ignored.
+     * @param onExpiry
+     *            The consumer of the expired payloads.
+     */
+    public void advanceTo(long tick, Consumer<T> onExpiry) {
+        assert onExpiry != null;
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            Timeout<T> sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (sentinel.next != sentinel) {
+                Timeout<T> timeout = sentinel.next;
+                assert timeout.deadlineTick == currentTick : "Timeout expired on the wrong tick";
+                timeout.unlink();
+                size--;
+                onExpiry.accept(timeout.payload);
+            }
+        }
+    }
+
+    /**
+     * Returns the tick the wheel has advanced to.
+     *
+     * @return The current tick.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of pending timeouts.
+     *
+     * @return The number of timeouts that have neither expired nor been cancelled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves the timeouts of every higher-level slot that starts at the current tick
+     * down to the levels that now cover them.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVEL_COUNT; level++) {
+            int shift = BITS_PER_LEVEL * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Timeout<T> sentinel = slots[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            while (sentinel.next != sentinel) {
+                Timeout<T> timeout = sentinel.next;
+                timeout.unlink();
+                place(timeout);
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delay = timeout.deadlineTick - currentTick;
+        assert delay >= 0 && delay <= MAX_DELAY_TICKS;
+        int level = 0;
+        while (level < LEVEL_COUNT - 1 && delay >= 1L << (BITS_PER_LEVEL * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((timeout.deadlineTick >>> (BITS_PER_LEVEL * level)) & SLOT_MASK);
+        timeout.linkBefore(slots[level][slot]);
+    }
+
+    /**
+     * Represents a pending timeout, linked into the slot list it is waiting in.
+     *
+     * @param <T>
+     *            The type of the payload.
+     */
+    public static class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> newSentinel() {
+            Timeout<T> sentinel = new Timeout<>(null, -1);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * Returns the payload of the timeout.
+         *
+         * @return The payload.
+         */
+        public T getPayload() {
+            return payload;
+        }
+
+        /**
+         * Returns the tick at which the timeout expires.
+         *
+         * @return The deadline tick.
+         */
+        public long getDeadlineTick() {
+            return deadlineTick;
+        }
+
+        private void linkBefore(Timeout<T> sentinel) {
+            previous = sentinel.previous;
+            next = sentinel;
+            sentinel.previous.next = this;
+            sentinel.previous = this;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package jettvarkis.storage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.StringPool;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Reads tasks written by {@link BinaryTaskWriter} from a buffer holding the whole file.
+ * Unlike the text format, no field needs to be split or parsed with a date formatter.
+ * Tasks can either be decoded eagerly, or indexed by offset and decoded on first
+ * access through a {@link LazyTaskList}.
+ */
+public class BinaryTaskReader {
+
+    private static final long MIN_EPOCH_SECONDS = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC);
+    private static final long MAX_EPOCH_SECONDS = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC);
+
+    private final ByteBuffer buffer;
+    private int generation;
+
+    /**
+     * Constructs a BinaryTaskReader over the given buffer.
+     * The buffer's position and limit are left untouched.
+     *
+     * @param buffer
+     *            The contents of the task file.
+     */
+    public BinaryTaskReader(ByteBuffer buffer) {
+        assert buffer != null;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns whether the file starts with the binary format's magic bytes.
+     *
+     * @param file
+     *            The task file to inspect.
+     * @return True if the file is in the binary format.
+     * @throws JettVarkisException
+     *             If the file cannot be read.
+     */
+    public static boolean isBinary(File file) throws JettVarkisException {
+        byte[] header = new byte[BinaryTaskWriter.MAGIC.length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = in.readNBytes(header, 0, header.length);
+            return read == header.length && Arrays.equals(header, BinaryTaskWriter.MAGIC);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Decodes every task into the given list.
+     *
+     * @param tasks
+     *            The list the tasks are added to.
+     * @return The snapshot generation recorded in the header.
+     * @throws JettVarkisException
+     *             If the file is truncated, has an unsupported version or contains an invalid task.
+     */
+    public int read(ArrayList<Task> tasks) throws JettVarkisException {
+        assert tasks != null;
+        try {
+            ByteBuffer view = buffer.duplicate();
+            int count = readHeader(view);
+            tasks.ensureCapacity(tasks.size() + count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(decode(view));
+            }
+            return generation;
+        } catch (BufferUnderflowException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    /**
+     * Validates every task and returns a list that decodes each one on first access.
+     * Use {@link #getGeneration()} afterwards for the snapshot generation.
+     *
+     * @return A list backed by this reader's buffer.
+     * @throws JettVarkisException
+     *             If the file is truncated, has an unsupported version or contains an invalid task.
+     */
+    public LazyTaskList readLazily() throws JettVarkisException {
+        try {
+            ByteBuffer view = buffer.duplicate();
+            int count = readHeader(view);
+            int[] offsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = view.position();
+                skip(view);
+            }
+            return new LazyTaskList(buffer, offsets);
+        } catch (BufferUnderflowException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    /**
+     * Returns the snapshot generation recorded in the header of the last file read.
+     *
+     * @return The snapshot generation.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Decodes the task starting at the given offset of a buffer that
+     * {@link #readLazily()} has already validated.
+     */
+    static Task decodeAt(ByteBuffer buffer, int offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        try {
+            return decode(view);
+        } catch (JettVarkisException e) {
+            throw new AssertionError("Task at offset " + offset + " was validated when indexed", e);
+        }
+    }
+
+    /**
+     * Returns whether the task starting at the given offset of a validated buffer has an
+     * id, reading only its flags. Tasks in version 1 files never have one.
+     */
+    static boolean hasIdAt(ByteBuffer buffer, int offset) {
+        return (buffer.get(offset + 1) & BinaryTaskWriter.ID_FLAG) != 0;
+    }
+
+    /**
+     * Returns whether the task starting at the given offset of a validated buffer may
+     * still fall due after the given time, reading only its type, flags and first date.
+     * Done tasks, todos, and deadlines and events that are already past or whose dates
+     * were not parsed cannot. A pending recurring task may have a later occurrence.
+     */
+    static boolean mayFallDueAfter(ByteBuffer buffer, int offset, LocalDateTime time) {
+        int position = offset;
+        byte type = buffer.get(position++);
+        byte flags = buffer.get(position++);
+        if ((flags & BinaryTaskWriter.DONE_FLAG) != 0 || type == BinaryTaskWriter.TODO) {
+            return false;
+        }
+        if (type == BinaryTaskWriter.RECURRING_DEADLINE || type == BinaryTaskWriter.RECURRING_EVENT) {
+            return true;
+        }
+        if ((flags & BinaryTaskWriter.ID_FLAG) != 0) {
+            position += Long.BYTES;
+        }
+        position += Integer.BYTES + buffer.getInt(position);
+        if (buffer.get(position) != BinaryTaskWriter.EPOCH_SECONDS) {
+            return false;
+        }
+        return buffer.getLong(position + 1) > time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private int readHeader(ByteBuffer view) throws JettVarkisException {
+        byte[] magic = new byte[BinaryTaskWriter.MAGIC.length];
+        view.get(magic);
+        byte version = view.get();
+        if (!Arrays.equals(magic, BinaryTaskWriter.MAGIC) || version < BinaryTaskWriter.FIRST_VERSION
+                || version > BinaryTaskWriter.VERSION) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        generation = view.getInt();
+        int count = view.getInt();
+        if (count < 0) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return count;
+    }
+
+    private static Task decode(ByteBuffer view) throws JettVarkisException {
+        byte type = view.get();
+        byte flags = readFlags(view);
+        boolean hasId = (flags & BinaryTaskWriter.ID_FLAG) != 0;
+        long id = hasId ? view.getLong() : Task.NO_ID;
+        if (hasId && id <= Task.NO_ID) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        String description = readString(view);
+        Task task;
+        switch (type) {
+        case BinaryTaskWriter.TODO:
+            task = new Todo(description);
+            break;
+        case BinaryTaskWriter.DEADLINE:
+            task = decodeDeadline(view, description);
+            break;
+        case BinaryTaskWriter.EVENT:
+            task = decodeEvent(view, description);
+            break;
+        case BinaryTaskWriter.RECURRING_DEADLINE:
+            task = decodeRecurringDeadline(view, description);
+            break;
+        case BinaryTaskWriter.RECURRING_EVENT:
+            task = decodeRecurringEvent(view, description);
+            break;
+        default:
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        if ((flags & BinaryTaskWriter.DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        if (hasId) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Advances past one task, checking its structure without decoding it.
+     */
+    private static void skip(ByteBuffer view) throws JettVarkisException {
+        byte type = view.get();
+        // Fields read lazily later are checked here, since decoding them then cannot fail
+        if ((readFlags(view) & BinaryTaskWriter.ID_FLAG) != 0 && view.getLong() <= Task.NO_ID) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        skipString(view);
+        switch (type) {
+        case BinaryTaskWriter.TODO:
+            break;
+        case BinaryTaskWriter.DEADLINE:
+            skipDateTime(view);
+            break;
+        case BinaryTaskWriter.EVENT:
+            skipDateTime(view);
+            skipDateTime(view);
+            break;
+        case BinaryTaskWriter.RECURRING_DEADLINE:
+            skipDateTime(view);
+            readRecurrence(view);
+            break;
+        case BinaryTaskWriter.RECURRING_EVENT:
+            skipDateTime(view);
+            skipDateTime(view);
+            readRecurrence(view);
+            break;
+        default:
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    private static Task decodeDeadline(ByteBuffer view, String description) throws JettVarkisException {
+        if (readTag(view) == BinaryTaskWriter.EPOCH_SECONDS) {
+            return new Deadline(description, readEpochSeconds(view));
+        }
+        return new Deadline(description, readString(view));
+    }
+
+    private static Task decodeEvent(ByteBuffer view, String description) throws JettVarkisException {
+        byte fromTag = readTag(view);
+        LocalDateTime from = fromTag == BinaryTaskWriter.EPOCH_SECONDS ? readEpochSeconds(view) : null;
+        String originalFrom = fromTag == BinaryTaskWriter.EPOCH_SECONDS ? null : readString(view);
+        byte toTag = readTag(view);
+        LocalDateTime to = toTag == BinaryTaskWriter.EPOCH_SECONDS ? readEpochSeconds(view) : null;
+        String originalTo = toTag == BinaryTaskWriter.EPOCH_SECONDS ? null : readString(view);
+        if (from != null && to != null) {
+            return new Event(description, from, to);
+        }
+        // Event only holds both times parsed or both unparsed, so fall back to strings
+        return new Event(description, from != null ? from.toString() : originalFrom,
+                to != null ? to.toString() : originalTo);
+    }
+
+    private static Task decodeRecurringDeadline(ByteBuffer view, String description) throws JettVarkisException {
+        LocalDateTime by = readParsedDateTime(view);
+        return new RecurringDeadline(description, by, readRecurrence(view));
+    }
+
+    private static Task decodeRecurringEvent(ByteBuffer view, String description) throws JettVarkisException {
+        LocalDateTime from = readParsedDateTime(view);
+        LocalDateTime to = readParsedDateTime(view);
+        return new RecurringEvent(description, from, to, readRecurrence(view));
+    }
+
+    /**
+     * Reads a date/time that must have been parsed, as recurring tasks always are.
+     */
+    private static LocalDateTime readParsedDateTime(ByteBuffer view) throws JettVarkisException {
+        if (readTag(view) != BinaryTaskWriter.EPOCH_SECONDS) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return readEpochSeconds(view);
+    }
+
+    private static Recurrence readRecurrence(ByteBuffer view) throws JettVarkisException {
+        int ordinal = view.get();
+        Recurrence.Frequency[] frequencies = Recurrence.Frequency.values();
+        if (ordinal < 0 || ordinal >= frequencies.length) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        if (view.get() == 0) {
+            return new Recurrence(frequencies[ordinal]);
+        }
+        return new Recurrence(frequencies[ordinal], readEpochSeconds(view));
+    }
+
+    private static byte readFlags(ByteBuffer view) throws JettVarkisException {
+        byte flags = view.get();
+        if ((flags & ~(BinaryTaskWriter.DONE_FLAG | BinaryTaskWriter.ID_FLAG)) != 0) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return flags;
+    }
+
+    private static byte readTag(ByteBuffer view) throws JettVarkisException {
+        byte tag = view.get();
+        if (tag != BinaryTaskWriter.EPOCH_SECONDS && tag != BinaryTaskWriter.UNPARSED) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return tag;
+    }
+
+    private static void skipDateTime(ByteBuffer view) throws JettVarkisException {
+        if (readTag(view) == BinaryTaskWriter.EPOCH_SECONDS) {
+            readEpochSeconds(view);
+        } else {
+            skipString(view);
+        }
+    }
+
+    private static LocalDateTime readEpochSeconds(ByteBuffer view) throws JettVarkisException {
+        long epochSeconds = view.getLong();
+        if (epochSeconds < MIN_EPOCH_SECONDS || epochSeconds > MAX_EPOCH_SECONDS) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+
+    private static int readLength(ByteBuffer view) throws JettVarkisException {
+        int length = view.getInt();
+        if (length < 0 || length > view.remaining()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        return length;
+    }
+
+    private static void skipString(ByteBuffer view) throws JettVarkisException {
+        int length = readLength(view);
+        view.position(view.position() + length);
+    }
+
+    private static String readString(ByteBuffer view) throws JettVarkisException {
+        byte[] bytes = new byte[readLength(view)];
+        view.get(bytes);
+        // Every string in the file is a description or an unparsed date, which archives repeat often
+        return StringPool.getShared().intern(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,142 @@
+package jettvarkis.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.Task;
+
+/**
+ * Writes tasks in the binary task file format.
+ * The file starts with a header of the magic bytes, a format version byte, the
+ * snapshot generation and the task count. Each task follows as a type byte, a flags
+ * byte, its id if the flags say it has one, and a length-prefixed UTF-8 description,
+ * then its date/times: a tag byte
+ * followed by either epoch seconds (UTC) or the unparsed string as originally entered.
+ * Recurring deadlines and events have types of their own, and their dates are followed
+ * by the recurrence: the frequency's ordinal, and whether it ends followed by the end
+ * in epoch seconds.
+ * Version 1 files hold the done flag alone in the flags byte, so they are read as
+ * files without ids.
+ */
+public class BinaryTaskWriter {
+
+    static final byte[] MAGIC = { (byte) 0x89, 'J', 'V', 'T' };
+    static final byte VERSION = 2;
+    static final byte FIRST_VERSION = 1;
+    static final byte DONE_FLAG = 1;
+    static final byte ID_FLAG = 2;
+    static final byte TODO = 'T';
+    static final byte DEADLINE = 'D';
+    static final byte EVENT = 'E';
+    static final byte RECURRING_DEADLINE = 'd';
+    static final byte RECURRING_EVENT = 'e';
+    static final byte EPOCH_SECONDS = 0;
+    static final byte UNPARSED = 1;
+
+    private final DataOutputStream out;
+
+    /**
+     * Constructs a BinaryTaskWriter that writes to the given stream.
+     * The caller is responsible for buffering and closing the stream.
+     *
+     * @param out
+     *            The stream the task file is written to.
+     */
+    public BinaryTaskWriter(DataOutputStream out) {
+        assert out != null;
+        this.out = out;
+    }
+
+    /**
+     * Writes the header followed by every task.
+     *
+     * @param tasks
+     *            The tasks to write.
+     * @param generation
+     *            The snapshot generation recorded in the header.
+     * @throws IOException
+     *             If the stream cannot be written.
+     */
+    public void write(List<Task> tasks, int generation) throws IOException {
+        assert tasks != null;
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(generation);
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            writeTask(task);
+        }
+        out.flush();
+    }
+
+    private void writeTask(Task task) throws IOException {
+        if (task instanceof RecurringDeadline) {
+            RecurringDeadline deadline = (RecurringDeadline) task;
+            writeCommon(RECURRING_DEADLINE, task);
+            writeDateTime(deadline.getBy(), deadline.getOriginalBy());
+            writeRecurrence(deadline.getRecurrence());
+        } else if (task instanceof RecurringEvent) {
+            RecurringEvent event = (RecurringEvent) task;
+            writeCommon(RECURRING_EVENT, task);
+            writeDateTime(event.getFrom(), event.getOriginalFrom());
+            writeDateTime(event.getTo(), event.getOriginalTo());
+            writeRecurrence(event.getRecurrence());
+        } else if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            writeCommon(DEADLINE, task);
+            writeDateTime(deadline.getBy(), deadline.getOriginalBy());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            writeCommon(EVENT, task);
+            writeDateTime(event.getFrom(), event.getOriginalFrom());
+            writeDateTime(event.getTo(), event.getOriginalTo());
+        } else {
+            writeCommon(TODO, task);
+        }
+    }
+
+    private void writeCommon(byte type, Task task) throws IOException {
+        out.writeByte(type);
+        out.writeByte((task.isDone() ? DONE_FLAG : 0) | (task.hasId() ? ID_FLAG : 0));
+        if (task.hasId()) {
+            out.writeLong(task.getId());
+        }
+        writeString(task.getDescription());
+    }
+
+    private void writeDateTime(Optional<LocalDateTime> dateTime, String original) throws IOException {
+        if (dateTime.isPresent()) {
+            out.writeByte(EPOCH_SECONDS);
+            out.writeLong(dateTime.get().toEpochSecond(ZoneOffset.UTC));
+        } else {
+            assert original != null : "Unparsed date/time cannot be null";
+            out.writeByte(UNPARSED);
+            writeString(original);
+        }
+    }
+
+    private void writeRecurrence(Recurrence recurrence) throws IOException {
+        out.writeByte(recurrence.getFrequency().ordinal());
+        Optional<LocalDateTime> until = recurrence.getUntil();
+        out.writeBoolean(until.isPresent());
+        if (until.isPresent()) {
+            out.writeLong(until.get().toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
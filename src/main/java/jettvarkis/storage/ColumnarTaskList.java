@@ -0,0 +1,442 @@
+package jettvarkis.storage;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+/**
+ * Represents a list of tasks stored column by column in direct buffers outside the
+ * heap, for lists of millions of tasks that would otherwise keep the garbage collector
+ * busy.
+ * Each task's type, flags, id and up to two times in epoch seconds are kept in
+ * fixed-width columns, and its description, any unparsed times and its recurrence in a
+ * record of a text buffer that the task's row points to. {@link #get(int)} builds a
+ * Task from its row on demand.
+ * The list holds the tasks it builds or is given only weakly, so a task held anywhere
+ * else is returned again as the same object, while one held nowhere else is left to
+ * the garbage collector. A task changed in place must therefore be written back with
+ * {@link #set(int, Task)} before it is let go, as {@link jettvarkis.TaskList} does.
+ * Records of tasks that are removed or replaced are reclaimed when the text buffer
+ * fills up and its live records are copied into a new one.
+ */
+public class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_TEXT_CAPACITY = 1024;
+    private static final int MIN_CLEARED_VIEWS_TO_SWEEP = 1024;
+    private static final byte UNPARSED_FLAG = 4;
+    private static final int NO_ROW = -1;
+
+    private ByteBuffer types;
+    private ByteBuffer flags;
+    private ByteBuffer ids;
+    private ByteBuffer starts;
+    private ByteBuffer ends;
+    private ByteBuffer textOffsets;
+    private ByteBuffer text;
+    private int textEnd;
+    private WeakReference<?>[] views;
+    private final ReferenceQueue<Task> clearedViews = new ReferenceQueue<>();
+    private int clearedViewCount;
+    private int capacity;
+    private int size;
+    // The row last read or written, so that moving its task to another row reuses its text record
+    private int lastRow = NO_ROW;
+    private Task lastTask;
+
+    /**
+     * Constructs an empty ColumnarTaskList.
+     */
+    public ColumnarTaskList() {
+        allocateColumns(INITIAL_CAPACITY);
+        text = ByteBuffer.allocateDirect(INITIAL_TEXT_CAPACITY);
+    }
+
+    /**
+     * Constructs a ColumnarTaskList holding a copy of the given tasks. Unlike tasks
+     * added later, the given tasks are not returned again by {@link #get(int)}, so the
+     * tasks can be let go of once the list is built.
+     *
+     * @param tasks
+     *            The tasks to copy, in list order.
+     */
+    public ColumnarTaskList(Collection<? extends Task> tasks) {
+        assert tasks != null;
+        allocateColumns(Math.max(INITIAL_CAPACITY, tasks.size()));
+        text = ByteBuffer.allocateDirect(INITIAL_TEXT_CAPACITY);
+        for (Task task : tasks) {
+            assert task != null;
+            writeRow(size, task, appendText(encodeText(task)));
+            size++;
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        Task task = getView(index);
+        if (task == null) {
+            task = decode(index);
+            setView(index, task);
+        }
+        lastRow = index;
+        lastTask = task;
+        return task;
+    }
+
+    /**
+     * Stores the task at the given position. Storing a task that was just read from
+     * this list, such as one marked in place or moved to another position, reuses its
+     * text record.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        assert task != null;
+        int movedRow = task == lastTask ? lastRow : NO_ROW;
+        Task previous = get(index);
+        int textOffset;
+        if (task == previous) {
+            textOffset = textOffsets.getInt(index * Integer.BYTES);
+        } else if (movedRow != NO_ROW) {
+            textOffset = textOffsets.getInt(movedRow * Integer.BYTES);
+        } else {
+            textOffset = appendText(encodeText(task));
+        }
+        writeRow(index, task, textOffset);
+        setView(index, task);
+        lastRow = index;
+        lastTask = task;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        assert task != null;
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int textOffset = appendText(encodeText(task));
+        if (size == capacity) {
+            allocateColumns(Math.max(INITIAL_CAPACITY, size + (size >> 1)));
+        }
+        moveRows(index, index + 1, size - index);
+        writeRow(index, task, textOffset);
+        views[index] = null;
+        setView(index, task);
+        size++;
+        forgetLastRow();
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        moveRows(index + 1, index, size - index - 1);
+        size--;
+        views[size] = null;
+        forgetLastRow();
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Removes the rows in [fromIndex, toIndex) with a single shift of the rows after
+     * them, without building their tasks.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+            throw new IndexOutOfBoundsException("Range: " + fromIndex + " to " + toIndex + ", Size: " + size);
+        }
+        moveRows(toIndex, fromIndex, size - toIndex);
+        Arrays.fill(views, size - (toIndex - fromIndex), size, null);
+        size -= toIndex - fromIndex;
+        forgetLastRow();
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory allocated for the columns and text.
+     *
+     * @return The size of the buffers outside the heap in bytes.
+     */
+    public long getOffHeapBytes() {
+        long columnBytes = (long) types.capacity() + flags.capacity() + ids.capacity() + starts.capacity()
+                + ends.capacity() + textOffsets.capacity();
+        return columnBytes + text.capacity();
+    }
+
+    private void forgetLastRow() {
+        lastRow = NO_ROW;
+        lastTask = null;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private Task getView(int index) {
+        WeakReference<?> view = views[index];
+        return view == null ? null : (Task) view.get();
+    }
+
+    /**
+     * Holds the task weakly as the one returned for its row, first forgetting the
+     * references of tasks that have been collected once there are many of them.
+     */
+    private void setView(int index, Task task) {
+        while (clearedViews.poll() != null) {
+            clearedViewCount++;
+        }
+        if (clearedViewCount >= Math.max(MIN_CLEARED_VIEWS_TO_SWEEP, size >> 3)) {
+            for (int i = 0; i < size; i++) {
+                if (views[i] != null && views[i].get() == null) {
+                    views[i] = null;
+                }
+            }
+            clearedViewCount = 0;
+        }
+        views[index] = new WeakReference<>(task, clearedViews);
+    }
+
+    private void allocateColumns(int newCapacity) {
+        types = grow(types, newCapacity);
+        flags = grow(flags, newCapacity);
+        ids = grow(ids, newCapacity * Long.BYTES);
+        starts = grow(starts, newCapacity * Long.BYTES);
+        ends = grow(ends, newCapacity * Long.BYTES);
+        textOffsets = grow(textOffsets, newCapacity * Integer.BYTES);
+        views = views == null ? new WeakReference<?>[newCapacity] : Arrays.copyOf(views, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private ByteBuffer grow(ByteBuffer column, int newBytes) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(newBytes);
+        if (column != null) {
+            grown.put(0, column, 0, Math.min(column.capacity(), newBytes));
+        }
+        return grown;
+    }
+
+    /**
+     * Moves count rows starting at from so that they start at to, in every column.
+     */
+    private void moveRows(int from, int to, int count) {
+        if (count <= 0) {
+            return;
+        }
+        // The source is read as if copied first, so overlapping rows are moved intact
+        types.put(to, types, from, count);
+        flags.put(to, flags, from, count);
+        ids.put(to * Long.BYTES, ids, from * Long.BYTES, count * Long.BYTES);
+        starts.put(to * Long.BYTES, starts, from * Long.BYTES, count * Long.BYTES);
+        ends.put(to * Long.BYTES, ends, from * Long.BYTES, count * Long.BYTES);
+        textOffsets.put(to * Integer.BYTES, textOffsets, from * Integer.BYTES, count * Integer.BYTES);
+        System.arraycopy(views, from, views, to, count);
+    }
+
+    private void writeRow(int row, Task task, int textOffset) {
+        byte type;
+        long start = 0;
+        long end = 0;
+        boolean isUnparsed = false;
+        if (task instanceof RecurringDeadline) {
+            type = BinaryTaskWriter.RECURRING_DEADLINE;
+            start = toEpochSeconds(((Deadline) task).getBy().get());
+        } else if (task instanceof RecurringEvent) {
+            type = BinaryTaskWriter.RECURRING_EVENT;
+            start = toEpochSeconds(((Event) task).getFrom().get());
+            end = toEpochSeconds(((Event) task).getTo().get());
+        } else if (task instanceof Deadline) {
+            type = BinaryTaskWriter.DEADLINE;
+            Optional<LocalDateTime> by = ((Deadline) task).getBy();
+            isUnparsed = by.isEmpty();
+            start = by.map(ColumnarTaskList::toEpochSeconds).orElse(0L);
+        } else if (task instanceof Event) {
+            type = BinaryTaskWriter.EVENT;
+            Event event = (Event) task;
+            isUnparsed = event.getFrom().isEmpty();
+            start = event.getFrom().map(ColumnarTaskList::toEpochSeconds).orElse(0L);
+            end = event.getTo().map(ColumnarTaskList::toEpochSeconds).orElse(0L);
+        } else {
+            assert task instanceof Todo : "Unknown task type: " + task.getClass();
+            type = BinaryTaskWriter.TODO;
+        }
+        types.put(row, type);
+        flags.put(row, (byte) ((task.isDone() ? BinaryTaskWriter.DONE_FLAG : 0)
+                | (task.hasId() ? BinaryTaskWriter.ID_FLAG : 0) | (isUnparsed ? UNPARSED_FLAG : 0)));
+        ids.putLong(row * Long.BYTES, task.getId());
+        starts.putLong(row * Long.BYTES, start);
+        ends.putLong(row * Long.BYTES, end);
+        textOffsets.putInt(row * Integer.BYTES, textOffset);
+    }
+
+    private Task decode(int row) {
+        byte type = types.get(row);
+        byte rowFlags = flags.get(row);
+        boolean isUnparsed = (rowFlags & UNPARSED_FLAG) != 0;
+        long start = starts.getLong(row * Long.BYTES);
+        long end = ends.getLong(row * Long.BYTES);
+        ByteBuffer record = text.duplicate();
+        // Skip the length of the record
+        record.position(textOffsets.getInt(row * Integer.BYTES) + Integer.BYTES);
+        String description = readString(record);
+        Task task;
+        switch (type) {
+        case BinaryTaskWriter.TODO:
+            task = new Todo(description);
+            break;
+        case BinaryTaskWriter.DEADLINE:
+            task = isUnparsed ? new Deadline(description, readString(record))
+                    : new Deadline(description, toDateTime(start));
+            break;
+        case BinaryTaskWriter.EVENT:
+            task = isUnparsed
+                    ? new Event(description, readString(record), readString(record))
+                    : new Event(description, toDateTime(start), toDateTime(end));
+            break;
+        case BinaryTaskWriter.RECURRING_DEADLINE:
+            task = new RecurringDeadline(description, toDateTime(start), readRecurrence(record));
+            break;
+        case BinaryTaskWriter.RECURRING_EVENT:
+            task = new RecurringEvent(description, toDateTime(start), toDateTime(end),
+                    readRecurrence(record));
+            break;
+        default:
+            throw new AssertionError("Unknown task type in row " + row + ": " + type);
+        }
+        if ((rowFlags & BinaryTaskWriter.DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        if ((rowFlags & BinaryTaskWriter.ID_FLAG) != 0) {
+            task.setId(ids.getLong(row * Long.BYTES));
+        }
+        return task;
+    }
+
+    /**
+     * Encodes the parts of a task that do not fit a fixed-width column as a record
+     * starting with its own length.
+     */
+    private static byte[] encodeText(Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte[] first = null;
+        byte[] second = null;
+        Recurrence recurrence = null;
+        if (task instanceof RecurringDeadline) {
+            recurrence = ((RecurringDeadline) task).getRecurrence();
+        } else if (task instanceof RecurringEvent) {
+            recurrence = ((RecurringEvent) task).getRecurrence();
+        } else if (task instanceof Deadline && ((Deadline) task).getBy().isEmpty()) {
+            first = ((Deadline) task).getOriginalBy().getBytes(StandardCharsets.UTF_8);
+        } else if (task instanceof Event && ((Event) task).getFrom().isEmpty()) {
+            first = ((Event) task).getOriginalFrom().getBytes(StandardCharsets.UTF_8);
+            second = ((Event) task).getOriginalTo().getBytes(StandardCharsets.UTF_8);
+        }
+        int length = 2 * Integer.BYTES + description.length;
+        length += first == null ? 0 : Integer.BYTES + first.length;
+        length += second == null ? 0 : Integer.BYTES + second.length;
+        if (recurrence != null) {
+            length += 2 + (recurrence.getUntil().isPresent() ? Long.BYTES : 0);
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length);
+        putString(record, description);
+        if (first != null) {
+            putString(record, first);
+        }
+        if (second != null) {
+            putString(record, second);
+        }
+        if (recurrence != null) {
+            record.put((byte) recurrence.getFrequency().ordinal());
+            Optional<LocalDateTime> until = recurrence.getUntil();
+            record.put((byte) (until.isPresent() ? 1 : 0));
+            until.ifPresent(time -> record.putLong(toEpochSeconds(time)));
+        }
+        assert !record.hasRemaining();
+        return record.array();
+    }
+
+    /**
+     * Appends a record to the text buffer and returns its offset. When the buffer is
+     * full, the records of the rows in the list are copied into a new buffer twice
+     * their size, leaving behind those of removed and replaced tasks.
+     */
+    private int appendText(byte[] record) {
+        if (text.capacity() - textEnd < record.length) {
+            long liveBytes = record.length;
+            for (int i = 0; i < size; i++) {
+                liveBytes += text.getInt(textOffsets.getInt(i * Integer.BYTES));
+            }
+            if (2 * liveBytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Task text does not fit in a direct buffer: " + liveBytes);
+            }
+            ByteBuffer compacted = ByteBuffer.allocateDirect((int) Math.max(INITIAL_TEXT_CAPACITY, 2 * liveBytes));
+            int end = 0;
+            for (int i = 0; i < size; i++) {
+                int offset = textOffsets.getInt(i * Integer.BYTES);
+                int length = text.getInt(offset);
+                compacted.put(end, text, offset, length);
+                textOffsets.putInt(i * Integer.BYTES, end);
+                end += length;
+            }
+            text = compacted;
+            textEnd = end;
+        }
+        int offset = textEnd;
+        text.put(offset, record);
+        textEnd += record.length;
+        return offset;
+    }
+
+    private static void putString(ByteBuffer record, byte[] bytes) {
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Recurrence readRecurrence(ByteBuffer record) {
+        Recurrence.Frequency frequency = Recurrence.Frequency.values()[record.get()];
+        if (record.get() == 0) {
+            return new Recurrence(frequency);
+        }
+        return new Recurrence(frequency, toDateTime(record.getLong()));
+    }
+
+    private static long toEpochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSeconds) {
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+    }
+}
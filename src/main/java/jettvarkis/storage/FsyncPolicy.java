@@ -0,0 +1,40 @@
+package jettvarkis.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents how eagerly Storage forces written data to disk.
+ * A snapshot that replaces journal records or an existing task file is always forced
+ * before they are discarded, so the policy only decides how many of the latest commands
+ * a crash may lose.
+ */
+public enum FsyncPolicy {
+    /** Every journal append, and every snapshot, is forced to disk before the write returns. */
+    ALWAYS,
+    /** Journal appends are forced at most once per batch interval; a crash may lose the latest commands. */
+    BATCHED,
+    /** Journal appends are left to the operating system to flush; fastest, but a crash may lose recent commands. */
+    NEVER;
+
+    public static final long BATCH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Returns whether a write should be forced to disk now.
+     *
+     * @param lastForceNanos
+     *            The {@link System#nanoTime()} at which the file was last forced.
+     * @param nowNanos
+     *            The current {@link System#nanoTime()}.
+     * @return True if the write should be forced.
+     */
+    public boolean shouldForce(long lastForceNanos, long nowNanos) {
+        switch (this) {
+        case ALWAYS:
+            return true;
+        case BATCHED:
+            return nowNanos - lastForceNanos >= BATCH_INTERVAL_NANOS;
+        default:
+            return false;
+        }
+    }
+}
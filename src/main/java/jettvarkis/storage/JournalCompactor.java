@@ -0,0 +1,160 @@
+package jettvarkis.storage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jettvarkis.exception.JettVarkisException;
+
+/**
+ * Periodically folds the task journal into a fresh snapshot on a single background thread.
+ * A compaction is requested whenever the journal grows past a size threshold and at a
+ * fixed interval, and the time taken by each compaction is recorded.
+ */
+public class JournalCompactor {
+
+    public static final long DEFAULT_MAX_JOURNAL_BYTES = 1024 * 1024;
+    public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Storage storage;
+    private final long maxJournalBytes;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean isPending = new AtomicBoolean(false);
+    private final AtomicLong compactionCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalDurationNanos = new AtomicLong();
+    private volatile long lastDurationNanos = -1;
+
+    /**
+     * Constructs a JournalCompactor for the given storage.
+     *
+     * @param storage
+     *            The journaled Storage whose journal is compacted.
+     * @param maxJournalBytes
+     *            The journal size in bytes that triggers a compaction.
+     * @param intervalMillis
+     *            The time between periodic compactions in milliseconds.
+     */
+    public JournalCompactor(Storage storage, long maxJournalBytes, long intervalMillis) {
+        assert storage != null && storage.isJournaled();
+        assert maxJournalBytes > 0 : "Journal size threshold must be positive";
+        assert intervalMillis > 0 : "Compaction interval must be positive";
+        this.storage = storage;
+        this.maxJournalBytes = maxJournalBytes;
+        this.intervalMillis = intervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts periodic compaction. The first compaction runs immediately so that a
+     * journal left over from the previous session is folded in right away.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::compact, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Notifies the compactor that the journal has grown.
+     * Requests a compaction if the journal has reached the size threshold.
+     *
+     * @param journalBytes
+     *            The current size of the journal in bytes.
+     */
+    public void onJournalGrowth(long journalBytes) {
+        if (journalBytes >= maxJournalBytes) {
+            requestCompaction();
+        }
+    }
+
+    /**
+     * Requests a compaction on the background thread.
+     * Requests made while one is already pending are coalesced into it.
+     */
+    public void requestCompaction() {
+        if (!isPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            // The compactor has been shut down; the journal is still replayed on the next load
+            isPending.set(false);
+        }
+    }
+
+    private void compact() {
+        isPending.set(false);
+        long start = System.nanoTime();
+        try {
+            if (storage.compactJournal()) {
+                long duration = System.nanoTime() - start;
+                lastDurationNanos = duration;
+                totalDurationNanos.addAndGet(duration);
+                compactionCount.incrementAndGet();
+            }
+        } catch (JettVarkisException e) {
+            // The journal is left untouched on failure, so the next compaction simply retries
+            failureCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the background thread, waiting for a compaction in progress to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of compactions that wrote a new snapshot.
+     *
+     * @return The number of completed compactions.
+     */
+    public long getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    /**
+     * Returns the number of compactions that failed with an I/O or data error.
+     *
+     * @return The number of failed compactions.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returns the duration of the most recent completed compaction.
+     *
+     * @return The duration in milliseconds, or -1 if no compaction has completed.
+     */
+    public long getLastDurationMillis() {
+        long duration = lastDurationNanos;
+        return duration < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(duration);
+    }
+
+    /**
+     * Returns the mean duration of all completed compactions.
+     *
+     * @return The mean duration in milliseconds, or -1 if no compaction has completed.
+     */
+    public long getAverageDurationMillis() {
+        long count = compactionCount.get();
+        return count == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(totalDurationNanos.get() / count);
+    }
+}
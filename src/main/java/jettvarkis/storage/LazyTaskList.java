@@ -0,0 +1,175 @@
+package jettvarkis.storage;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+import jettvarkis.task.Task;
+
+/**
+ * Represents a list of tasks whose rows stay encoded in a binary task file buffer
+ * until they are first accessed.
+ * Each row is kept as its offset into the buffer; {@link #get(int)} decodes it into
+ * a Task once and caches the result. Tasks added later are held directly.
+ * The buffer is typically a direct copy of the task file, held off the heap, so
+ * undecoded rows cost four bytes of heap each.
+ */
+public class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+
+    private static final int NOT_ENCODED = -1;
+
+    private final ByteBuffer source;
+    private Task[] tasks;
+    private int[] offsets;
+    private int size;
+    private int materializedCount;
+
+    /**
+     * Constructs a LazyTaskList over rows that have already been validated.
+     *
+     * @param source
+     *            The buffer holding the encoded rows.
+     * @param offsets
+     *            The offset of each row in the buffer, in list order.
+     */
+    LazyTaskList(ByteBuffer source, int[] offsets) {
+        assert source != null && offsets != null;
+        this.source = source;
+        this.offsets = offsets;
+        this.tasks = new Task[offsets.length];
+        this.size = offsets.length;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        Task task = tasks[index];
+        if (task == null) {
+            task = BinaryTaskReader.decodeAt(source, offsets[index]);
+            tasks[index] = task;
+            offsets[index] = NOT_ENCODED;
+            materializedCount++;
+        }
+        return task;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        assert task != null;
+        Task previous = get(index);
+        tasks[index] = task;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        assert task != null;
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == tasks.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            tasks = Arrays.copyOf(tasks, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+        System.arraycopy(tasks, index, tasks, index + 1, size - index);
+        System.arraycopy(offsets, index, offsets, index + 1, size - index);
+        tasks[index] = task;
+        offsets[index] = NOT_ENCODED;
+        size++;
+        materializedCount++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        System.arraycopy(tasks, index + 1, tasks, index, size - index - 1);
+        System.arraycopy(offsets, index + 1, offsets, index, size - index - 1);
+        size--;
+        tasks[size] = null;
+        materializedCount--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Removes the rows in [fromIndex, toIndex) with a single shift of the rows after
+     * them, without decoding any row.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+            throw new IndexOutOfBoundsException("Range: " + fromIndex + " to " + toIndex + ", Size: " + size);
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (tasks[i] != null) {
+                materializedCount--;
+            }
+        }
+        System.arraycopy(tasks, toIndex, tasks, fromIndex, size - toIndex);
+        System.arraycopy(offsets, toIndex, offsets, fromIndex, size - toIndex);
+        Arrays.fill(tasks, size - (toIndex - fromIndex), size, null);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of rows that are held as Task objects rather than encoded bytes.
+     *
+     * @return The number of decoded or added tasks.
+     */
+    public int getMaterializedCount() {
+        return materializedCount;
+    }
+
+    /**
+     * Returns whether any task lacks an id, reading the flags of encoded rows instead of
+     * decoding them.
+     *
+     * @return True if some task has no id.
+     */
+    public boolean hasTasksWithoutIds() {
+        for (int i = 0; i < size; i++) {
+            boolean hasId = tasks[i] != null ? tasks[i].hasId() : BinaryTaskReader.hasIdAt(source, offsets[i]);
+            if (!hasId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the rows that may still fall due after the given time, such as pending
+     * deadlines that are not yet past, without decoding any row. Rows that are already
+     * held as tasks are always included.
+     *
+     * @param time
+     *            The time after which rows must be able to fall due.
+     * @return The indices of the rows.
+     */
+    public BitSet findRowsDueAfter(LocalDateTime time) {
+        assert time != null;
+        BitSet rows = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (tasks[i] != null || BinaryTaskReader.mayFallDueAfter(source, offsets[i], time)) {
+                rows.set(i);
+            }
+        }
+        return rows;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
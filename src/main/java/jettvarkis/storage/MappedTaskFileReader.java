@@ -0,0 +1,352 @@
+package jettvarkis.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.parser.Parser;
+import jettvarkis.task.Task;
+
+/**
+ * Reads a task file in the text format by scanning its bytes directly.
+ * Files of at least {@link #MAPPING_THRESHOLD_BYTES} are memory-mapped with
+ * {@link FileChannel#map}, one chunk of at most 2 GB at a time, so that the file is
+ * never copied onto the heap as a whole. Line boundaries and " | " separators are
+ * located in the buffer itself and only the fields are decoded into Strings.
+ * Lines the scanner does not recognise are handed to {@link Parser#parseFileLine(String)}.
+ * Given a ForkJoinPool with more than one worker, chunks of at least
+ * {@link #PARALLEL_THRESHOLD_BYTES} are split into newline-aligned slices that are
+ * parsed concurrently and stitched back together in file order.
+ */
+public class MappedTaskFileReader {
+
+    /** The largest region a single MappedByteBuffer can cover. */
+    public static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+    /** Files smaller than this are read into a heap buffer, which is cheaper than mapping. */
+    public static final long MAPPING_THRESHOLD_BYTES = 64 * 1024;
+
+    /** Chunks smaller than this are parsed on the calling thread even if a pool is given. */
+    public static final long PARALLEL_THRESHOLD_BYTES = 1024 * 1024;
+
+    private static final int SLICES_PER_THREAD = 4;
+    private static final int MAX_FIELDS = 7;
+
+    private final long chunkBytes;
+    private final ForkJoinPool pool;
+    private final LineParser lineParser = new LineParser();
+    private boolean isFirstLine;
+    private int generation;
+
+    /**
+     * Constructs a single-threaded MappedTaskFileReader that maps files in the largest possible chunks.
+     */
+    public MappedTaskFileReader() {
+        this(MAX_CHUNK_BYTES, null);
+    }
+
+    /**
+     * Constructs a single-threaded MappedTaskFileReader that maps files in chunks of the given size.
+     *
+     * @param chunkBytes
+     *            The size of each mapped region; every line must fit within one chunk.
+     */
+    public MappedTaskFileReader(long chunkBytes) {
+        this(chunkBytes, null);
+    }
+
+    /**
+     * Constructs a MappedTaskFileReader that maps files in chunks of the given size and
+     * parses large chunks on the given pool.
+     *
+     * @param chunkBytes
+     *            The size of each mapped region; every line must fit within one chunk.
+     * @param pool
+     *            The pool large chunks are parsed on, or null to parse on the calling thread.
+     */
+    public MappedTaskFileReader(long chunkBytes, ForkJoinPool pool) {
+        assert chunkBytes > 0 && chunkBytes <= MAX_CHUNK_BYTES : "Chunk size must fit in a MappedByteBuffer";
+        this.chunkBytes = chunkBytes;
+        this.pool = pool;
+    }
+
+    /**
+     * Reads every task in the file into the given list.
+     *
+     * @param file
+     *            The task file to read.
+     * @param tasks
+     *            The list the tasks are added to.
+     * @return The snapshot generation named by the file's header, or 0 if it has none.
+     * @throws JettVarkisException
+     *             If a line is invalid or longer than the chunk size.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public int read(File file, ArrayList<Task> tasks) throws JettVarkisException, IOException {
+        assert file != null && tasks != null;
+        isFirstLine = true;
+        generation = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(chunkBytes, size - position);
+                boolean isLastChunk = position + length == size;
+                int consumed = readChunk(readRegion(channel, position, length, size), tasks, isLastChunk);
+                if (consumed == 0) {
+                    // A single line does not fit in one chunk
+                    throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+                }
+                position += consumed;
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * Returns the given region of the file, mapped if the file is at least
+     * {@link #MAPPING_THRESHOLD_BYTES} long and read into a heap buffer otherwise.
+     */
+    static ByteBuffer readRegion(FileChannel channel, long position, long length, long size) throws IOException {
+        if (size >= MAPPING_THRESHOLD_BYTES) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+            // Keep reading until the buffer is full
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads every complete line in the buffer and returns the number of bytes consumed.
+     * An unterminated line at the end of the buffer is left for the next chunk,
+     * unless this is the last chunk of the file.
+     */
+    private int readChunk(ByteBuffer buffer, ArrayList<Task> tasks, boolean isLastChunk)
+            throws JettVarkisException {
+        int end = isLastChunk ? buffer.limit() : lastLineEnd(buffer);
+        if (end == 0) {
+            return 0;
+        }
+        int start = 0;
+        if (isFirstLine) {
+            start = readFirstLine(buffer, end, tasks);
+            isFirstLine = false;
+        }
+        if (pool != null && pool.getParallelism() > 1 && end - start >= PARALLEL_THRESHOLD_BYTES) {
+            readParallel(buffer, start, end, tasks);
+        } else {
+            lineParser.parseLines(buffer, start, end, tasks);
+        }
+        return end;
+    }
+
+    /**
+     * Reads the first line of the file, which may be a generation header, and
+     * returns the position just after it.
+     */
+    private int readFirstLine(ByteBuffer buffer, int end, ArrayList<Task> tasks) throws JettVarkisException {
+        int lineEnd = 0;
+        while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        int next = Math.min(lineEnd + 1, end);
+        if (startsWith(buffer, 0, lineEnd, Storage.GENERATION_HEADER)) {
+            String value = lineParser.decode(buffer, Storage.GENERATION_HEADER.length(), lineEnd);
+            generation = Integer.parseInt(value.trim());
+        } else {
+            lineParser.parseLines(buffer, 0, next, tasks);
+        }
+        return next;
+    }
+
+    private void readParallel(ByteBuffer buffer, int start, int end, ArrayList<Task> tasks)
+            throws JettVarkisException {
+        int sliceCount = pool.getParallelism() * SLICES_PER_THREAD;
+        int sliceBytes = Math.max(1, (end - start) / sliceCount);
+        List<Callable<ArrayList<Task>>> slices = new ArrayList<>();
+        int sliceStart = start;
+        while (sliceStart < end) {
+            int sliceEnd = lineStartAfter(buffer, Math.min(sliceStart + sliceBytes, end) - 1, end);
+            int from = sliceStart;
+            slices.add(() -> {
+                ArrayList<Task> parsed = new ArrayList<>();
+                new LineParser().parseLines(buffer, from, sliceEnd, parsed);
+                return parsed;
+            });
+            sliceStart = sliceEnd;
+        }
+        for (Future<ArrayList<Task>> slice : pool.invokeAll(slices)) {
+            tasks.addAll(join(slice));
+        }
+    }
+
+    private static ArrayList<Task> join(Future<ArrayList<Task>> slice) throws JettVarkisException {
+        try {
+            return slice.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        } catch (ExecutionException e) {
+            // The pool wraps checked exceptions thrown by a slice, so look through the chain
+            for (Throwable t = e.getCause(); t != null; t = t.getCause()) {
+                if (t instanceof JettVarkisException) {
+                    throw (JettVarkisException) t;
+                }
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    private static int lastLineEnd(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the position just after the first line break at or after the given index,
+     * or the fallback if the rest of the buffer holds no line break.
+     */
+    private static int lineStartAfter(ByteBuffer buffer, int index, int fallback) {
+        for (int i = index; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return fallback;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses task lines out of a buffer. Each thread uses its own LineParser, since the
+     * field bounds and decoding scratch space are reused from line to line.
+     */
+    private static class LineParser {
+        private final int[] fieldStarts = new int[MAX_FIELDS];
+        private final int[] fieldEnds = new int[MAX_FIELDS];
+        private byte[] scratch = new byte[256];
+
+        void parseLines(ByteBuffer buffer, int start, int end, List<Task> tasks) throws JettVarkisException {
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == '\n') {
+                    parseLine(buffer, lineStart, i, tasks);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < end) {
+                parseLine(buffer, lineStart, end, tasks);
+            }
+        }
+
+        private void parseLine(ByteBuffer buffer, int start, int end, List<Task> tasks) throws JettVarkisException {
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == start) {
+                return;
+            }
+            int fieldCount = splitFields(buffer, start, end);
+            String firstField = decode(buffer, fieldStarts[0], fieldEnds[0]);
+            // Lines written for tasks with ids start with the id, and the other fields follow it
+            int offset = Parser.isFileId(firstField) ? 1 : 0;
+            if (fieldCount < 3 + offset) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+            }
+            String type = offset == 0 ? firstField : decode(buffer, fieldStarts[1], fieldEnds[1]);
+            boolean isDone = fieldEnds[1 + offset] - fieldStarts[1 + offset] == 1
+                    && buffer.get(fieldStarts[1 + offset]) == '1';
+            String description = decodeField(buffer, 2 + offset, fieldCount);
+            String firstDate = decodeField(buffer, 3 + offset, fieldCount);
+            String secondField = decodeField(buffer, 4 + offset, fieldCount);
+            String thirdField = decodeField(buffer, 5 + offset, fieldCount);
+            Task task = Parser.parseFileFields(type, isDone, description, firstDate, secondField, thirdField);
+            if (offset > 0) {
+                task.setId(Parser.parseFileId(firstField));
+            }
+            tasks.add(task);
+        }
+
+        private String decodeField(ByteBuffer buffer, int field, int fieldCount) {
+            return field < fieldCount ? decode(buffer, fieldStarts[field], fieldEnds[field]) : null;
+        }
+
+        /**
+         * Records the bounds of up to {@link #MAX_FIELDS} fields separated by " | ",
+         * matching what {@code line.split(" \\| ")} would produce, and returns how many were found.
+         */
+        private int splitFields(ByteBuffer buffer, int start, int end) {
+            int count = 0;
+            int fieldStart = start;
+            int i = start;
+            while (i + 2 < end && count < MAX_FIELDS - 1) {
+                if (isSeparator(buffer, i)) {
+                    fieldStarts[count] = fieldStart;
+                    fieldEnds[count] = i;
+                    count++;
+                    i += 3;
+                    fieldStart = i;
+                } else {
+                    i++;
+                }
+            }
+            int fieldEnd = end;
+            for (int j = fieldStart; j + 2 < end; j++) {
+                if (isSeparator(buffer, j)) {
+                    fieldEnd = j;
+                    break;
+                }
+            }
+            fieldStarts[count] = fieldStart;
+            fieldEnds[count] = fieldEnd;
+            return count + 1;
+        }
+
+        private static boolean isSeparator(ByteBuffer buffer, int index) {
+            return buffer.get(index) == ' ' && buffer.get(index + 1) == '|' && buffer.get(index + 2) == ' ';
+        }
+
+        String decode(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,25 +1,63 @@
 package jettvarkis.storage;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 import jettvarkis.exception.JettVarkisException;
-import jettvarkis.parser.Parser;
 import jettvarkis.task.Task;
 import jettvarkis.trivia.Trivia;
 import jettvarkis.trivia.TriviaList;
 
 /**
  * Handles the loading and saving of tasks to and from a file.
+ * In journaled mode, individual mutations are appended to a journal next to
+ * the task file instead of rewriting the whole file on every command.
+ * The task file is never written in place: a new version is written to a sibling
+ * temporary file, forced to disk according to the fsync policy, and atomically
+ * renamed over the old one, so a crash leaves either the old or the new version.
+ * The task file is written in the configured {@link TaskFileFormat}; either format
+ * is detected on load, and a file in the other format is rewritten once on load.
  */
 public class Storage {
 
+    public static final FsyncPolicy DEFAULT_FSYNC_POLICY = FsyncPolicy.BATCHED;
+    public static final TaskFileFormat DEFAULT_FORMAT = TaskFileFormat.TEXT;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final String TEMP_SUFFIX = ".tmp";
+    static final String GENERATION_HEADER = "# generation ";
+
     private final String filePath;
+    private final FsyncPolicy fsyncPolicy;
+    private final TaskFileFormat format;
+    private final TaskJournal journal;
+    private final TaskJournal compactingJournal;
+    private JournalCompactor compactor;
+    private WriteBehindQueue writeBehind;
+    private ForkJoinPool loadPool;
+    private long lastSnapshotForceNanos;
 
     /**
      * Constructs a new Storage object with the specified file path.
@@ -28,13 +66,175 @@ public class Storage {
      *                 The path to the file where tasks will be stored.
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a new Storage object with the specified file path, optionally
+     * persisting mutations through an append-only journal.
+     *
+     * @param filePath
+     *                    The path to the file where tasks will be stored.
+     * @param isJournaled
+     *                    Whether mutations should be appended to a journal.
+     */
+    public Storage(String filePath, boolean isJournaled) {
+        this(filePath, isJournaled, DEFAULT_FSYNC_POLICY);
+    }
+
+    /**
+     * Constructs a new Storage object with the specified file path, journaling mode
+     * and fsync policy.
+     *
+     * @param filePath
+     *                    The path to the file where tasks will be stored.
+     * @param isJournaled
+     *                    Whether mutations should be appended to a journal.
+     * @param fsyncPolicy
+     *                    How eagerly written data is forced to disk.
+     */
+    public Storage(String filePath, boolean isJournaled, FsyncPolicy fsyncPolicy) {
+        this(filePath, isJournaled, fsyncPolicy, DEFAULT_FORMAT);
+    }
+
+    /**
+     * Constructs a new Storage object with the specified file path, journaling mode,
+     * fsync policy and task file format.
+     *
+     * @param filePath
+     *                    The path to the file where tasks will be stored.
+     * @param isJournaled
+     *                    Whether mutations should be appended to a journal.
+     * @param fsyncPolicy
+     *                    How eagerly written data is forced to disk.
+     * @param format
+     *                    The format the task file is written in.
+     */
+    public Storage(String filePath, boolean isJournaled, FsyncPolicy fsyncPolicy, TaskFileFormat format) {
         assert filePath != null && !filePath.trim().isEmpty();
+        assert fsyncPolicy != null;
+        assert format != null;
         this.filePath = filePath;
+        this.fsyncPolicy = fsyncPolicy;
+        this.format = format;
+        this.lastSnapshotForceNanos = System.nanoTime() - FsyncPolicy.BATCH_INTERVAL_NANOS;
+        if (isJournaled) {
+            this.journal = new TaskJournal(filePath + JOURNAL_SUFFIX, fsyncPolicy);
+            this.compactingJournal = new TaskJournal(filePath + JOURNAL_SUFFIX + COMPACTING_SUFFIX, fsyncPolicy);
+        } else {
+            this.journal = null;
+            this.compactingJournal = null;
+        }
+    }
+
+    /**
+     * Sets the pool that large text task files are parsed on in parallel.
+     * Files below {@link MappedTaskFileReader#PARALLEL_THRESHOLD_BYTES} are still
+     * parsed on the calling thread.
+     *
+     * @param loadPool
+     *                 The pool to parse on, or null to always parse on the calling thread.
+     */
+    public void setLoadPool(ForkJoinPool loadPool) {
+        this.loadPool = loadPool;
+    }
+
+    /**
+     * Returns whether this Storage persists mutations through a journal.
+     *
+     * @return True if journaled mode is enabled.
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Starts folding the journal into the task file on a background thread.
+     * Compaction runs once the journal reaches the given size and at every interval.
+     *
+     * @param maxJournalBytes
+     *                        The journal size in bytes that triggers a compaction.
+     * @param intervalMillis
+     *                        The time between periodic compactions in milliseconds.
+     */
+    public void startCompaction(long maxJournalBytes, long intervalMillis) {
+        assert journal != null : "Compaction requires journaled mode";
+        assert compactor == null : "Compaction has already been started";
+        compactor = new JournalCompactor(this, maxJournalBytes, intervalMillis);
+        compactor.start();
+    }
+
+    /**
+     * Returns the background compactor, if compaction has been started.
+     *
+     * @return An Optional containing the JournalCompactor.
+     */
+    public Optional<JournalCompactor> getCompactor() {
+        return Optional.ofNullable(compactor);
+    }
+
+    /**
+     * Starts persisting journal records through a write-behind queue.
+     * Mutations then return without waiting for disk I/O; a single background
+     * writer appends each burst of queued records to the journal in one write.
+     * Use {@link #flush()} to wait until the queued records are durable.
+     */
+    public void startWriteBehind() {
+        assert journal != null : "Write-behind requires journaled mode";
+        assert writeBehind == null : "Write-behind has already been started";
+        writeBehind = new WriteBehindQueue(journal);
+        writeBehind.start();
+    }
+
+    /**
+     * Returns the write-behind queue, if write-behind has been started.
+     *
+     * @return An Optional containing the WriteBehindQueue.
+     */
+    public Optional<WriteBehindQueue> getWriteBehind() {
+        return Optional.ofNullable(writeBehind);
+    }
+
+    /**
+     * Blocks until every mutation persisted so far has been written to the journal,
+     * and forces the journal to disk unless the fsync policy is {@link FsyncPolicy#NEVER}.
+     *
+     * @throws JettVarkisException
+     *                             If the queued records cannot be written or forced.
+     */
+    public void flush() throws JettVarkisException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    /**
+     * Flushes pending mutations and stops the write-behind and compaction threads,
+     * waiting for a compaction in progress to finish.
+     *
+     * @throws JettVarkisException
+     *                             If the pending records cannot be written or forced.
+     */
+    public void close() throws JettVarkisException {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+        }
+        if (journal != null) {
+            journal.sync();
+        }
     }
 
     /**
      * Loads tasks from the storage file.
      * If the file does not exist, it attempts to create it.
+     * A temporary file orphaned by a save that crashed before its rename is deleted.
+     * In journaled mode, the journal is replayed on top of the loaded tasks.
      *
      * @return An ArrayList of tasks loaded from the file.
      * @throws JettVarkisException
@@ -43,13 +243,52 @@ public class Storage {
      *                             corrupted.
      */
     public ArrayList<Task> load() throws JettVarkisException {
+        File file = openTaskFile();
         ArrayList<Task> tasks = new ArrayList<>();
+        int generation = readSnapshot(file, tasks);
+        return finishLoad(file, tasks, generation);
+    }
+
+    /**
+     * Loads tasks from the storage file like {@link #load()}, but leaves the tasks of a
+     * binary task file encoded until they are first accessed, so that start-up does not
+     * construct every task. A text task file is loaded eagerly.
+     *
+     * @return A list of the tasks in the file, decoded on demand.
+     * @throws JettVarkisException
+     *                             If there is an error reading from the file or the
+     *                             data is corrupted.
+     */
+    public List<Task> loadLazily() throws JettVarkisException {
+        File file = openTaskFile();
+        if (!BinaryTaskReader.isBinary(file)) {
+            ArrayList<Task> tasks = new ArrayList<>();
+            int generation = readSnapshot(file, tasks);
+            return finishLoad(file, tasks, generation);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The lazy list keeps the buffer for the whole session, so it is held off the heap
+            BinaryTaskReader reader = new BinaryTaskReader(readWholeFile(channel, true));
+            LazyTaskList tasks = reader.readLazily();
+            return finishLoad(file, tasks, reader.getGeneration());
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Checks that the task file can be read, creating it if it does not exist,
+     * and deletes a temporary file orphaned by a save that crashed before its rename.
+     */
+    private File openTaskFile() throws JettVarkisException {
         File file = new File(filePath);
 
         if (file.isDirectory()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.FILE_IS_DIRECTORY);
         }
 
+        deleteOrphanedTempFile();
+
         if (!file.exists()) {
             try {
                 file.getParentFile().mkdirs();
@@ -57,37 +296,111 @@ public class Storage {
             } catch (IOException e) {
                 throw new JettVarkisException(JettVarkisException.ErrorType.FILE_WRITE_DENIED);
             }
-            return tasks; // Return empty list as the file is new
         }
 
         if (!file.canRead()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.FILE_READ_DENIED);
         }
+        return file;
+    }
+
+    /**
+     * Replays the journal on top of the loaded snapshot and migrates a task file
+     * that is not in the configured format.
+     */
+    private <T extends List<Task>> T finishLoad(File file, T tasks, int generation) throws JettVarkisException {
+        boolean isBinary = BinaryTaskReader.isBinary(file);
+        replayJournal(tasks, generation);
+        if (isBinary != (format == TaskFileFormat.BINARY) && file.length() > 0) {
+            // One-shot migration: the next load reads the file in the configured format
+            save(tasks);
+        }
+        return tasks;
+    }
 
-        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
-            while (scanner.hasNext()) {
-                String line = scanner.nextLine();
-                tasks.add(Parser.parseFileLine(line));
-            }
+    /**
+     * Reads the tasks in the snapshot file into the given list.
+     *
+     * @return The generation recorded in the snapshot header, or 0 if there is none.
+     */
+    private int readSnapshot(File file, ArrayList<Task> tasks) throws JettVarkisException {
+        if (BinaryTaskReader.isBinary(file)) {
+            return readBinarySnapshot(file, tasks);
+        }
+        try {
+            return new MappedTaskFileReader(MappedTaskFileReader.MAX_CHUNK_BYTES, loadPool).read(file, tasks);
         } catch (IOException e) {
             throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
-        } catch (JettVarkisException e) {
+        } catch (JettVarkisException | NumberFormatException e) {
             // Handle corrupted data file
             throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
         }
+    }
 
-        return tasks;
+    private static int readBinarySnapshot(File file, ArrayList<Task> tasks) throws JettVarkisException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new BinaryTaskReader(readWholeFile(channel, false)).read(tasks);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Reads the whole binary task file into a buffer, off the heap if it is direct.
+     * The file is not mapped, since a mapping stays open until it is garbage collected,
+     * and on some platforms (e.g. Windows) a mapped file cannot be replaced by the rename
+     * that saves the tasks.
+     */
+    private static ByteBuffer readWholeFile(FileChannel channel, boolean isDirect)
+            throws IOException, JettVarkisException {
+        long size = channel.size();
+        if (size > MappedTaskFileReader.MAX_CHUNK_BYTES) {
+            // Row offsets are ints, so a binary task file must fit in a single buffer
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        ByteBuffer buffer = isDirect ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer, buffer.position());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Replays the journals whose base matches the snapshot generation.
+     * A compacting journal left behind by an interrupted compaction is replayed
+     * first if its records were not yet folded into the snapshot; journals based
+     * on an older generation are stale and ignored.
+     */
+    private void replayJournal(List<Task> tasks, int generation) throws JettVarkisException {
+        if (journal == null) {
+            return;
+        }
+        int currentGeneration = generation;
+        if (compactingJournal.readBase() == currentGeneration) {
+            compactingJournal.replay(tasks);
+            currentGeneration++;
+        } else {
+            compactingJournal.delete();
+        }
+        if (journal.readBase() == currentGeneration) {
+            journal.replay(tasks);
+        } else {
+            journal.reset(currentGeneration);
+        }
     }
 
     /**
      * Saves the given list of tasks to the storage file.
+     * In journaled mode, this writes a fresh snapshot and starts an empty journal on top of it.
      *
      * @param tasks
-     *              The ArrayList of tasks to be saved.
+     *              The list of tasks to be saved.
      * @throws JettVarkisException
      *                             If there is an error writing to the file.
      */
-    public void save(ArrayList<Task> tasks) throws JettVarkisException {
+    public synchronized void save(List<Task> tasks) throws JettVarkisException {
         assert tasks != null;
         File file = new File(filePath);
 
@@ -105,16 +418,267 @@ public class Storage {
             parent.mkdirs();
         }
 
-        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
-            for (Task task : tasks) {
-                assert task.toFileString() != null : "Task file string cannot be null";
-                writer.write(task.toFileString() + System.lineSeparator());
+        if (journal == null) {
+            writeSnapshot(tasks, 0);
+            return;
+        }
+
+        synchronized (journal) {
+            int generation = Math.max(journal.readBase(), 0) + 1;
+            writeSnapshot(tasks, generation);
+            journal.reset(generation);
+            compactingJournal.delete();
+            if (writeBehind != null) {
+                // The snapshot already reflects every mutation still waiting in the queue
+                writeBehind.discardPending();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot of the task file.
+     * The journal is first renamed aside so that new records keep being appended
+     * while the snapshot is rebuilt from the previous snapshot and the set-aside
+     * records. The new snapshot is swapped in with an atomic rename, which is the
+     * point at which the set-aside records stop being replayed. The snapshot is forced
+     * to disk before the set-aside records are deleted, whatever the fsync policy.
+     *
+     * @return True if a new snapshot was written, false if there was nothing to fold.
+     * @throws JettVarkisException
+     *                             If there is an error reading or writing the files.
+     */
+    public synchronized boolean compactJournal() throws JettVarkisException {
+        assert journal != null : "Compaction requires journaled mode";
+        File file = new File(filePath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        int generation = file.exists() ? readSnapshot(file, tasks) : 0;
+
+        if (compactingJournal.readBase() != generation) {
+            synchronized (journal) {
+                if (!journal.hasRecords()) {
+                    return false;
+                }
+                if (journal.readBase() != generation) {
+                    throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+                }
+                journal.moveTo(compactingJournal);
+                journal.reset(generation + 1);
+            }
+        }
+
+        compactingJournal.replay(tasks);
+        writeSnapshot(tasks, generation + 1);
+        compactingJournal.delete();
+        return true;
+    }
+
+    /**
+     * Writes the tasks to a temporary file next to the task file, forces it to disk
+     * if the fsync policy requires it, and atomically renames it over the task file.
+     * In journaled mode the snapshot starts with a generation header, and both the
+     * snapshot and its rename are always forced to disk, since the journal records it
+     * replaces are discarded right after it is written. A snapshot replacing an existing
+     * task file is always forced before the rename, so that a crash leaves either the
+     * old file or the complete new one rather than a renamed file whose data never
+     * reached the disk.
+     */
+    private void writeSnapshot(List<Task> tasks, int generation) throws JettVarkisException {
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + TEMP_SUFFIX);
+        long now = System.nanoTime();
+        // The fsync policy only trades away the latest commands, never records already in the journal
+        boolean isDiscardingJournal = journal != null;
+        boolean isReplacingFile = Files.exists(target);
+        boolean shouldForce = isDiscardingJournal || isReplacingFile
+                || fsyncPolicy.shouldForce(lastSnapshotForceNanos, now);
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                if (format == TaskFileFormat.BINARY) {
+                    writeBinaryTasks(out, tasks, generation);
+                } else {
+                    writeTextTasks(out, tasks, generation);
+                }
+                if (shouldForce) {
+                    out.getChannel().force(true);
+                }
             }
+            moveAtomically(temp, target);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+        if (shouldForce) {
+            lastSnapshotForceNanos = now;
+        }
+        if (isDiscardingJournal || fsyncPolicy == FsyncPolicy.ALWAYS) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of a rename to disk. Not every platform allows
+     * opening a directory (e.g. Windows), in which case this is skipped.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
+            // The rename itself is still atomic; only its durability is left to the OS
+        }
+    }
+
+    private void deleteOrphanedTempFile() throws JettVarkisException {
+        File temp = new File(filePath + TEMP_SUFFIX);
+        if (temp.isFile() && !temp.delete()) {
             throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
         }
     }
 
+    private void writeTextTasks(FileOutputStream out, List<Task> tasks, int generation) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (journal != null) {
+            writer.write(GENERATION_HEADER + generation + System.lineSeparator());
+        }
+        writeTasks(writer, tasks);
+        writer.flush();
+    }
+
+    private static void writeBinaryTasks(FileOutputStream out, List<Task> tasks, int generation)
+            throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        new BinaryTaskWriter(data).write(tasks, generation);
+    }
+
+    private static void writeTasks(Writer writer, List<Task> tasks) throws IOException {
+        for (Task task : tasks) {
+            assert task.toFileString() != null : "Task file string cannot be null";
+            writer.write(task.toFileString() + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Persists a task that was just appended to the list.
+     * In journaled mode only the new task is written; otherwise the whole list is saved.
+     *
+     * @param tasks
+     *              The full list of tasks after the addition.
+     * @param task
+     *              The task that was added.
+     * @throws JettVarkisException
+     *                             If there is an error writing to the file.
+     */
+    public void saveAdd(List<Task> tasks, Task task) throws JettVarkisException {
+        assert tasks != null;
+        assert task != null;
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        appendToJournal(TaskJournal.addRecord(task));
+    }
+
+    /**
+     * Persists tasks that were just marked as done.
+     *
+     * @param tasks
+     *              The full list of tasks after the update.
+     * @param indices
+     *              The zero-based indices of the marked tasks.
+     * @throws JettVarkisException
+     *                             If there is an error writing to the file.
+     */
+    public void saveMark(List<Task> tasks, int... indices) throws JettVarkisException {
+        assert tasks != null;
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        appendToJournal(TaskJournal.markRecords(indices));
+    }
+
+    /**
+     * Persists tasks that were just marked as not done.
+     *
+     * @param tasks
+     *              The full list of tasks after the update.
+     * @param indices
+     *              The zero-based indices of the unmarked tasks.
+     * @throws JettVarkisException
+     *                             If there is an error writing to the file.
+     */
+    public void saveUnmark(List<Task> tasks, int... indices) throws JettVarkisException {
+        assert tasks != null;
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        appendToJournal(TaskJournal.unmarkRecords(indices));
+    }
+
+    /**
+     * Persists tasks that were just deleted.
+     *
+     * @param tasks
+     *              The full list of tasks after the deletion.
+     * @param indices
+     *              The zero-based indices of the deleted tasks, in the order they
+     *              were removed.
+     * @throws JettVarkisException
+     *                             If there is an error writing to the file.
+     */
+    public void saveDelete(List<Task> tasks, int... indices) throws JettVarkisException {
+        assert tasks != null;
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        appendToJournal(TaskJournal.deleteRecords(indices));
+    }
+
+    /**
+     * Persists tasks that were just put back into the list, such as deleted tasks
+     * restored by undo.
+     *
+     * @param tasks
+     *              The full list of tasks after the tasks were put back.
+     * @param indices
+     *              The zero-based positions the tasks were put back at, in ascending order.
+     * @param restoredTasks
+     *              The tasks that were put back, one for each position.
+     * @throws JettVarkisException
+     *                             If there is an error writing to the file.
+     */
+    public void saveRestore(List<Task> tasks, int[] indices, List<Task> restoredTasks) throws JettVarkisException {
+        assert tasks != null;
+        if (journal == null) {
+            save(tasks);
+            return;
+        }
+        appendToJournal(TaskJournal.insertRecords(indices, restoredTasks));
+    }
+
+    /**
+     * Hands the records to the write-behind queue if it is running, or appends them
+     * to the journal directly otherwise.
+     */
+    private void appendToJournal(String... records) throws JettVarkisException {
+        if (writeBehind != null) {
+            writeBehind.submit(records);
+        } else {
+            journal.append(records);
+        }
+        if (compactor != null) {
+            compactor.onJournalGrowth(journal.size());
+        }
+    }
+
     /**
      * Loads a trivia list from a specific category file.
      *
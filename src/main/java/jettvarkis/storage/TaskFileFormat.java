@@ -0,0 +1,13 @@
+package jettvarkis.storage;
+
+/**
+ * Represents the on-disk format Storage writes the task file in.
+ * Either format is recognised when loading, so switching formats migrates the
+ * task file the next time it is loaded.
+ */
+public enum TaskFileFormat {
+    /** One "T | 0 | description" line per task; human-readable but slow to parse. */
+    TEXT,
+    /** The compact binary format written by {@link BinaryTaskWriter}. */
+    BINARY
+}
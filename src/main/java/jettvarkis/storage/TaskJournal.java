@@ -0,0 +1,465 @@
+package jettvarkis.storage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.parser.Parser;
+import jettvarkis.task.Task;
+
+/**
+ * Represents an append-only log of task mutations that is replayed on top of
+ * the task file snapshot.
+ * The first line is a header naming the snapshot generation the records apply to,
+ * e.g. "# base 3". Each following record occupies one line, e.g.
+ * "ADD | T | 0 | read book" or "MARK | 3", where indices are zero-based positions
+ * at the time the mutation was applied. A record may cover a range of positions,
+ * e.g. "DELETE | 3-7". A task put back before the end of the list is recorded with
+ * its position, e.g. "INSERT | 3 | T | 0 | read book".
+ */
+public class TaskJournal {
+
+    private static final String BASE_HEADER = "# base ";
+    private static final String SEPARATOR = " | ";
+    private static final String ADD = "ADD";
+    private static final String MARK = "MARK";
+    private static final String UNMARK = "UNMARK";
+    private static final String DELETE = "DELETE";
+    private static final String INSERT = "INSERT";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final int TAIL_CHUNK_BYTES = 4096;
+
+    private final File file;
+    private final FsyncPolicy fsyncPolicy;
+    private int base;
+    private long lastForceNanos;
+    private boolean hasUnforcedWrites;
+
+    /**
+     * Constructs a TaskJournal backed by the given file.
+     *
+     * @param journalPath
+     *            The path to the journal file.
+     * @param fsyncPolicy
+     *            How eagerly appended records are forced to disk.
+     */
+    public TaskJournal(String journalPath, FsyncPolicy fsyncPolicy) {
+        assert journalPath != null && !journalPath.trim().isEmpty();
+        assert fsyncPolicy != null;
+        this.file = new File(journalPath);
+        this.fsyncPolicy = fsyncPolicy;
+        this.lastForceNanos = System.nanoTime() - FsyncPolicy.BATCH_INTERVAL_NANOS;
+    }
+
+    /**
+     * Returns the record for a newly added task.
+     *
+     * @param task
+     *            The task that was added to the end of the list.
+     * @return The journal record.
+     */
+    public static String addRecord(Task task) {
+        assert task != null;
+        return ADD + SEPARATOR + task.toFileString();
+    }
+
+    /**
+     * Returns the records for tasks that were marked as done.
+     * Runs of consecutive ascending indices are written as a single range record.
+     *
+     * @param indices
+     *            The zero-based indices of the marked tasks.
+     * @return The journal records.
+     */
+    public static String[] markRecords(int... indices) {
+        return toRecords(MARK, 1, indices);
+    }
+
+    /**
+     * Returns the records for tasks that were marked as not done.
+     * Runs of consecutive ascending indices are written as a single range record.
+     *
+     * @param indices
+     *            The zero-based indices of the unmarked tasks.
+     * @return The journal records.
+     */
+    public static String[] unmarkRecords(int... indices) {
+        return toRecords(UNMARK, 1, indices);
+    }
+
+    /**
+     * Returns the records for deleted tasks.
+     * The indices must be given in the order the deletions were applied. Runs of
+     * consecutive indices deleted from the back, as a bulk delete is recorded, are
+     * written as a single range record, e.g. "DELETE | 99-4999".
+     *
+     * @param indices
+     *            The zero-based indices of the deleted tasks.
+     * @return The journal records.
+     */
+    public static String[] deleteRecords(int... indices) {
+        return toRecords(DELETE, -1, indices);
+    }
+
+    /**
+     * Returns the records for tasks that were put back into the list, such as deleted
+     * tasks restored by undo.
+     *
+     * @param indices
+     *            The zero-based positions the tasks were put back at, in ascending order.
+     * @param tasks
+     *            The tasks that were put back, one for each position.
+     * @return The journal records.
+     */
+    public static String[] insertRecords(int[] indices, List<Task> tasks) {
+        assert indices != null && tasks != null;
+        assert indices.length == tasks.size();
+        String[] records = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            records[i] = INSERT + SEPARATOR + indices[i] + SEPARATOR + tasks.get(i).toFileString();
+        }
+        return records;
+    }
+
+    /**
+     * Appends the records to the journal in a single write, first writing a header
+     * for the last known base generation if the journal file has gone missing.
+     *
+     * @param records
+     *            The records to append, in the order they were applied.
+     * @throws JettVarkisException
+     *             If the records cannot be written.
+     */
+    public synchronized void append(String... records) throws JettVarkisException {
+        assert records != null;
+        StringBuilder content = new StringBuilder();
+        if (!file.exists()) {
+            content.append(BASE_HEADER).append(base).append('\n');
+        }
+        for (String record : records) {
+            content.append(record).append('\n');
+        }
+        write(content.toString(), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Replays every record in the journal onto the given list of tasks.
+     * The caller is responsible for checking that the journal's base generation
+     * matches the snapshot the tasks were loaded from.
+     * A trailing record without a line terminator is treated as a torn write
+     * from an interrupted append, and is cut off the file so that the next append
+     * starts on a line of its own.
+     *
+     * @param tasks
+     *            The tasks loaded from the snapshot, updated in place.
+     * @throws JettVarkisException
+     *             If the journal cannot be read or contains an invalid record.
+     */
+    public synchronized void replay(List<Task> tasks) throws JettVarkisException {
+        assert tasks != null;
+        if (!file.exists()) {
+            return;
+        }
+        truncateTornTail();
+        base = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                if (line.startsWith(BASE_HEADER)) {
+                    base = parseBase(line);
+                } else {
+                    applyRecord(line, tasks);
+                }
+                line = reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Discards all records and starts an empty journal on top of the given
+     * snapshot generation.
+     *
+     * @param base
+     *            The generation of the snapshot that new records will apply to.
+     * @throws JettVarkisException
+     *             If the journal cannot be written.
+     */
+    public synchronized void reset(int base) throws JettVarkisException {
+        assert base >= 0 : "Journal base generation cannot be negative";
+        write(BASE_HEADER + base + "\n", StandardOpenOption.TRUNCATE_EXISTING);
+        this.base = base;
+    }
+
+    /**
+     * Returns the snapshot generation that the records in this journal apply to.
+     * A journal written without a header applies to generation 0.
+     *
+     * @return The base generation, or -1 if the journal does not exist.
+     * @throws JettVarkisException
+     *             If the journal cannot be read or the header is invalid.
+     */
+    public synchronized int readBase() throws JettVarkisException {
+        if (!file.exists()) {
+            return -1;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !firstLine.startsWith(BASE_HEADER)) {
+                return 0;
+            }
+            return parseBase(firstLine);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Returns whether the journal holds at least one record.
+     * Only the first two lines are inspected, so this is O(1) in journal size.
+     *
+     * @return True if there is a record to replay.
+     * @throws JettVarkisException
+     *             If the journal cannot be read.
+     */
+    public synchronized boolean hasRecords() throws JettVarkisException {
+        if (!file.exists()) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith(BASE_HEADER)) {
+                line = reader.readLine();
+            }
+            return line != null;
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Atomically renames this journal's file over the target journal's file.
+     * This journal no longer exists afterwards until it is {@link #reset(int)}.
+     *
+     * @param target
+     *            The journal whose file is replaced.
+     * @throws JettVarkisException
+     *             If the file cannot be moved.
+     */
+    public synchronized void moveTo(TaskJournal target) throws JettVarkisException {
+        assert target != null && target != this;
+        try {
+            Files.move(file.toPath(), target.file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Deletes the journal file if it exists.
+     *
+     * @throws JettVarkisException
+     *             If the file exists but cannot be deleted.
+     */
+    public synchronized void delete() throws JettVarkisException {
+        if (file.exists() && !file.delete()) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Returns whether the journal file exists.
+     *
+     * @return True if the journal file exists.
+     */
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Returns the current size of the journal file in bytes.
+     *
+     * @return The size of the journal, or 0 if it does not exist.
+     */
+    public long size() {
+        return file.length();
+    }
+
+    private void applyRecord(String line, List<Task> tasks) throws JettVarkisException {
+        String[] parts = line.split(" \\| ", 2);
+        if (parts.length < 2) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        if (parts[0].equals(ADD)) {
+            tasks.add(Parser.parseFileLine(parts[1]));
+            return;
+        }
+        if (parts[0].equals(INSERT)) {
+            String[] fields = parts[1].split(" \\| ", 2);
+            if (fields.length < 2) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+            }
+            // A task may be put back right after the last one
+            tasks.add(parseIndex(fields[0], tasks.size() + 1), Parser.parseFileLine(fields[1]));
+            return;
+        }
+        String[] bounds = parts[1].split(RANGE_SEPARATOR, 2);
+        int first = parseIndex(bounds[0], tasks.size());
+        int last = bounds.length > 1 ? parseIndex(bounds[1], tasks.size()) : first;
+        if (first > last) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+        switch (parts[0]) {
+        case MARK:
+            for (int index = first; index <= last; index++) {
+                tasks.get(index).markAsDone();
+            }
+            break;
+        case UNMARK:
+            for (int index = first; index <= last; index++) {
+                tasks.get(index).markAsUndone();
+            }
+            break;
+        case DELETE:
+            tasks.subList(first, last + 1).clear();
+            break;
+        default:
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    private static int parseBase(String header) throws JettVarkisException {
+        try {
+            return Integer.parseInt(header.substring(BASE_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    private static int parseIndex(String indexString, int taskCount) throws JettVarkisException {
+        try {
+            int index = Integer.parseInt(indexString.trim());
+            if (index < 0 || index >= taskCount) {
+                throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR);
+        }
+    }
+
+    /**
+     * Returns the records for the indices, writing each run of indices that step by the
+     * given amount as a single range record of its lowest and highest index.
+     */
+    private static String[] toRecords(String operation, int step, int... indices) {
+        assert indices != null;
+        List<String> records = new ArrayList<>();
+        int i = 0;
+        while (i < indices.length) {
+            assert indices[i] >= 0 : "Journal index cannot be negative";
+            int runStart = indices[i];
+            int runEnd = runStart;
+            i++;
+            while (i < indices.length && indices[i] == runEnd + step) {
+                runEnd = indices[i++];
+            }
+            int first = Math.min(runStart, runEnd);
+            int last = Math.max(runStart, runEnd);
+            String range = first == last ? String.valueOf(first) : first + RANGE_SEPARATOR + last;
+            records.add(operation + SEPARATOR + range);
+        }
+        return records.toArray(new String[0]);
+    }
+
+    /**
+     * Forces records that the fsync policy has not yet forced to disk.
+     *
+     * @throws JettVarkisException
+     *             If the journal cannot be forced.
+     */
+    public synchronized void sync() throws JettVarkisException {
+        if (!hasUnforcedWrites || !file.exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+        lastForceNanos = System.nanoTime();
+        hasUnforcedWrites = false;
+    }
+
+    private void write(String content, StandardOpenOption mode) throws JettVarkisException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(content);
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            long now = System.nanoTime();
+            if (fsyncPolicy.shouldForce(lastForceNanos, now)) {
+                channel.force(false);
+                lastForceNanos = now;
+                hasUnforcedWrites = false;
+            } else {
+                hasUnforcedWrites = fsyncPolicy != FsyncPolicy.NEVER;
+            }
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+
+    /**
+     * Cuts the file back to just after its last line terminator, dropping a record torn
+     * by an interrupted append. Otherwise the next append would be glued onto the
+     * partial record and both would be lost.
+     */
+    private void truncateTornTail() throws JettVarkisException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            long end = length;
+            ByteBuffer chunk = ByteBuffer.allocate(TAIL_CHUNK_BYTES);
+            while (end > 0) {
+                long start = Math.max(0, end - TAIL_CHUNK_BYTES);
+                chunk.clear().limit((int) (end - start));
+                int read = 0;
+                while (chunk.hasRemaining() && read >= 0) {
+                    read = channel.read(chunk, start + chunk.position());
+                }
+                int newline = chunk.position() - 1;
+                while (newline >= 0 && chunk.get(newline) != '\n') {
+                    newline--;
+                }
+                if (newline >= 0) {
+                    end = start + newline + 1;
+                    break;
+                }
+                end = start;
+            }
+            if (end < length) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new JettVarkisException(JettVarkisException.ErrorType.FILE_OPERATION_ERROR);
+        }
+    }
+}
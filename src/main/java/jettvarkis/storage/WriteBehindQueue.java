@@ -0,0 +1,199 @@
+package jettvarkis.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jettvarkis.exception.JettVarkisException;
+
+/**
+ * Persists journal records on a single background writer thread so that commands
+ * do not wait for disk I/O.
+ * Records submitted in a burst, e.g. by "mark 1 2 3" followed by "delete 4", are
+ * coalesced into one journal write (group commit). {@link #flush()} blocks until
+ * every record submitted before the call has been written.
+ * Lock order: the journal's monitor is always taken before this queue's.
+ */
+public class WriteBehindQueue {
+
+    /** How long the writer waits after the first record of a burst for more to arrive. */
+    public static final long COALESCE_WINDOW_MILLIS = 5;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final TaskJournal journal;
+    private final Thread writer;
+    private final List<String> pending = new ArrayList<>();
+    private long submittedCount;
+    private long settledCount;
+    private long writeCount;
+    private JettVarkisException lastFailure;
+    private boolean isClosed;
+
+    /**
+     * Constructs a WriteBehindQueue that appends to the given journal.
+     *
+     * @param journal
+     *            The journal that queued records are appended to.
+     */
+    public WriteBehindQueue(TaskJournal journal) {
+        assert journal != null;
+        this.journal = journal;
+        this.writer = new Thread(this::runWriter, "journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the background writer thread.
+     */
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Queues the records for writing and returns immediately.
+     *
+     * @param records
+     *            The records to append, in the order they were applied.
+     */
+    public synchronized void submit(String... records) {
+        assert records != null;
+        assert !isClosed : "Cannot submit to a closed write-behind queue";
+        for (String record : records) {
+            pending.add(record);
+        }
+        submittedCount += records.length;
+        notifyAll();
+    }
+
+    /**
+     * Drops every queued record that has not been written yet.
+     * Called by Storage under the journal's monitor after writing a snapshot that
+     * already reflects those records, so that they are not applied twice.
+     */
+    public synchronized void discardPending() {
+        settledCount += pending.size();
+        pending.clear();
+        lastFailure = null;
+        notifyAll();
+    }
+
+    /**
+     * Blocks until every record submitted before this call has been written to the journal.
+     *
+     * @throws JettVarkisException
+     *             If the writer failed to write the records.
+     */
+    public synchronized void flush() throws JettVarkisException {
+        long target = submittedCount;
+        boolean isInterrupted = false;
+        while (settledCount < target) {
+            if (lastFailure != null) {
+                throw lastFailure;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flushes the queued records and stops the writer thread.
+     *
+     * @throws JettVarkisException
+     *             If the queued records could not be written.
+     */
+    public void close() throws JettVarkisException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                isClosed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of journal writes the writer has performed.
+     * Fewer writes than submitted commands means bursts were coalesced.
+     *
+     * @return The number of group commits.
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    private void runWriter() {
+        while (awaitRecords()) {
+            sleep(COALESCE_WINDOW_MILLIS);
+            try {
+                writeBatch();
+            } catch (JettVarkisException e) {
+                synchronized (this) {
+                    lastFailure = e;
+                    notifyAll();
+                    if (isClosed) {
+                        // close() has already reported the failure; the records are lost
+                        return;
+                    }
+                }
+                sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Waits until there are records to write. Returns false once the queue is
+     * closed and drained, which ends the writer thread.
+     */
+    private synchronized boolean awaitRecords() {
+        while (pending.isEmpty() && !isClosed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return !pending.isEmpty();
+    }
+
+    private void writeBatch() throws JettVarkisException {
+        synchronized (journal) {
+            String[] batch;
+            synchronized (this) {
+                batch = pending.toArray(new String[0]);
+            }
+            if (batch.length == 0) {
+                return;
+            }
+            // Records stay queued until written, so a failed write is retried in order
+            journal.append(batch);
+            synchronized (this) {
+                pending.subList(0, batch.length).clear();
+                settledCount += batch.length;
+                writeCount++;
+                lastFailure = null;
+                notifyAll();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,12 +3,17 @@ package jettvarkis.task;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Represents a Deadline task. A Deadline task has a description and a due date/time.
  */
 public class Deadline extends Task {
 
+    private static final DateTimeFormatter DISPLAY_FORMATTER =
+            DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma", Locale.US);
+
     protected LocalDateTime by;
     protected String originalBy;
 
@@ -38,6 +43,36 @@ public class Deadline extends Task {
         this.originalBy = by;
     }
 
+    /**
+     * Returns the due date/time of the task, if it was given in a recognised format.
+     *
+     * @return An Optional containing the due date/time.
+     */
+    public Optional<LocalDateTime> getBy() {
+        return Optional.ofNullable(by);
+    }
+
+    /**
+     * Returns whether the task was due before the given time, whether or not it is done.
+     * A task whose due date/time could not be parsed is never due before any time.
+     *
+     * @param time The time to compare the due date/time with.
+     * @return True if the due date/time is before the given time.
+     */
+    public boolean isDueBefore(LocalDateTime time) {
+        assert time != null;
+        return by != null && by.isBefore(time);
+    }
+
+    /**
+     * Returns the due date/time as originally entered, if it could not be parsed.
+     *
+     * @return The unparsed due date/time, or null if {@link #getBy()} is present.
+     */
+    public String getOriginalBy() {
+        return originalBy;
+    }
+
     /**
      * Returns a string representation of the Deadline task for display.
      *
@@ -46,8 +81,7 @@ public class Deadline extends Task {
     @Override
     public String toString() {
         if (by != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma", Locale.US);
-            return "[D]" + super.toString() + " (by: " + by.format(formatter) + ")";
+            return "[D]" + super.toString() + " (by: " + by.format(DISPLAY_FORMATTER) + ")";
         } else {
             return "[D]" + super.toString() + " (by: " + originalBy + ")";
         }
@@ -65,6 +99,11 @@ public class Deadline extends Task {
         return byEquals && originalByEquals;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), by, originalBy);
+    }
+
     /**
      * Returns a string representation of the Deadline task for saving to a file.
      *
@@ -73,9 +112,9 @@ public class Deadline extends Task {
     @Override
     public String toFileString() {
         if (by != null) {
-            return "D | " + (isDone ? "1" : "0") + " | " + description + " | " + by;
+            return getFileIdPrefix() + "D | " + (isDone ? "1" : "0") + " | " + description + " | " + by;
         } else {
-            return "D | " + (isDone ? "1" : "0") + " | " + description + " | " + originalBy;
+            return getFileIdPrefix() + "D | " + (isDone ? "1" : "0") + " | " + description + " | " + originalBy;
         }
     }
 }
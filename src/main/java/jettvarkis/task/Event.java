@@ -3,12 +3,17 @@ package jettvarkis.task;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Represents an Event task. An Event task has a description, a start time, and an end time.
  */
 public class Event extends Task {
 
+    private static final DateTimeFormatter DISPLAY_FORMATTER =
+            DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma", Locale.US);
+
     protected LocalDateTime from;
     protected LocalDateTime to;
     protected String originalFrom;
@@ -48,6 +53,42 @@ public class Event extends Task {
         this.originalTo = to;
     }
 
+    /**
+     * Returns the start time of the event, if it was given in a recognised format.
+     *
+     * @return An Optional containing the start time.
+     */
+    public Optional<LocalDateTime> getFrom() {
+        return Optional.ofNullable(from);
+    }
+
+    /**
+     * Returns the end time of the event, if it was given in a recognised format.
+     *
+     * @return An Optional containing the end time.
+     */
+    public Optional<LocalDateTime> getTo() {
+        return Optional.ofNullable(to);
+    }
+
+    /**
+     * Returns the start time as originally entered, if it could not be parsed.
+     *
+     * @return The unparsed start time, or null if {@link #getFrom()} is present.
+     */
+    public String getOriginalFrom() {
+        return originalFrom;
+    }
+
+    /**
+     * Returns the end time as originally entered, if it could not be parsed.
+     *
+     * @return The unparsed end time, or null if {@link #getTo()} is present.
+     */
+    public String getOriginalTo() {
+        return originalTo;
+    }
+
     /**
      * Returns a string representation of the Event task for display.
      *
@@ -55,9 +96,8 @@ public class Event extends Task {
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma", Locale.US);
-        String fromStr = from != null ? from.format(formatter) : originalFrom;
-        String toStr = to != null ? to.format(formatter) : originalTo;
+        String fromStr = from != null ? from.format(DISPLAY_FORMATTER) : originalFrom;
+        String toStr = to != null ? to.format(DISPLAY_FORMATTER) : originalTo;
         return "[E]" + super.toString() + " (from: " + fromStr + " to: " + toStr + ")";
     }
 
@@ -76,6 +116,11 @@ public class Event extends Task {
         return fromEquals && toEquals && originalFromEquals && originalToEquals;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), from, to, originalFrom, originalTo);
+    }
+
     /**
      * Returns a string representation of the Event task for saving to a file.
      *
@@ -85,6 +130,7 @@ public class Event extends Task {
     public String toFileString() {
         String fromStr = from != null ? from.toString() : originalFrom;
         String toStr = to != null ? to.toString() : originalTo;
-        return "E | " + (isDone ? "1" : "0") + " | " + description + " | " + fromStr + " | " + toStr;
+        return getFileIdPrefix() + "E | " + (isDone ? "1" : "0") + " | " + description + " | " + fromStr
+                + " | " + toStr;
     }
 }
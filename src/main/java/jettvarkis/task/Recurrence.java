@@ -0,0 +1,245 @@
+package jettvarkis.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents the rule by which a recurring task repeats: every day, week or month from
+ * its first occurrence, optionally until a given date and time.
+ * The n-th occurrence is computed from the first one rather than from the one before
+ * it, so a monthly task starting on the 31st falls on the last day of shorter months
+ * without drifting, and the occurrences around any time are found without visiting
+ * the ones before them.
+ */
+public class Recurrence {
+
+    private static final DateTimeFormatter DISPLAY_FORMATTER =
+            DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma", Locale.US);
+
+    /**
+     * Enumerates how often a recurring task repeats.
+     */
+    public enum Frequency {
+        DAILY("day", ChronoUnit.DAYS),
+        WEEKLY("week", ChronoUnit.WEEKS),
+        MONTHLY("month", ChronoUnit.MONTHS);
+
+        private final String unit;
+        private final ChronoUnit chronoUnit;
+
+        Frequency(String unit, ChronoUnit chronoUnit) {
+            this.unit = unit;
+            this.chronoUnit = chronoUnit;
+        }
+
+        /**
+         * Returns the unit the frequency is written with, e.g. "week".
+         *
+         * @return The unit of the frequency.
+         */
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * Returns the frequency written with the given unit.
+         *
+         * @param unit
+         *            The unit, e.g. "week".
+         * @return An Optional containing the frequency, or an empty Optional if the unit is unknown.
+         */
+        public static Optional<Frequency> fromUnit(String unit) {
+            for (Frequency frequency : values()) {
+                if (frequency.unit.equals(unit)) {
+                    return Optional.of(frequency);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final Frequency frequency;
+    private final LocalDateTime until;
+
+    /**
+     * Constructs a Recurrence that repeats forever.
+     *
+     * @param frequency
+     *            How often the task repeats.
+     */
+    public Recurrence(Frequency frequency) {
+        assert frequency != null;
+        this.frequency = frequency;
+        this.until = null;
+    }
+
+    /**
+     * Constructs a Recurrence whose last occurrence starts on or before the given time.
+     *
+     * @param frequency
+     *            How often the task repeats.
+     * @param until
+     *            The latest time an occurrence may start at.
+     */
+    public Recurrence(Frequency frequency, LocalDateTime until) {
+        assert frequency != null;
+        assert until != null;
+        this.frequency = frequency;
+        this.until = until;
+    }
+
+    /**
+     * Returns how often the task repeats.
+     *
+     * @return The frequency.
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the latest time an occurrence may start at, if the recurrence ends.
+     *
+     * @return An Optional containing the end of the recurrence.
+     */
+    public Optional<LocalDateTime> getUntil() {
+        return Optional.ofNullable(until);
+    }
+
+    /**
+     * Returns the start of the first occurrence that starts at or after the given time.
+     *
+     * @param first
+     *            The start of the first occurrence.
+     * @param time
+     *            The time from which to look.
+     * @return An Optional containing the start, or an empty Optional if the recurrence
+     *         ends before then.
+     */
+    public Optional<LocalDateTime> findNextStart(LocalDateTime first, LocalDateTime time) {
+        assert first != null && time != null;
+        LocalDateTime start = getStart(first, findFirstIndex(first, time, true));
+        return isWithinUntil(start) ? Optional.of(start) : Optional.empty();
+    }
+
+    /**
+     * Returns the start of the first occurrence that starts strictly after the given time.
+     *
+     * @param first
+     *            The start of the first occurrence.
+     * @param time
+     *            The time after which to look.
+     * @return An Optional containing the start, or an empty Optional if the recurrence
+     *         ends before then.
+     */
+    public Optional<LocalDateTime> findStartAfter(LocalDateTime first, LocalDateTime time) {
+        assert first != null && time != null;
+        LocalDateTime start = getStart(first, findFirstIndex(first, time, false));
+        return isWithinUntil(start) ? Optional.of(start) : Optional.empty();
+    }
+
+    /**
+     * Returns the starts of the occurrences lasting the given duration that overlap
+     * the range [from, to), in order.
+     * Only the occurrences inside the range are computed, however long the recurrence runs.
+     *
+     * @param first
+     *            The start of the first occurrence.
+     * @param duration
+     *            How long each occurrence lasts.
+     * @param from
+     *            The start of the range.
+     * @param to
+     *            The end of the range.
+     * @return The starts of the overlapping occurrences.
+     */
+    public List<LocalDateTime> findStartsBetween(LocalDateTime first, Duration duration, LocalDateTime from,
+            LocalDateTime to) {
+        assert first != null && duration != null && from != null && to != null;
+        List<LocalDateTime> starts = new ArrayList<>();
+        // An occurrence overlaps the range if it starts before the range ends and ends after it starts
+        long index = findFirstIndex(first, from.minus(duration), false);
+        for (LocalDateTime start = getStart(first, index); start.isBefore(to) && isWithinUntil(start);
+                start = getStart(first, ++index)) {
+            starts.add(start);
+        }
+        return starts;
+    }
+
+    /**
+     * Returns a string representation of the recurrence for display, e.g. "every week".
+     *
+     * @return A string representing the recurrence.
+     */
+    @Override
+    public String toString() {
+        String rule = "every " + frequency.unit;
+        return until == null ? rule : rule + " until " + until.format(DISPLAY_FORMATTER);
+    }
+
+    /**
+     * Returns a string representation of the recurrence for saving to a file.
+     *
+     * @return A string representing the recurrence in file format.
+     */
+    public String toFileString() {
+        String rule = "every " + frequency.unit;
+        return until == null ? rule : rule + " until " + until;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Recurrence other = (Recurrence) obj;
+        return frequency == other.frequency && Objects.equals(until, other.until);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, until);
+    }
+
+    private LocalDateTime getStart(LocalDateTime first, long index) {
+        // Months are added to the first start in one step, which clamps to the end of shorter months
+        return first.plus(index, frequency.chronoUnit);
+    }
+
+    private boolean isWithinUntil(LocalDateTime start) {
+        return until == null || !start.isAfter(until);
+    }
+
+    /**
+     * Returns the index of the first occurrence starting after the given time, or at it
+     * if inclusive. The number of whole periods elapsed is a guess that is off by at
+     * most one, since a month added to a clamped date may be shorter than a calendar month.
+     */
+    private long findFirstIndex(LocalDateTime first, LocalDateTime time, boolean isInclusive) {
+        if (time.isBefore(first)) {
+            return 0;
+        }
+        long index = Math.max(0, frequency.chronoUnit.between(first, time));
+        while (index > 0 && isAtOrAfter(getStart(first, index - 1), time, isInclusive)) {
+            index--;
+        }
+        while (!isAtOrAfter(getStart(first, index), time, isInclusive)) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isAtOrAfter(LocalDateTime start, LocalDateTime time, boolean isInclusive) {
+        return start.isAfter(time) || (isInclusive && start.isEqual(time));
+    }
+}
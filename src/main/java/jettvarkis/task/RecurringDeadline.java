@@ -0,0 +1,110 @@
+package jettvarkis.task;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents a Deadline task that falls due again and again according to a {@link Recurrence}.
+ * The task is stored once, with its first due date, and its later occurrences are only
+ * computed when a query asks for them. Marking the task marks every occurrence.
+ */
+public class RecurringDeadline extends Deadline {
+
+    private final Recurrence recurrence;
+
+    /**
+     * Constructs a new RecurringDeadline task with the given description, first due date/time and recurrence.
+     *
+     * @param description The description of the Deadline task.
+     * @param by The due date/time of the first occurrence.
+     * @param recurrence The rule by which the task falls due again.
+     */
+    public RecurringDeadline(String description, LocalDateTime by, Recurrence recurrence) {
+        super(description, by);
+        assert recurrence != null : "Recurrence cannot be null";
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns the rule by which the task falls due again.
+     *
+     * @return The recurrence.
+     */
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns the first occurrence due at or after the given time.
+     *
+     * @param time The time from which to look.
+     * @return An Optional containing the occurrence as a plain Deadline with this task's status,
+     *         or an empty Optional if the recurrence ends before then.
+     */
+    public Optional<Deadline> findNextOccurrence(LocalDateTime time) {
+        return recurrence.findNextStart(by, time).map(this::createOccurrence);
+    }
+
+    /**
+     * Returns the first occurrence due strictly after the given time.
+     *
+     * @param time The time after which to look.
+     * @return An Optional containing the occurrence as a plain Deadline with this task's status,
+     *         or an empty Optional if the recurrence ends before then.
+     */
+    public Optional<Deadline> findOccurrenceAfter(LocalDateTime time) {
+        return recurrence.findStartAfter(by, time).map(this::createOccurrence);
+    }
+
+    /**
+     * Returns false, since the next occurrence of a recurring task is always treated as
+     * upcoming, like a deadline that is not due yet.
+     *
+     * @param time The time to compare the due date/time with.
+     * @return False.
+     */
+    @Override
+    public boolean isDueBefore(LocalDateTime time) {
+        return false;
+    }
+
+    private Deadline createOccurrence(LocalDateTime occurrenceBy) {
+        Deadline occurrence = new Deadline(description, occurrenceBy);
+        if (isDone) {
+            occurrence.markAsDone();
+        }
+        return occurrence;
+    }
+
+    /**
+     * Returns a string representation of the RecurringDeadline task for display.
+     *
+     * @return A string representing the task and its recurrence.
+     */
+    @Override
+    public String toString() {
+        return super.toString() + " (" + recurrence + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && recurrence.equals(((RecurringDeadline) obj).recurrence);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), recurrence);
+    }
+
+    /**
+     * Returns a string representation of the RecurringDeadline task for saving to a file,
+     * with the recurrence as an extra field.
+     *
+     * @return A string representing the task in file format.
+     */
+    @Override
+    public String toFileString() {
+        return super.toFileString() + " | " + recurrence.toFileString();
+    }
+}
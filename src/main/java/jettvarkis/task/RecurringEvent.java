@@ -0,0 +1,105 @@
+package jettvarkis.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Represents an Event task that takes place again and again according to a {@link Recurrence}.
+ * The task is stored once, with its first start and end time, and its later occurrences
+ * are only computed for the time ranges a query asks about. Every occurrence lasts as
+ * long as the first one. Marking the task marks every occurrence.
+ */
+public class RecurringEvent extends Event {
+
+    private final Recurrence recurrence;
+
+    /**
+     * Constructs a new RecurringEvent task with the given description, first start and end time, and recurrence.
+     *
+     * @param description The description of the Event task.
+     * @param from The start time of the first occurrence.
+     * @param to The end time of the first occurrence.
+     * @param recurrence The rule by which the event takes place again.
+     */
+    public RecurringEvent(String description, LocalDateTime from, LocalDateTime to, Recurrence recurrence) {
+        super(description, from, to);
+        assert recurrence != null : "Recurrence cannot be null";
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns the rule by which the event takes place again.
+     *
+     * @return The recurrence.
+     */
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns the occurrences that start before the given range ends and end after it starts.
+     *
+     * @param rangeFrom The start of the range.
+     * @param rangeTo The end of the range.
+     * @return The overlapping occurrences as plain Events with this task's status, ordered by start time.
+     */
+    public List<Event> findOccurrences(LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+        return recurrence.findStartsBetween(from, Duration.between(from, to), rangeFrom, rangeTo).stream()
+                .map(this::createOccurrence)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the first occurrence starting strictly after the given time.
+     *
+     * @param time The time after which to look.
+     * @return An Optional containing the occurrence as a plain Event with this task's status,
+     *         or an empty Optional if the recurrence ends before then.
+     */
+    public Optional<Event> findOccurrenceAfter(LocalDateTime time) {
+        return recurrence.findStartAfter(from, time).map(this::createOccurrence);
+    }
+
+    private Event createOccurrence(LocalDateTime occurrenceFrom) {
+        Event occurrence = new Event(description, occurrenceFrom, occurrenceFrom.plus(Duration.between(from, to)));
+        if (isDone) {
+            occurrence.markAsDone();
+        }
+        return occurrence;
+    }
+
+    /**
+     * Returns a string representation of the RecurringEvent task for display.
+     *
+     * @return A string representing the task and its recurrence.
+     */
+    @Override
+    public String toString() {
+        return super.toString() + " (" + recurrence + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && recurrence.equals(((RecurringEvent) obj).recurrence);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), recurrence);
+    }
+
+    /**
+     * Returns a string representation of the RecurringEvent task for saving to a file,
+     * with the recurrence as an extra field.
+     *
+     * @return A string representing the task in file format.
+     */
+    @Override
+    public String toFileString() {
+        return super.toFileString() + " | " + recurrence.toFileString();
+    }
+}
@@ -0,0 +1,136 @@
+package jettvarkis.task;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a pool of canonical strings, so that tasks with the same description or
+ * unparsed date share one String instead of each loaded or added task holding a copy.
+ * The pool has a fixed number of slots, and a string is looked up in the slot picked by
+ * its hash. A string missing from its slot takes the slot over, so the pool never grows
+ * beyond its capacity and at worst misses a string that is still in use. Slots hold their
+ * strings weakly, so a string no task refers to any more is still collected.
+ * The pool may be used by several threads at once, such as those of a parallel load.
+ */
+public class StringPool {
+
+    /** The number of slots in the shared pool. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    // The String object plus the header and length of its byte array, rounded up as the JVM lays them out
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+
+    private static final StringPool SHARED = new StringPool(DEFAULT_CAPACITY);
+
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Constructs an empty StringPool.
+     *
+     * @param capacity
+     *            The number of slots, which must be a power of two.
+     */
+    public StringPool(int capacity) {
+        assert capacity > 0 && Integer.bitCount(capacity) == 1 : "Capacity must be a power of two";
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns the pool shared by the parser, the storage readers and the task list.
+     *
+     * @return The shared pool.
+     */
+    public static StringPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled string equal to the given one, or pools and returns the given
+     * string if there is none.
+     *
+     * @param value
+     *            The string to look up, or null.
+     * @return A string equal to the given one, or null if it is null.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.increment();
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (slots.length() - 1);
+        WeakReference<String> reference = slots.get(slot);
+        String pooled = reference == null ? null : reference.get();
+        if (value.equals(pooled)) {
+            if (pooled != value) {
+                hits.increment();
+                savedBytes.add(estimateBytes(value));
+            }
+            return pooled;
+        }
+        slots.set(slot, new WeakReference<>(value));
+        return value;
+    }
+
+    /**
+     * Returns the number of slots in the pool.
+     *
+     * @return The capacity of the pool.
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the number of strings looked up in the pool so far.
+     *
+     * @return The number of lookups.
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found an equal string in the pool and so saved
+     * a copy from being kept.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the total estimated size of the copies dropped in favour of pooled strings
+     * over all hits so far. The count only grows, even once the tasks that held those
+     * copies are gone, so it is not the heap saved at any one time.
+     *
+     * @return The estimated number of bytes reused across all lookups.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Estimates the heap held by a string, which stores one byte per character if every
+     * character is Latin-1 and two otherwise.
+     *
+     * @param value
+     *            The string to measure.
+     * @return The estimated size of the string in bytes.
+     */
+    static long estimateBytes(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_OVERHEAD_BYTES + ((value.length() * (long) bytesPerChar + 7) & ~7L);
+    }
+}
@@ -5,8 +5,12 @@ package jettvarkis.task;
  * common functionalities for all types of tasks (Todo, Deadline, Event).
  */
 public abstract class Task {
+    /** The id of a task that has not been given one yet. */
+    public static final long NO_ID = 0;
+
     protected String description;
     protected boolean isDone;
+    protected long id = NO_ID;
 
     /**
      * Constructs a new Task with the given description.
@@ -30,6 +34,15 @@ public abstract class Task {
         return (isDone ? "X" : " "); // mark done task with X
     }
 
+    /**
+     * Returns whether the task is done.
+     *
+     * @return True if the task has been marked as done.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Marks the task as done.
      */
@@ -64,6 +77,35 @@ public abstract class Task {
         return description;
     }
 
+    /**
+     * Returns the id that identifies the task for as long as it exists, however the list around it changes.
+     *
+     * @return The id, or {@link #NO_ID} if the task has not been given one yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gives the task its id. A task keeps the first id it is given.
+     *
+     * @param id The id, which must be positive.
+     */
+    public void setId(long id) {
+        assert this.id == NO_ID : "Task already has an id";
+        assert id > 0 : "Task ids must be positive";
+        this.id = id;
+    }
+
+    /**
+     * Returns whether the task has been given an id.
+     *
+     * @return True if the task has an id.
+     */
+    public boolean hasId() {
+        return id != NO_ID;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -76,6 +118,21 @@ public abstract class Task {
         return description.equals(other.description);
     }
 
+    @Override
+    public int hashCode() {
+        return description.hashCode();
+    }
+
+    /**
+     * Returns the leading field of the file string that holds the task's id.
+     * Ids are not part of a task's equality, so tasks without one are saved without it.
+     *
+     * @return The id followed by a field separator, or an empty string if the task has no id.
+     */
+    protected String getFileIdPrefix() {
+        return hasId() ? id + " | " : "";
+    }
+
     /**
      * Returns a string representation of the task for saving to a file.
      * This method must be implemented by concrete task classes.
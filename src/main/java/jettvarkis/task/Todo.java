@@ -31,6 +31,6 @@ public class Todo extends Task {
      */
     @Override
     public String toFileString() {
-        return "T | " + (isDone ? "1" : "0") + " | " + description;
+        return getFileIdPrefix() + "T | " + (isDone ? "1" : "0") + " | " + description;
     }
 }
@@ -1,9 +1,11 @@
 package jettvarkis.ui;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.IntStream;
 
+import jettvarkis.ConflictPolicy;
+import jettvarkis.task.StringPool;
 import jettvarkis.task.Task;
 import jettvarkis.trivia.Trivia;
 import jettvarkis.trivia.TriviaList;
@@ -14,6 +16,8 @@ import jettvarkis.trivia.TriviaList;
  * displaying messages.
  */
 public class Ui {
+    /** The most tasks listed one by one after a bulk update, beyond which only their number is shown. */
+    public static final int MAX_LISTED_TASKS = 20;
 
     /**
      * Returns the welcome message to the user.
@@ -26,6 +30,18 @@ public class Ui {
                 + "What burdens shall we catalog today?";
     }
 
+    /**
+     * Returns the reminder message for a deadline or event that is coming up soon.
+     *
+     * @param task
+     *            The deadline or event to remind the user of.
+     * @return The reminder message string.
+     */
+    public String getReminderMessage(Task task) {
+        assert task != null;
+        return "The sands of time run low. This draws near:\n  " + task;
+    }
+
     /**
      * Displays a goodbye message to the user.
      */
@@ -46,27 +62,52 @@ public class Ui {
         assert task != null;
         assert taskCount >= 0 : "Task count cannot be negative";
         System.out.println("Another entry inscribed in the grimoire of existence:");
-        System.out.println("  " + task);
+        System.out.println("  " + task + formatId(task));
         System.out.println("Your collection of mortal endeavors now contains " + taskCount + " items. "
                 + "How quickly they accumulate...");
     }
 
     /**
-     * Displays all tasks in the list.
+     * Displays all tasks in the list, each with its position and its id, so that
+     * either can be used to refer to it.
      *
      * @param tasks
-     *            The ArrayList of tasks to be displayed.
+     *            The list of tasks to be displayed.
      */
-    public void showTasks(ArrayList<Task> tasks) {
+    public void showTasks(List<Task> tasks) {
         assert tasks != null;
         System.out.println("Behold, the chronicles of your endeavors, preserved through time:");
         IntStream.range(0, tasks.size())
                 .forEach(i -> {
                     assert tasks.get(i) != null : "Task at index " + i + " is null";
-                    System.out.println((i + 1) + "." + tasks.get(i));
+                    System.out.println((i + 1) + "." + tasks.get(i) + formatId(tasks.get(i)));
                 });
     }
 
+    /**
+     * Displays the tasks with the given status, each with its position in the whole list
+     * and its id, followed by how many of all the tasks are done.
+     *
+     * @param tasks
+     *            The list of all tasks.
+     * @param indices
+     *            The zero-based indices of the tasks with the status.
+     * @param isDone
+     *            True if the tasks shown are the done ones, false if they are the pending ones.
+     * @param doneCount
+     *            The number of tasks in the list that are done.
+     */
+    public void showTasksByStatus(List<Task> tasks, BitSet indices, boolean isDone, int doneCount) {
+        assert tasks != null && indices != null;
+        assert doneCount >= 0 && doneCount <= tasks.size() : "Done count out of range: " + doneCount;
+        System.out.println(isDone
+                ? "These chronicles have reached their end, though their memory endures:"
+                : "These tales still await their final chapter:");
+        indices.stream()
+                .forEach(i -> System.out.println((i + 1) + "." + tasks.get(i) + formatId(tasks.get(i))));
+        System.out.println(doneCount + " of " + tasks.size() + " endeavors are complete.");
+    }
+
     /**
      * Displays a message indicating that a task has been marked as done.
      *
@@ -76,7 +117,7 @@ public class Ui {
     public void showMarkedTasks(List<Task> markedTasks) {
         assert markedTasks != null;
         System.out.println("Excellent. These chapters of your story reach their conclusion:");
-        markedTasks.forEach(task -> System.out.println("  " + task));
+        showTaskSummary(markedTasks);
         System.out.println("Another small victory against the passage of time.");
     }
 
@@ -89,7 +130,7 @@ public class Ui {
     public void showUnmarkedTasks(List<Task> unmarkedTasks) {
         assert unmarkedTasks != null;
         System.out.println("Ah, it seems these tales require more time to unfold:");
-        unmarkedTasks.forEach(task -> System.out.println("  " + task));
+        showTaskSummary(unmarkedTasks);
         System.out.println("Sometimes, the journey takes longer than expected. This I understand well.");
     }
 
@@ -105,11 +146,33 @@ public class Ui {
         assert deletedTasks != null;
         assert taskCount >= 0 : "Task count cannot be negative";
         System.out.println("These memories fade back into the void, as all things eventually do:");
-        deletedTasks.forEach(task -> System.out.println("  " + task));
+        showTaskSummary(deletedTasks);
         System.out.println("Your grimoire now holds " + taskCount + " remaining endeavors. "
                 + "Perhaps it's for the best - some burdens are meant to be released.");
     }
 
+    /**
+     * Displays a confirmation that an edit was undone.
+     *
+     * @param description
+     *            The description of the edit that was undone.
+     */
+    public void showUndoneEdit(String description) {
+        assert description != null;
+        System.out.println("As if it never happened, I have unwoven " + description + ".");
+    }
+
+    /**
+     * Displays a confirmation that an undone edit was redone.
+     *
+     * @param description
+     *            The description of the edit that was redone.
+     */
+    public void showRedoneEdit(String description) {
+        assert description != null;
+        System.out.println("Time bends once more. I have restored " + description + ".");
+    }
+
     /**
      * Displays an error message to the user.
      *
@@ -139,6 +202,113 @@ public class Ui {
         }
     }
 
+    /**
+     * Displays the existing events that overlap a newly added event.
+     *
+     * @param events
+     *            The overlapping events, ordered by start time.
+     */
+    public void showEventConflicts(List<Task> events) {
+        assert events != null && !events.isEmpty();
+        System.out.println("Beware, this moment collides with others already woven into your days:");
+        events.forEach(event -> System.out.println("  " + event));
+    }
+
+    /**
+     * Displays the policy applied to events that overlap existing events.
+     *
+     * @param conflictPolicy
+     *            The policy now in effect.
+     */
+    public void showConflictPolicy(ConflictPolicy conflictPolicy) {
+        assert conflictPolicy != null;
+        switch (conflictPolicy) {
+        case ALLOW:
+            System.out.println("So be it. Events may overlap freely, and I shall hold my tongue.");
+            break;
+        case WARN:
+            System.out.println("Very well. I shall warn you whenever a new event collides with another.");
+            break;
+        default:
+            System.out.println("As you wish. No event shall be added where another already stands.");
+            break;
+        }
+    }
+
+    /**
+     * Displays the events found within a time range.
+     *
+     * @param events
+     *            The list of events to display, ordered by start time.
+     */
+    public void showScheduledEvents(List<Task> events) {
+        assert events != null;
+        if (events.isEmpty()) {
+            System.out.println("No gatherings stir within that span of time. The hours lie quiet and unclaimed.");
+        } else {
+            System.out.println("Within that span of time, these moments await you:");
+            IntStream.range(0, events.size())
+                    .forEach(i -> System.out.println("  " + (i + 1) + "." + events.get(i)));
+        }
+    }
+
+    /**
+     * Displays the deadlines that are due next.
+     *
+     * @param deadlines
+     *            The list of deadlines to display, ordered by due date.
+     */
+    public void showUpcomingDeadlines(List<Task> deadlines) {
+        assert deadlines != null;
+        if (deadlines.isEmpty()) {
+            System.out.println("No deadlines loom on the horizon. Time, for once, is on your side.");
+        } else {
+            System.out.println("These deadlines draw near, each in its turn:");
+            IntStream.range(0, deadlines.size())
+                    .forEach(i -> System.out.println("  " + (i + 1) + "." + deadlines.get(i)));
+        }
+    }
+
+    /**
+     * Displays the deadlines that have passed without being done.
+     *
+     * @param deadlines
+     *            The list of deadlines to display, ordered by due date.
+     */
+    public void showOverdueDeadlines(List<Task> deadlines) {
+        assert deadlines != null;
+        if (deadlines.isEmpty()) {
+            System.out.println("Not a single deadline has slipped past you. Even I am impressed.");
+        } else {
+            System.out.println("Time has already swept past these deadlines, yet they remain undone:");
+            IntStream.range(0, deadlines.size())
+                    .forEach(i -> System.out.println("  " + (i + 1) + "." + deadlines.get(i)));
+        }
+    }
+
+    /**
+     * Displays the number of tasks, the size of the find index and how often the string
+     * pool has shared repeated descriptions and dates.
+     *
+     * @param taskCount
+     *            The number of tasks in the list.
+     * @param doneCount
+     *            The number of those tasks that are done.
+     * @param findIndexBytes
+     *            The estimated size of the find index in bytes.
+     * @param pool
+     *            The pool shared by loaded and added tasks.
+     */
+    public void showStats(int taskCount, int doneCount, long findIndexBytes, StringPool pool) {
+        assert pool != null;
+        System.out.println("The ledger of your endeavors, as it stands:");
+        System.out.println("  Tasks: " + taskCount + " (" + doneCount + " done, " + (taskCount - doneCount)
+                + " pending)");
+        System.out.println("  Find index: " + formatBytes(findIndexBytes));
+        System.out.println("  Shared strings: " + pool.getHitCount() + " of " + pool.getLookupCount()
+                + " lookups hit the pool, reusing " + formatBytes(pool.getSavedBytes()) + " across all hits so far");
+    }
+
     /**
      * Displays the available trivia categories.
      *
@@ -311,16 +481,63 @@ public class Ui {
      */
     public void showGeneralHelp() {
         System.out.println("Behold, the ancient incantations for managing your mortal endeavors:");
-        System.out.println("  list - Reveals all chronicles within your grimoire.");
+        System.out.println("  list [done/pending] - Reveals all chronicles, or only the finished or unfinished.");
         System.out.println("  todo <description> - Inscribes a simple task into the tome of time.");
         System.out.println("  deadline <description> /by <datetime> - Binds a task to temporal flow.");
         System.out.println("  event <description> /from <datetime> /to <datetime> - Records a moment in time.");
-        System.out.println("  mark <task_number> - Seals a task as completed, preserving its memory.");
-        System.out.println("  unmark <task_number> - Reopens a sealed task, for time allows revisions.");
-        System.out.println("  delete <task_number> - Releases a task back to the void.");
+        System.out.println("  ... /every <day/week/month> [/until <datetime>] - Makes a deadline or event recur.");
+        System.out.println("  mark <task_number/first-last/#id> - Seals a task as completed, preserving its memory.");
+        System.out.println("  unmark <task_number/first-last/#id> - Reopens a sealed task, for time allows revisions.");
+        System.out.println("  mark/unmark all [/find <keyword> or /overdue] - Seals or reopens many tasks at once.");
+        System.out.println("  delete <task_number/first-last/#id> - Releases tasks back to the void.");
         System.out.println("  find <keyword> - Searches the depths of memory for forgotten traces.");
+        System.out.println("  undo - Unweaves the most recent change to your tasks.");
+        System.out.println("  redo - Weaves an unwoven change back into your tasks.");
+        System.out.println("  schedule /from <datetime> /to <datetime> - Reveals the events within a span of time.");
+        System.out.println("  conflicts <allow/warn/reject> - Decides how overlapping events are treated.");
+        System.out.println("  upcoming [count] - Foretells the deadlines drawing nearest.");
+        System.out.println("  overdue - Recalls the deadlines that time has left behind.");
+        System.out.println("  stats - Tallies your tasks and the memory spared by their repeated words.");
         System.out.println("  trivia <subcommand> - Accesses the ancient knowledge archives (try 'trivia help').");
         System.out.println("  bye - Concludes our session, until time brings us together again.");
         System.out.println("  help - Displays these mystical instructions once more.");
     }
+
+    /**
+     * Returns a size in bytes in the largest unit that keeps it at least one, e.g. "1.5 MiB".
+     */
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " bytes";
+        }
+        String[] units = {"KiB", "MiB", "GiB"};
+        double size = bytes / 1024.0;
+        int unit = 0;
+        while (size >= 1024 && unit < units.length - 1) {
+            size /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", size, units[unit]);
+    }
+
+    /**
+     * Returns the suffix by which a task's id is shown, e.g. " #42", or an empty
+     * string if the task has no id.
+     */
+    private static String formatId(Task task) {
+        return task.hasId() ? " #" + task.getId() : "";
+    }
+
+    /**
+     * Displays the given tasks one per line, but only the first {@link #MAX_LISTED_TASKS}
+     * of them, followed by the number left out.
+     */
+    private static void showTaskSummary(List<Task> tasks) {
+        tasks.stream()
+                .limit(MAX_LISTED_TASKS)
+                .forEach(task -> System.out.println("  " + task));
+        if (tasks.size() > MAX_LISTED_TASKS) {
+            System.out.println("  ...and " + (tasks.size() - MAX_LISTED_TASKS) + " more.");
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package jettvarkis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Task;
+
+public class ConcurrentTaskListTest {
+
+    private static final int THREADS = 4;
+
+    @Test
+    public void testConcurrentChangesKeepIndexesConsistent() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        for (int i = 0; i < 1000; i++) {
+            taskList.addTodo("chore " + i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    taskList.addTodo("thread " + thread + " task " + i);
+                    taskList.markTask(i);
+                    taskList.update(() -> taskList.deleteTask(taskList.getTaskCount() - 1));
+                }
+                return null;
+            }));
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    List<Task> tasks = taskList.getTasks();
+                    assertTrue(tasks.size() >= 1000);
+                    assertTrue(taskList.findTasks("chore 99").size() >= 1);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Task> tasks = taskList.getTasks();
+        assertEquals(1000, tasks.size());
+        assertEquals(tasks.stream().filter(Task::isDone).count(), taskList.getDoneCount());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(i, taskList.indexOfId(tasks.get(i).getId()));
+        }
+        assertEquals(1, taskList.findTasks("chore 999").size());
+    }
+
+    @Test
+    public void testUpdateRunsItsCallsTogether() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    // Without the lock held throughout, two threads could read the same count and collide
+                    taskList.update(() -> taskList.addTodo("task " + taskList.getTaskCount()));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertEquals(THREADS * 250, taskList.getTaskCount());
+    }
+
+    @Test
+    public void testGetTasksReturnsReadOnlyCopy() throws JettVarkisException {
+        ConcurrentTaskList taskList = new ConcurrentTaskList(List.of());
+        taskList.addTodo("first");
+        List<Task> tasks = taskList.getTasks();
+        taskList.addTodo("second");
+
+        assertEquals(1, tasks.size());
+        assertThrows(UnsupportedOperationException.class, () -> tasks.remove(0));
+        taskList.read(() -> assertEquals(2, taskList.getTasks().size()));
+    }
+
+    @Test
+    public void testFindDoesNotWaitForUpdate() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        taskList.addTodo("water plants");
+        CountDownLatch isUpdating = new CountDownLatch(1);
+        CountDownLatch mayFinish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> update = pool.submit(() -> {
+            taskList.update(() -> {
+                taskList.addTodo("water lawn");
+                isUpdating.countDown();
+                try {
+                    mayFinish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        isUpdating.await();
+
+        // The update still holds the write lock, so the find is served from the version before it
+        Future<List<Task>> find = pool.submit(() -> taskList.findTasks("WATER"));
+        assertEquals(1, find.get(5, TimeUnit.SECONDS).size());
+        assertTrue(taskList.findTaskIndices("plants").get(0));
+        mayFinish.countDown();
+        update.get();
+        pool.shutdown();
+        assertEquals(2, taskList.findTasks("water").size());
+    }
+}
@@ -5,14 +5,25 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.parser.Parser;
+import jettvarkis.storage.Storage;
 import jettvarkis.task.Deadline;
 import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
 import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+import jettvarkis.ui.Ui;
 
 public class TaskListTest {
 
@@ -289,5 +300,508 @@ public class TaskListTest {
         assertEquals("[T][ ] first", taskList.getTask(0).get().toString());
         assertEquals("[T][ ] third", taskList.getTask(1).get().toString());
     }
-}
 
+    @Test
+    public void testBulkAddOfManyTasks() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100000; i++) {
+            taskList.addTodo("task " + i);
+        }
+        assertEquals(100000, taskList.getTaskCount());
+        assertThrows(JettVarkisException.class, () -> taskList.addTodo("task 50000"));
+    }
+
+    @Test
+    public void testDuplicateDetectionCoversLoadedTasks() {
+        ArrayList<Task> loadedTasks = new ArrayList<>();
+        loadedTasks.add(new Todo("read book"));
+        TaskList taskList = new TaskList(loadedTasks);
+
+        assertThrows(JettVarkisException.class, () -> taskList.addTodo("read book"));
+    }
+
+    @Test
+    public void testDeletedTaskCanBeAddedAgain() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addDeadline("return book", "friday");
+        assertThrows(JettVarkisException.class, () -> taskList.addDeadline("return book", "friday"));
+
+        taskList.deleteTask(0);
+        taskList.addDeadline("return book", "friday");
+        assertEquals(1, taskList.getTaskCount());
+    }
+
+    @Test
+    public void testFindTasksMatchesSubstrings() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addTodo("read book");
+        taskList.addTodo("write report");
+        taskList.addDeadline("return book", LocalDateTime.of(2025, 8, 27, 14, 0));
+        taskList.getTask(1).get().markAsDone();
+
+        assertEquals(2, taskList.findTasks("OOK").size());
+        assertEquals(1, taskList.findTasks("eport").size());
+        assertEquals(1, taskList.findTasks("[x] write").size());
+        assertEquals(1, taskList.findTasks("aug 27").size());
+        assertEquals(3, taskList.findTasks("e").size());
+    }
+
+    @Test
+    public void testFindTasksStaysConsistentAfterChanges() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addTodo("read book");
+        taskList.addTodo("borrow book");
+        assertEquals(2, taskList.findTasks("book").size());
+
+        taskList.deleteTask(0);
+        taskList.addTodo("return book");
+        List<Task> foundTasks = taskList.findTasks("book");
+        assertEquals(2, foundTasks.size());
+        assertEquals("[T][ ] borrow book", foundTasks.get(0).toString());
+        assertEquals("[T][ ] return book", foundTasks.get(1).toString());
+    }
+
+    @Test
+    public void testFindTasksMatchesFragmentsAfterMarking() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addTodo("write report");
+        taskList.addTodo("export slides");
+        assertEquals(2, taskList.findTasks("port").size());
+
+        taskList.getTask(0).get().markAsDone();
+        assertEquals(1, taskList.findTasks("[x] write").size());
+        assertEquals(1, taskList.findTasks("[ ] export").size());
+        assertEquals(1, taskList.findTasks("e rep").size());
+        assertEquals(0, taskList.findTasks("reports").size());
+    }
+
+    @Test
+    public void testFindIndexBytesTrackChanges() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        assertEquals(0, taskList.getFindIndexBytes());
+        taskList.addTodo("read book");
+        taskList.findTasks("book");
+        long initialBytes = taskList.getFindIndexBytes();
+        assertTrue(initialBytes > 0);
+
+        for (int i = 0; i < 100; i++) {
+            taskList.addTodo("chapter " + i + " of the long book");
+        }
+        assertTrue(taskList.getFindIndexBytes() > initialBytes);
+        assertEquals(101, taskList.findTasks("book").size());
+    }
+
+    @Test
+    public void testFindEventsBetweenReturnsOverlappingEvents() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime nine = LocalDateTime.of(2025, 8, 27, 9, 0);
+        taskList.addEvent("standup", nine, nine.plusMinutes(15));
+        taskList.addEvent("workshop", nine.plusHours(1), nine.plusHours(4));
+        taskList.addEvent("conference", nine.minusDays(1), nine.plusDays(1));
+        taskList.addEvent("offsite", "next week", "the week after");
+        taskList.addTodo("read book");
+
+        List<Task> events = taskList.findEventsBetween(nine.plusMinutes(15), nine.plusHours(2));
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).toString().contains("conference"));
+        assertTrue(events.get(1).toString().contains("workshop"));
+        assertEquals(0, taskList.findEventsBetween(nine.plusDays(1), nine.plusDays(2)).size());
+    }
+
+    @Test
+    public void testFindEventsBetweenStaysConsistentAfterChanges() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2025, 8, 27, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            taskList.addEvent("slot " + i, start.plusHours(i), start.plusHours(i + 2));
+        }
+        assertEquals(3, taskList.findEventsBetween(start.plusHours(10), start.plusHours(11).plusMinutes(30)).size());
+
+        for (int i = 998; i >= 0; i -= 2) {
+            taskList.deleteTask(i);
+        }
+        taskList.addEvent("late slot", start.plusHours(10).plusMinutes(30), start.plusHours(11));
+        List<Task> events = taskList.findEventsBetween(start.plusHours(10), start.plusHours(11).plusMinutes(30));
+        assertEquals(3, events.size());
+        assertTrue(events.get(0).toString().contains("slot 9"));
+        assertTrue(events.get(1).toString().contains("late slot"));
+        assertTrue(events.get(2).toString().contains("slot 11"));
+    }
+
+    @Test
+    public void testAddEventReportsConflictsByPolicy() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime nine = LocalDateTime.of(2025, 8, 27, 9, 0);
+        assertEquals(ConflictPolicy.WARN, taskList.getConflictPolicy());
+        assertTrue(taskList.addEvent("standup", nine, nine.plusMinutes(30)).isEmpty());
+
+        List<Task> conflicts = taskList.addEvent("review", nine.plusMinutes(15), nine.plusHours(1));
+        assertEquals(1, conflicts.size());
+        assertTrue(conflicts.get(0).toString().contains("standup"));
+        assertTrue(taskList.addEvent("lunch", nine.plusHours(1), nine.plusHours(2)).isEmpty());
+
+        taskList.setConflictPolicy(ConflictPolicy.REJECT);
+        JettVarkisException exception = assertThrows(JettVarkisException.class, () ->
+                taskList.addEvent("call", nine.plusMinutes(45), nine.plusHours(3)));
+        assertEquals(JettVarkisException.ErrorType.EVENT_CONFLICT, exception.getErrorType());
+        assertEquals(3, taskList.getTaskCount());
+
+        taskList.setConflictPolicy(ConflictPolicy.ALLOW);
+        assertTrue(taskList.addEvent("call", nine.plusMinutes(45), nine.plusHours(3)).isEmpty());
+        assertEquals(4, taskList.getTaskCount());
+    }
+
+    @Test
+    public void testAddEventRejectsDuplicateBeforeConflict() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime nine = LocalDateTime.of(2025, 8, 27, 9, 0);
+        taskList.setConflictPolicy(ConflictPolicy.REJECT);
+        taskList.addEvent("standup", nine, nine.plusMinutes(30));
+        JettVarkisException exception = assertThrows(JettVarkisException.class, () ->
+                taskList.addEvent("standup", nine, nine.plusMinutes(30)));
+        assertEquals(JettVarkisException.ErrorType.DUPLICATE_TASK, exception.getErrorType());
+    }
+
+    @Test
+    public void testFindUpcomingAndOverdueDeadlines() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime now = LocalDateTime.of(2025, 8, 27, 12, 0);
+        taskList.addDeadline("file taxes", now.minusDays(2));
+        taskList.addDeadline("return book", now.plusDays(3));
+        taskList.addDeadline("pay rent", now.minusHours(1));
+        taskList.addDeadline("submit report", now.plusHours(1));
+        taskList.addDeadline("renew passport", now.plusDays(1));
+        taskList.addDeadline("call plumber", "sometime");
+        taskList.addTodo("read book");
+
+        List<Task> upcoming = taskList.findUpcomingDeadlines(now, 2);
+        assertEquals(2, upcoming.size());
+        assertTrue(upcoming.get(0).toString().contains("submit report"));
+        assertTrue(upcoming.get(1).toString().contains("renew passport"));
+
+        List<Task> overdue = taskList.findOverdueDeadlines(now);
+        assertEquals(2, overdue.size());
+        assertTrue(overdue.get(0).toString().contains("file taxes"));
+        assertTrue(overdue.get(1).toString().contains("pay rent"));
+    }
+
+    @Test
+    public void testFindIndicesAfterRestoringTasksOutOfIdOrder() throws JettVarkisException {
+        Todo older = new Todo("apple pie");
+        Todo newer = new Todo("apple tart");
+        newer.setId(1);
+        TaskList taskList = new TaskList(new ArrayList<>(List.of(older, newer)));
+        assertTrue(taskList.assignMissingIds());
+        assertEquals(2, older.getId());
+        assertEquals(2, taskList.findTaskIndices("apple").cardinality());
+
+        // Restored matches come back in id order, the reverse of list order here
+        taskList.restoreTasks(new int[] {0}, List.of(taskList.deleteTask(0)));
+        BitSet indices = taskList.findTaskIndices("apple");
+        assertEquals(2, indices.cardinality());
+        assertTrue(indices.get(0) && indices.get(1));
+    }
+
+    @Test
+    public void testDeadlineQueriesSkipDoneAndDeletedDeadlines() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime now = LocalDateTime.of(2025, 8, 27, 12, 0);
+        taskList.addDeadline("submit report", now.plusHours(1));
+        taskList.addDeadline("renew passport", now.plusDays(1));
+        taskList.addDeadline("pay rent", now.minusHours(1));
+        assertEquals(2, taskList.findUpcomingDeadlines(now, 5).size());
+
+        taskList.markTask(0);
+        taskList.deleteTask(2);
+        taskList.addDeadline("book flight", now.plusDays(1));
+        List<Task> upcoming = taskList.findUpcomingDeadlines(now, 5);
+        assertEquals(2, upcoming.size());
+        assertTrue(upcoming.get(0).toString().contains("renew passport"));
+        assertTrue(upcoming.get(1).toString().contains("book flight"));
+        assertTrue(taskList.findOverdueDeadlines(now).isEmpty());
+
+        taskList.unmarkTask(0);
+        upcoming = taskList.findUpcomingDeadlines(now, 5);
+        assertEquals(3, upcoming.size());
+        assertTrue(upcoming.get(0).toString().contains("submit report"));
+    }
+
+    @Test
+    public void testRecurringEventsExpandOnlyWithinQueriedRange() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime standup = LocalDateTime.of(2025, 9, 1, 9, 30);
+        taskList.addRecurringEvent("standup", standup, standup.plusMinutes(15),
+                new Recurrence(Recurrence.Frequency.DAILY, LocalDateTime.of(2025, 9, 30, 23, 59)));
+        taskList.addEvent("review", standup.plusDays(2).minusMinutes(30), standup.plusDays(2));
+        assertEquals(2, taskList.getTaskCount());
+
+        List<Task> scheduled = taskList.findEventsBetween(standup.plusDays(1), standup.plusDays(3));
+        assertEquals(3, scheduled.size());
+        assertTrue(scheduled.get(0).toString().contains("Sep 02 2025, 9:30AM"));
+        assertTrue(scheduled.get(1).toString().contains("review"));
+        assertTrue(scheduled.get(2).toString().contains("Sep 03 2025, 9:30AM"));
+        assertTrue(taskList.findEventsBetween(standup.plusMonths(1), standup.plusMonths(2)).isEmpty());
+
+        taskList.setConflictPolicy(ConflictPolicy.REJECT);
+        assertThrows(JettVarkisException.class,
+                () -> taskList.addEvent("call", standup.plusDays(20), standup.plusDays(20).plusHours(1)));
+        taskList.deleteTask(0);
+        taskList.addEvent("call", standup.plusDays(20), standup.plusDays(20).plusHours(1));
+    }
+
+    @Test
+    public void testRecurringDeadlinesAreUpcomingButNeverOverdue() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        LocalDateTime now = LocalDateTime.of(2025, 8, 27, 12, 0);
+        taskList.addDeadline("submit essay", now.plusDays(3));
+        taskList.addRecurringDeadline("water plants", now.minusWeeks(10), new Recurrence(Recurrence.Frequency.WEEKLY));
+        taskList.addDeadline("pay fine", now.minusDays(1));
+
+        List<Task> upcoming = taskList.findUpcomingDeadlines(now, 5);
+        assertEquals(2, upcoming.size());
+        assertTrue(upcoming.get(0).toString().contains("water plants (by: Aug 27 2025, 12:00PM)"));
+        assertTrue(upcoming.get(1).toString().contains("submit essay"));
+        assertEquals(1, taskList.findUpcomingDeadlines(now, 1).size());
+        assertEquals(1, taskList.findOverdueDeadlines(now).size());
+
+        taskList.markTask(1);
+        assertEquals(1, taskList.findUpcomingDeadlines(now, 5).size());
+    }
+
+    @Test
+    public void testTasksAreGivenIncreasingIds() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addTodo("read book");
+        taskList.addDeadline("return book", "2025-08-27");
+        taskList.addTodo("write essay");
+
+        assertEquals(1, taskList.getTask(0).get().getId());
+        assertEquals(2, taskList.getTask(1).get().getId());
+        assertEquals(3, taskList.getTask(2).get().getId());
+        assertEquals("return book", taskList.getTaskById(2).get().getDescription());
+        assertEquals(Optional.empty(), taskList.getTaskById(4));
+
+        taskList.deleteTask(1);
+        taskList.addTodo("return book again");
+
+        assertEquals(Optional.empty(), taskList.getTaskById(2));
+        assertEquals(1, taskList.indexOfId(3));
+        assertEquals(2, taskList.indexOfId(4));
+        assertEquals(-1, taskList.indexOfId(2));
+    }
+
+    @Test
+    public void testAssignMissingIdsFollowsLargestExistingId() throws JettVarkisException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("legacy one"));
+        tasks.add(new Todo("saved with id"));
+        tasks.add(new Todo("legacy two"));
+        tasks.get(1).setId(10);
+        TaskList taskList = new TaskList(tasks);
+
+        assertTrue(taskList.assignMissingIds());
+        assertFalse(taskList.assignMissingIds());
+        assertEquals(11, tasks.get(0).getId());
+        assertEquals(10, tasks.get(1).getId());
+        assertEquals(12, tasks.get(2).getId());
+        // The list is no longer ordered by id, so positions are found by scanning
+        assertEquals(0, taskList.indexOfId(11));
+        assertEquals(2, taskList.indexOfId(12));
+
+        taskList.addTodo("new");
+        assertEquals(13, taskList.getTask(3).get().getId());
+    }
+
+    @Test
+    public void testIdLookupsStayConsistentThroughManyDeletes() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            taskList.addTodo("task " + i);
+        }
+        // Delete every third task, from the back so that earlier indices do not shift
+        for (int i = 1999; i >= 0; i -= 3) {
+            taskList.deleteTask(i);
+        }
+
+        for (long id = 1; id <= 2000; id++) {
+            int index = taskList.indexOfId(id);
+            if ((2000 - id) % 3 == 0) {
+                assertEquals(-1, index);
+                assertFalse(taskList.getTaskById(id).isPresent());
+            } else {
+                assertEquals(id, taskList.getTask(index).get().getId());
+                assertEquals("task " + (id - 1), taskList.getTaskById(id).get().getDescription());
+            }
+        }
+    }
+
+    @Test
+    public void testDeleteTasksRemovesAllInOnePass() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            taskList.addTodo("report " + i);
+        }
+        assertEquals(1000, taskList.findTasks("report").size());
+        BitSet indices = new BitSet();
+        indices.set(100, 900);
+        indices.set(3);
+
+        List<Task> deletedTasks = taskList.deleteTasks(indices);
+
+        assertEquals(801, deletedTasks.size());
+        assertEquals("report 3", deletedTasks.get(0).getDescription());
+        assertEquals("report 100", deletedTasks.get(1).getDescription());
+        assertEquals(199, taskList.getTaskCount());
+        assertEquals("report 4", taskList.getTask(3).get().getDescription());
+        assertEquals("report 900", taskList.getTask(99).get().getDescription());
+        assertEquals(199, taskList.findTasks("report").size());
+        assertEquals(List.of(taskList.getTask(99).get()), taskList.findTasks("report 900"));
+        assertFalse(taskList.getTaskById(101).isPresent());
+        assertEquals(99, taskList.indexOfId(901));
+        // Deleted tasks may be added again
+        taskList.addTodo("report 500");
+        assertEquals(200, taskList.getTaskCount());
+        assertEquals(List.of(), taskList.deleteTasks(new BitSet()));
+    }
+
+    @Test
+    public void testMarkAndUnmarkTasksBySet() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            taskList.addTodo(i % 10 == 0 ? "report " + i : "chore " + i);
+        }
+        BitSet indices = new BitSet();
+        indices.set(20, 30);
+
+        List<Task> markedTasks = taskList.markTasks(indices);
+
+        assertEquals(10, markedTasks.size());
+        assertEquals("chore 21", markedTasks.get(1).getDescription());
+        assertEquals("X", taskList.getTask(29).get().getStatusIcon());
+        assertEquals(" ", taskList.getTask(30).get().getStatusIcon());
+
+        BitSet reports = taskList.findTaskIndices("report");
+        assertEquals(10, reports.cardinality());
+        assertTrue(reports.get(0) && reports.get(90));
+        assertEquals(List.of(taskList.getTask(20).get()), taskList.unmarkTasks(taskList.findTaskIndices("report 20")));
+        assertEquals(" ", taskList.getTask(20).get().getStatusIcon());
+        assertEquals("X", taskList.getTask(21).get().getStatusIcon());
+    }
+
+    @Test
+    public void testDoneStatusColumnStaysInSync() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 200; i++) {
+            taskList.addTodo("task " + i);
+        }
+        BitSet indices = new BitSet();
+        for (int i = 0; i < 200; i += 3) {
+            indices.set(i);
+        }
+        assertEquals(0, taskList.getDoneCount());
+
+        taskList.markTasks(indices);
+        taskList.markTask(64);
+        taskList.unmarkTask(63);
+        assertEquals(67, taskList.getDoneCount());
+
+        // Removing the tasks shifts the statuses of those after them down with the tasks
+        taskList.deleteTask(0);
+        BitSet deleted = new BitSet();
+        deleted.set(10, 130);
+        taskList.deleteTasks(deleted);
+        taskList.addTodo("new task");
+        taskList.markTask(taskList.getTaskCount() - 1);
+
+        BitSet done = taskList.findIndicesByStatus(true);
+        BitSet pending = taskList.findIndicesByStatus(false);
+        assertEquals(taskList.getDoneCount(), done.cardinality());
+        assertEquals(taskList.getTaskCount(), done.cardinality() + pending.cardinality());
+        for (int i = 0; i < taskList.getTaskCount(); i++) {
+            assertEquals(taskList.getTask(i).get().isDone(), done.get(i));
+        }
+    }
+
+    @Test
+    public void testRestoredTasksReturnToTheirPositions() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            taskList.addTodo("task " + i);
+        }
+        taskList.addDeadline("report", LocalDateTime.of(2025, 9, 15, 12, 0));
+        List<Task> before = new ArrayList<>(taskList.getTasks());
+        taskList.markTask(10);
+        TaskSnapshot snapshot = taskList.getSnapshot();
+        BitSet deleted = new BitSet();
+        deleted.set(0);
+        deleted.set(10, 40);
+        deleted.set(100);
+        List<Task> deletedTasks = taskList.deleteTasks(deleted);
+
+        taskList.restoreTasks(deleted.stream().toArray(), deletedTasks);
+        assertEquals(before, taskList.getTasks());
+        assertEquals(before, taskList.getSnapshot());
+        assertEquals(before, snapshot);
+        assertEquals(1, taskList.getDoneCount());
+        assertTrue(taskList.getSnapshot().isDone(10));
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(i, taskList.indexOfId(before.get(i).getId()));
+        }
+        // Restored tasks are found in list order, among the tasks that were never removed
+        List<Task> found = taskList.findTasks("task 1");
+        assertEquals(before.get(1), found.get(0));
+        assertEquals(before.get(10), found.get(1));
+        assertEquals(11, found.size());
+        assertEquals(1, taskList.findUpcomingDeadlines(LocalDateTime.of(2025, 9, 1, 0, 0), 5).size());
+        assertThrows(JettVarkisException.class, () -> taskList.addTodo("task 0"));
+    }
+
+    @Test
+    public void testFindPastDueIndicesIncludesDoneDeadlinesOnly() throws JettVarkisException {
+        LocalDateTime now = LocalDateTime.of(2025, 9, 15, 12, 0);
+        TaskList taskList = new TaskList();
+        taskList.addDeadline("late", now.minusDays(1));
+        taskList.addDeadline("late and done", now.minusDays(2));
+        taskList.addDeadline("on time", now.plusDays(1));
+        taskList.addDeadline("unparsed", "someday");
+        taskList.addTodo("todo");
+        taskList.addRecurringDeadline("rent", now.minusMonths(3), new Recurrence(Recurrence.Frequency.MONTHLY));
+        taskList.markTask(1);
+
+        BitSet pastDue = taskList.findPastDueIndices(now);
+
+        assertEquals(2, pastDue.cardinality());
+        assertTrue(pastDue.get(0) && pastDue.get(1));
+    }
+
+    @Test
+    public void testBulkStatusCommandsUpdateSelectedTasks() throws IOException, JettVarkisException {
+        File file = File.createTempFile("bulk_tasks", ".txt");
+        file.deleteOnExit();
+        Storage storage = new Storage(file.getPath());
+        Ui ui = new Ui();
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 50; i++) {
+            taskList.addTodo(i < 5 ? "report " + i : "chore " + i);
+        }
+
+        Parser.parse("mark 1-10 #50").execute(ui, taskList, storage, null);
+        assertEquals(11, countDone(taskList));
+        Parser.parse("unmark all /find report").execute(ui, taskList, storage, null);
+        assertEquals(6, countDone(taskList));
+        Parser.parse("mark all").execute(ui, taskList, storage, null);
+        assertEquals(50, countDone(taskList));
+        assertEquals(50, countDone(new TaskList(storage.load())));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("mark 40-51").execute(ui, taskList, storage, null));
+        assertThrows(JettVarkisException.class,
+                () -> Parser.parse("unmark all /overdue").execute(ui, taskList, storage, null));
+    }
+
+    private static int countDone(TaskList taskList) {
+        int count = 0;
+        for (Task task : taskList.getTasks()) {
+            count += task.isDone() ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,99 @@
+package jettvarkis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Task;
+
+public class TaskSnapshotTest {
+
+    @Test
+    public void testSnapshotsKeepTheirVersion() throws JettVarkisException {
+        TaskList taskList = new TaskList();
+        taskList.addTodo("first");
+        taskList.addTodo("second");
+        TaskSnapshot before = taskList.getSnapshot();
+        assertSame(before, taskList.getSnapshot());
+
+        taskList.markTask(0);
+        taskList.addTodo("third");
+        taskList.deleteTask(1);
+        TaskSnapshot after = taskList.getSnapshot();
+
+        assertEquals(2, before.size());
+        assertEquals("second", before.get(1).getDescription());
+        assertEquals(0, before.getDoneCount());
+        assertEquals(List.of(taskList.getTask(0).get(), taskList.getTask(1).get()), after);
+        assertEquals(1, after.getDoneCount());
+        assertEquals(true, after.isDone(0));
+        assertEquals(false, before.isDone(0));
+        assertThrows(UnsupportedOperationException.class, () -> after.remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> after.get(2));
+    }
+
+    @Test
+    public void testSnapshotFollowsRandomChangesAcrossTreeLevels() throws JettVarkisException {
+        Random random = new Random(42);
+        TaskList taskList = new TaskList();
+        taskList.getSnapshot();
+        List<TaskSnapshot> versions = new ArrayList<>();
+        List<List<Task>> expectedTasks = new ArrayList<>();
+        List<BitSet> expectedStatuses = new ArrayList<>();
+        int added = 0;
+        for (int round = 0; round < 60; round++) {
+            // Grow past the 32 * 32 tasks a two-level tree holds, then shrink and grow again
+            int adds = round < 40 ? random.nextInt(1500) : random.nextInt(50);
+            for (int i = 0; i < adds; i++) {
+                taskList.addTodo("task " + added++);
+            }
+            int size = taskList.getTaskCount();
+            BitSet indices = new BitSet();
+            for (int i = 0; i < size / 10; i++) {
+                indices.set(random.nextInt(size));
+            }
+            switch (round % 4) {
+            case 0:
+                taskList.markTasks(indices);
+                break;
+            case 1:
+                taskList.unmarkTasks(indices);
+                break;
+            case 2:
+                taskList.markTask(random.nextInt(size));
+                taskList.deleteTask(random.nextInt(size));
+                break;
+            default:
+                taskList.deleteTasks(indices);
+                break;
+            }
+            versions.add(taskList.getSnapshot());
+            expectedTasks.add(new ArrayList<>(taskList.getTasks()));
+            BitSet statuses = new BitSet();
+            for (int i = 0; i < taskList.getTaskCount(); i++) {
+                statuses.set(i, taskList.getTask(i).get().isDone());
+            }
+            expectedStatuses.add(statuses);
+        }
+        for (int v = 0; v < versions.size(); v++) {
+            TaskSnapshot version = versions.get(v);
+            List<Task> tasks = expectedTasks.get(v);
+            assertEquals(tasks, version);
+            for (int i = 0; i < tasks.size(); i++) {
+                assertSame(tasks.get(i), version.get(i));
+            }
+            assertEquals(expectedStatuses.get(v), version.findIndicesByStatus(true));
+            assertEquals(expectedStatuses.get(v).cardinality(), version.getDoneCount());
+            BitSet pending = version.findIndicesByStatus(false);
+            assertEquals(tasks.size() - version.getDoneCount(), pending.cardinality());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package jettvarkis.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jettvarkis.JettVarkis;
+import jettvarkis.TaskList;
+import jettvarkis.command.Command;
+import jettvarkis.command.DeleteCommand;
+import jettvarkis.command.MarkCommand;
+import jettvarkis.command.TodoCommand;
+import jettvarkis.command.UnmarkCommand;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.storage.Storage;
+import jettvarkis.task.Task;
+import jettvarkis.ui.Ui;
+
+public class EditHistoryTest {
+
+    private static final String TEST_FILE_PATH = "/tmp/test_history_tasks.txt";
+    private static final String TEST_JOURNAL_PATH = TEST_FILE_PATH + ".journal";
+
+    private final Ui ui = new Ui();
+    private final EditHistory history = new EditHistory();
+    private Storage storage;
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() throws JettVarkisException {
+        cleanupTestFiles();
+        storage = new Storage(TEST_FILE_PATH, true);
+        taskList = new TaskList(storage.load());
+        for (int i = 0; i < 10; i++) {
+            run(new TodoCommand("task " + i));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cleanupTestFiles();
+    }
+
+    private void cleanupTestFiles() {
+        new File(TEST_FILE_PATH).delete();
+        new File(TEST_JOURNAL_PATH).delete();
+    }
+
+    private void run(Command command) throws JettVarkisException {
+        command.execute(ui, taskList, storage, null);
+        command.getEdit().ifPresent(history::record);
+    }
+
+    private void assertSavedAs(List<Task> expected) throws JettVarkisException {
+        assertEquals(expected, taskList.getTasks());
+        List<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+        assertEquals(expected.size(), loadedTasks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toFileString(), loadedTasks.get(i).toFileString());
+        }
+    }
+
+    @Test
+    public void testUndoAndRedoDelete() throws JettVarkisException {
+        List<Task> before = new ArrayList<>(taskList.getTasks());
+        run(new DeleteCommand(new int[] {0}, new int[] {3, 6}, new long[] {before.get(9).getId()}));
+        List<Task> afterDelete = new ArrayList<>(taskList.getTasks());
+        assertEquals(4, afterDelete.size());
+
+        assertEquals("the deletion of 6 tasks", history.undo(taskList, storage).getDescription());
+        assertSavedAs(before);
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(i, taskList.indexOfId(before.get(i).getId()));
+        }
+
+        history.redo(taskList, storage);
+        assertSavedAs(afterDelete);
+    }
+
+    @Test
+    public void testUndoMarkRestoresEarlierStatuses() throws JettVarkisException {
+        run(new MarkCommand(2));
+        run(new MarkCommand(new int[0], new int[] {0, 4}, new long[0]));
+        run(new UnmarkCommand(4));
+
+        history.undo(taskList, storage);
+        assertTrue(taskList.getTask(4).get().isDone());
+        // The task at index 2 was already done, so undoing the second mark leaves it done
+        history.undo(taskList, storage);
+        assertEquals(1, taskList.getDoneCount());
+        assertTrue(taskList.getTask(2).get().isDone());
+        assertSavedAs(new ArrayList<>(taskList.getTasks()));
+
+        history.redo(taskList, storage);
+        assertEquals(5, taskList.getDoneCount());
+        assertSavedAs(new ArrayList<>(taskList.getTasks()));
+    }
+
+    @Test
+    public void testUndoAndRedoAdd() throws JettVarkisException {
+        List<Task> before = new ArrayList<>(taskList.getTasks());
+        run(new TodoCommand("extra"));
+        Task extra = taskList.getTask(10).get();
+
+        history.undo(taskList, storage);
+        assertSavedAs(before);
+        assertTrue(taskList.findTasks("extra").isEmpty());
+
+        history.redo(taskList, storage);
+        assertEquals(extra.getId(), taskList.getTask(10).get().getId());
+        assertEquals(List.of(extra), taskList.findTasks("extra"));
+        assertSavedAs(new ArrayList<>(taskList.getTasks()));
+    }
+
+    @Test
+    public void testFailedCommandClearsHistory() throws JettVarkisException {
+        cleanupTestFiles();
+        JettVarkis jettVarkis = new JettVarkis(TEST_FILE_PATH);
+        try {
+            jettVarkis.getResponse("todo read book");
+            assertEquals(1, jettVarkis.getEditHistory().getUndoCount());
+            jettVarkis.getResponse("delete 1 5");
+            assertEquals(0, jettVarkis.getEditHistory().getUndoCount());
+        } finally {
+            jettVarkis.close();
+        }
+    }
+
+    @Test
+    public void testNewEditClearsRedoAndHistoryIsBounded() throws JettVarkisException {
+        EditHistory bounded = new EditHistory(3);
+        for (int i = 0; i < 5; i++) {
+            bounded.record(new StatusEdit(new BitSet(), true));
+        }
+        assertEquals(3, bounded.getUndoCount());
+
+        history.undo(taskList, storage);
+        run(new TodoCommand("replacement"));
+        assertEquals(JettVarkisException.ErrorType.NOTHING_TO_REDO,
+                assertThrows(JettVarkisException.class, () -> history.redo(taskList, storage)).getErrorType());
+        for (int i = 0; i < 10; i++) {
+            history.undo(taskList, storage);
+        }
+        assertEquals(0, taskList.getTaskCount());
+        assertEquals(JettVarkisException.ErrorType.NOTHING_TO_UNDO,
+                assertThrows(JettVarkisException.class, () -> history.undo(taskList, storage)).getErrorType());
+        assertFalse(new UnmarkCommand(0).getEdit().isPresent());
+    }
+}
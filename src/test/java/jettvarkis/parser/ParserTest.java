@@ -1,13 +1,18 @@
 package jettvarkis.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
 
 import jettvarkis.command.ByeCommand;
 import jettvarkis.command.Command;
+import jettvarkis.command.ConflictsCommand;
 import jettvarkis.command.DeadlineCommand;
 import jettvarkis.command.DeleteCommand;
 import jettvarkis.command.EventCommand;
@@ -15,11 +20,20 @@ import jettvarkis.command.FindCommand;
 import jettvarkis.command.HelpCommand;
 import jettvarkis.command.ListCommand;
 import jettvarkis.command.MarkCommand;
+import jettvarkis.command.OverdueCommand;
+import jettvarkis.command.RedoCommand;
+import jettvarkis.command.ScheduleCommand;
+import jettvarkis.command.StatsCommand;
 import jettvarkis.command.TodoCommand;
+import jettvarkis.command.UndoCommand;
 import jettvarkis.command.UnmarkCommand;
+import jettvarkis.command.UpcomingCommand;
 import jettvarkis.exception.JettVarkisException;
 import jettvarkis.task.Deadline;
 import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
 import jettvarkis.task.Task;
 import jettvarkis.task.Todo;
 
@@ -162,6 +176,69 @@ public class ParserTest {
         assertTrue(command instanceof DeleteCommand);
     }
 
+    @Test
+    public void testParseTaskIdReferences() throws JettVarkisException {
+        assertTrue(Parser.parse("mark #42") instanceof MarkCommand);
+        assertTrue(Parser.parse("unmark 1 #42") instanceof UnmarkCommand);
+        assertTrue(Parser.parse("delete #7 2 #9") instanceof DeleteCommand);
+        assertThrows(JettVarkisException.class, () -> Parser.parse("mark #"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("mark #0"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete #abc"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("unmark #99999999999999999999"));
+    }
+
+    @Test
+    public void testParseTaskRanges() throws JettVarkisException {
+        assertTrue(Parser.parse("delete 100-5000") instanceof DeleteCommand);
+        assertTrue(Parser.parse("delete 1 3-4 #9") instanceof DeleteCommand);
+        assertTrue(Parser.parse("mark 2-2") instanceof MarkCommand);
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete 0-5"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete 5-3"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete 1-"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete 1-99999999999"));
+    }
+
+    @Test
+    public void testParseTaskSelections() throws JettVarkisException {
+        assertTrue(Parser.parse("mark all") instanceof MarkCommand);
+        assertTrue(Parser.parse("mark all /find weekly report") instanceof MarkCommand);
+        assertTrue(Parser.parse("unmark all /overdue") instanceof UnmarkCommand);
+        assertEquals(JettVarkisException.ErrorType.INVALID_TASK_SELECTION,
+                assertThrows(JettVarkisException.class, () -> Parser.parse("mark all /done")).getErrorType());
+        assertEquals(JettVarkisException.ErrorType.EMPTY_FIND_KEYWORD,
+                assertThrows(JettVarkisException.class, () -> Parser.parse("unmark all /find")).getErrorType());
+        assertThrows(JettVarkisException.class, () -> Parser.parse("delete all"));
+    }
+
+    @Test
+    public void testParseListFilters() throws JettVarkisException {
+        assertTrue(Parser.parse("list done") instanceof ListCommand);
+        assertTrue(Parser.parse("list   pending ") instanceof ListCommand);
+        assertEquals(JettVarkisException.ErrorType.INVALID_LIST_FILTER,
+                assertThrows(JettVarkisException.class, () -> Parser.parse("list finished")).getErrorType());
+    }
+
+    @Test
+    public void testParseUndoAndRedo() throws JettVarkisException {
+        assertTrue(Parser.parse("undo") instanceof UndoCommand);
+        assertTrue(Parser.parse(" redo ") instanceof RedoCommand);
+        assertFalse(Parser.parse("undo").isReadOnly());
+    }
+
+    @Test
+    public void testParseStats() throws JettVarkisException {
+        assertTrue(Parser.parse("stats") instanceof StatsCommand);
+        assertTrue(Parser.parse("stats").isReadOnly());
+    }
+
+    @Test
+    public void testLoadedTasksShareRepeatedStrings() throws JettVarkisException {
+        Deadline first = (Deadline) Parser.parseFileLine("D | 0 | review PR | after lunch");
+        Deadline second = (Deadline) Parser.parseFileLine("D | 1 | review PR | after lunch");
+        assertSame(first.getDescription(), second.getDescription());
+        assertSame(first.getOriginalBy(), second.getOriginalBy());
+    }
+
     @Test
     public void testParseFindCommand() throws JettVarkisException {
         Command command = Parser.parse("find book");
@@ -180,6 +257,88 @@ public class ParserTest {
         assertThrows(JettVarkisException.class, () -> Parser.parse("find   "));
     }
 
+    @Test
+    public void testParseScheduleCommand() throws JettVarkisException {
+        Command command = Parser.parse("schedule /from 2025-08-27 0900 /to 2025-08-27 1800");
+        assertTrue(command instanceof ScheduleCommand);
+        assertTrue(Parser.parse("schedule /from 27/8/2025 /to 28/8/2025") instanceof ScheduleCommand);
+    }
+
+    @Test
+    public void testParseScheduleCommandInvalidRange() {
+        assertThrows(JettVarkisException.class, () -> Parser.parse("schedule"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("schedule /from 2025-08-27"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("schedule /to 2025-08-27"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("schedule /from tomorrow /to friday"));
+        assertThrows(JettVarkisException.class, () ->
+            Parser.parse("schedule /from 2025-08-27 1800 /to 2025-08-27 0900"));
+    }
+
+    @Test
+    public void testParseConflictsCommand() throws JettVarkisException {
+        assertTrue(Parser.parse("conflicts warn") instanceof ConflictsCommand);
+        assertTrue(Parser.parse("conflicts REJECT") instanceof ConflictsCommand);
+        assertThrows(JettVarkisException.class, () -> Parser.parse("conflicts"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("conflicts sometimes"));
+    }
+
+    @Test
+    public void testParseDeadlineQueryCommands() throws JettVarkisException {
+        assertTrue(Parser.parse("upcoming") instanceof UpcomingCommand);
+        assertTrue(Parser.parse("upcoming 10") instanceof UpcomingCommand);
+        assertTrue(Parser.parse("overdue") instanceof OverdueCommand);
+        assertThrows(JettVarkisException.class, () -> Parser.parse("upcoming 0"));
+        assertThrows(JettVarkisException.class, () -> Parser.parse("upcoming soon"));
+    }
+
+    @Test
+    public void testParseRecurringCommands() throws JettVarkisException {
+        assertTrue(Parser.parse("deadline rent /by 1/9/2025 /every month") instanceof DeadlineCommand);
+        assertTrue(Parser.parse("event standup /from 1/9/2025 0930 /to 1/9/2025 0945 /every week /until 1/12/2025")
+                instanceof EventCommand);
+        assertEquals(JettVarkisException.ErrorType.INVALID_RECURRENCE, assertThrows(JettVarkisException.class,
+                () -> Parser.parse("deadline rent /by 1/9/2025 /every year")).getErrorType());
+        assertEquals(JettVarkisException.ErrorType.INVALID_RECURRENCE, assertThrows(JettVarkisException.class,
+                () -> Parser.parse("deadline rent /by 1/9/2025 /every day /until 1/8/2025")).getErrorType());
+        assertEquals(JettVarkisException.ErrorType.UNPARSED_RECURRENCE_DATE, assertThrows(JettVarkisException.class,
+                () -> Parser.parse("event standup /from mon /to tue /every week")).getErrorType());
+    }
+
+    @Test
+    public void testParseRecurringFileLines() throws JettVarkisException {
+        Task deadline = Parser.parseFileLine("D | 1 | rent | 2025-09-01T09:00 | every month until 2025-12-01T23:59");
+        assertTrue(deadline instanceof RecurringDeadline);
+        assertEquals("X", deadline.getStatusIcon());
+        assertEquals(new Recurrence(Recurrence.Frequency.MONTHLY, LocalDateTime.of(2025, 12, 1, 23, 59)),
+                ((RecurringDeadline) deadline).getRecurrence());
+
+        Task event = Parser.parseFileLine("E | 0 | standup | 2025-09-01T09:30 | 2025-09-01T09:45 | every week");
+        assertTrue(event instanceof RecurringEvent);
+        assertEquals(event, Parser.parseFileLine(event.toFileString()));
+        assertThrows(JettVarkisException.class,
+                () -> Parser.parseFileLine("D | 0 | rent | someday | every month"));
+        assertThrows(JettVarkisException.class,
+                () -> Parser.parseFileLine("D | 0 | rent | 2025-09-01T09:00 | every year"));
+    }
+
+    @Test
+    public void testParseFileLineReadsSavedDates() throws JettVarkisException {
+        Deadline deadline = new Deadline("report", LocalDateTime.of(2025, 8, 27, 14, 0));
+        assertEquals(deadline, Parser.parseFileLine(deadline.toFileString()));
+    }
+
+    @Test
+    public void testParseFileLineWithId() throws JettVarkisException {
+        Task task = Parser.parseFileLine("42 | D | 1 | return book | 2025-08-27");
+        assertTrue(task instanceof Deadline);
+        assertEquals(42, task.getId());
+        assertEquals("X", task.getStatusIcon());
+        assertTrue(task.toFileString().startsWith("42 | D | 1 | "));
+        assertEquals(42, Parser.parseFileLine(task.toFileString()).getId());
+        assertFalse(Parser.parseFileLine("T | 0 | 42").hasId());
+        assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("0 | T | 0 | read book"));
+    }
+
     @Test
     public void testParseUnknownCommand() {
         assertThrows(JettVarkisException.class, () -> Parser.parse("unknown"));
@@ -230,8 +389,8 @@ public class ParserTest {
 
     @Test
     public void testParseFileLineCorrupted() {
-        assertThrows(AssertionError.class, () -> Parser.parseFileLine("Invalid format"));
-        assertThrows(AssertionError.class, () -> Parser.parseFileLine("T | 0"));
+        assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("Invalid format"));
+        assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("T | 0"));
         assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("D | 0 | task"));
         assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("E | 0 | task | from"));
     }
@@ -257,8 +416,8 @@ public class ParserTest {
 
     @Test
     public void testParseFileLineEmpty() {
-        assertThrows(AssertionError.class, () -> Parser.parseFileLine(""));
-        assertThrows(AssertionError.class, () -> Parser.parseFileLine("   "));
+        assertThrows(JettVarkisException.class, () -> Parser.parseFileLine(""));
+        assertThrows(JettVarkisException.class, () -> Parser.parseFileLine("   "));
     }
 
     @Test
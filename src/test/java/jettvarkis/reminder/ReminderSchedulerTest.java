@@ -0,0 +1,128 @@
+package jettvarkis.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.Task;
+
+public class ReminderSchedulerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 8, 27, 9, 0);
+
+    @Test
+    public void testRemindersFireAheadOfDeadlinesAndEvents() throws JettVarkisException {
+        ManualClock clock = new ManualClock();
+        List<Task> reminded = new ArrayList<>();
+        ReminderScheduler reminders = new ReminderScheduler(reminded::add, Duration.ofMinutes(15), 1000, clock);
+        TaskList taskList = new TaskList();
+        taskList.setReminderScheduler(reminders);
+        taskList.addDeadline("submit report", START.plusHours(1));
+        taskList.addEvent("standup", START.plusMinutes(30), START.plusMinutes(45));
+        taskList.addTodo("read book");
+        taskList.addDeadline("file taxes", "someday");
+        assertEquals(2, reminders.getPendingCount());
+
+        clock.advance(Duration.ofMinutes(14));
+        reminders.fireDueReminders();
+        assertTrue(reminded.isEmpty());
+
+        clock.advance(Duration.ofMinutes(1));
+        reminders.fireDueReminders();
+        assertEquals(1, reminded.size());
+        assertTrue(reminded.get(0).toString().contains("standup"));
+
+        clock.advance(Duration.ofMinutes(30));
+        reminders.fireDueReminders();
+        assertEquals(2, reminded.size());
+        assertTrue(reminded.get(1).toString().contains("submit report"));
+        assertEquals(0, reminders.getPendingCount());
+    }
+
+    @Test
+    public void testMarkingAndDeletingCancelReminders() throws JettVarkisException {
+        ManualClock clock = new ManualClock();
+        List<Task> reminded = new ArrayList<>();
+        ReminderScheduler reminders = new ReminderScheduler(reminded::add, Duration.ZERO, 1000, clock);
+        TaskList taskList = new TaskList();
+        taskList.addDeadline("submit report", START.plusHours(1));
+        taskList.addDeadline("return book", START.plusHours(2));
+        taskList.addDeadline("pay rent", START.plusHours(3));
+        taskList.addDeadline("file taxes", START.minusHours(1));
+        taskList.setReminderScheduler(reminders);
+        assertEquals(3, reminders.getPendingCount());
+
+        taskList.markTask(0);
+        taskList.deleteTask(1);
+        assertEquals(1, reminders.getPendingCount());
+        taskList.unmarkTask(0);
+        assertEquals(2, reminders.getPendingCount());
+
+        clock.advance(Duration.ofHours(4));
+        reminders.fireDueReminders();
+        assertEquals(2, reminded.size());
+        assertTrue(reminded.get(0).toString().contains("submit report"));
+        assertTrue(reminded.get(1).toString().contains("pay rent"));
+    }
+
+    @Test
+    public void testRecurringReminderMovesOnToNextOccurrence() throws JettVarkisException {
+        ManualClock clock = new ManualClock();
+        List<Task> reminded = new ArrayList<>();
+        ReminderScheduler reminders = new ReminderScheduler(reminded::add, Duration.ofMinutes(15), 1000, clock);
+        TaskList taskList = new TaskList();
+        taskList.setReminderScheduler(reminders);
+        LocalDateTime firstStandup = START.minusDays(7).plusHours(1);
+        taskList.addRecurringEvent("standup", firstStandup, firstStandup.plusMinutes(15),
+                new Recurrence(Recurrence.Frequency.DAILY, START.plusDays(2)));
+        assertEquals(1, reminders.getPendingCount());
+
+        for (int day = 0; day < 3; day++) {
+            clock.advance(Duration.ofDays(1));
+            reminders.fireDueReminders();
+        }
+        assertEquals(2, reminded.size());
+        assertTrue(reminded.get(0).toString().contains("Aug 27 2025, 10:00AM"));
+        assertTrue(reminded.get(1).toString().contains("Aug 28 2025, 10:00AM"));
+        assertEquals(0, reminders.getPendingCount());
+    }
+
+    /**
+     * A clock that only moves when told to, starting at START in UTC.
+     */
+    private static class ManualClock extends Clock {
+        private Instant now = START.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
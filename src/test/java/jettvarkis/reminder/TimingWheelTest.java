@@ -0,0 +1,70 @@
+package jettvarkis.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testTimeoutsExpireOnTheirTickAcrossLevels() {
+        long startTick = 1_700_000_003L;
+        TimingWheel<Long> wheel = new TimingWheel<>(startTick);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // Spread the delays over several levels of the wheel
+            long delay = 1 + (long) Math.pow(2, random.nextDouble() * 20);
+            deadlines.add(startTick + delay);
+            wheel.schedule(startTick + delay, startTick + delay);
+        }
+        assertEquals(2000, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        long lastDeadline = deadlines.stream().mapToLong(Long::longValue).max().getAsLong();
+        for (long tick = startTick + 1; tick <= lastDeadline; tick += 1 + random.nextInt(100)) {
+            long currentTick = tick;
+            wheel.advanceTo(tick, deadline -> {
+                assertTrue(deadline <= currentTick);
+                expired.add(deadline);
+            });
+        }
+        wheel.advanceTo(lastDeadline, expired::add);
+
+        deadlines.sort(null);
+        assertEquals(deadlines, expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancelledTimeoutsNeverExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timeout<String> soon = wheel.schedule("soon", 10);
+        TimingWheel.Timeout<String> later = wheel.schedule("later", 100_000);
+        wheel.schedule("kept", 5000);
+
+        assertTrue(wheel.cancel(soon));
+        assertTrue(wheel.cancel(later));
+        assertFalse(wheel.cancel(later));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(200_000, expired::add);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule("late", 100);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(501, expired::add);
+        assertEquals(List.of("late"), expired);
+    }
+}
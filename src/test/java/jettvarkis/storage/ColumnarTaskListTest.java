@@ -0,0 +1,164 @@
+package jettvarkis.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import jettvarkis.TaskList;
+import jettvarkis.exception.JettVarkisException;
+import jettvarkis.task.Deadline;
+import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
+import jettvarkis.task.Task;
+import jettvarkis.task.Todo;
+
+public class ColumnarTaskListTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 9, 15, 14, 30);
+
+    private static List<Task> createEveryKindOfTask() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read a book"));
+        tasks.add(new Todo("café ☕ with | pipes"));
+        tasks.add(new Deadline("submit report", TIME));
+        tasks.add(new Deadline("return book", "next Monday"));
+        tasks.add(new Event("team meeting", TIME, TIME.plusHours(2)));
+        tasks.add(new Event("holiday", "summer", "autumn"));
+        tasks.add(new RecurringDeadline("pay rent", TIME, new Recurrence(Recurrence.Frequency.MONTHLY)));
+        tasks.add(new RecurringEvent("stand-up", TIME, TIME.plusMinutes(15),
+                new Recurrence(Recurrence.Frequency.WEEKLY, TIME.plusWeeks(10))));
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId(i + 1);
+            if (i % 3 == 0) {
+                tasks.get(i).markAsDone();
+            }
+        }
+        return tasks;
+    }
+
+    private static void assertSameTasks(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).toFileString(), actual.get(i).toFileString());
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testEveryKindOfTaskIsStoredExactly() {
+        List<Task> tasks = createEveryKindOfTask();
+        ColumnarTaskList columnar = new ColumnarTaskList(tasks);
+
+        assertSameTasks(tasks, columnar);
+        assertNotSame(tasks.get(0), columnar.get(0));
+        assertSame(columnar.get(0), columnar.get(0));
+        assertTrue(columnar.getOffHeapBytes() > 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> columnar.get(tasks.size()));
+    }
+
+    @Test
+    public void testRandomChangesMatchArrayList() {
+        Random random = new Random(7);
+        List<Task> kinds = createEveryKindOfTask();
+        List<Task> expected = new ArrayList<>();
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        for (int round = 0; round < 5000; round++) {
+            Task task = new Todo("task " + round + " " + "x".repeat(random.nextInt(100)));
+            if (round % 7 == 0) {
+                task = kinds.get(random.nextInt(kinds.size()));
+            }
+            int operation = expected.isEmpty() ? 0 : random.nextInt(5);
+            int index = expected.isEmpty() ? 0 : random.nextInt(expected.size());
+            switch (operation) {
+            case 0:
+                expected.add(index, task);
+                columnar.add(index, task);
+                break;
+            case 1:
+                assertSame(columnar.get(index), columnar.remove(index));
+                expected.remove(index);
+                break;
+            case 2:
+                int to = Math.min(expected.size(), index + random.nextInt(5));
+                expected.subList(index, to).clear();
+                columnar.subList(index, to).clear();
+                break;
+            case 3:
+                // Moving a task that was just read reuses its record
+                int other = random.nextInt(expected.size());
+                expected.set(index, expected.get(other));
+                columnar.set(index, columnar.get(other));
+                break;
+            default:
+                expected.add(task);
+                columnar.add(task);
+                break;
+            }
+        }
+        assertSameTasks(expected, columnar);
+        // Thousands of replaced records have been reclaimed as the text buffer filled up
+        assertTrue(columnar.getOffHeapBytes() < 64 * 1024 + 2L * expected.size() * 120, "Text was not compacted");
+    }
+
+    @Test
+    public void testTaskListOnColumnarTasks() throws JettVarkisException {
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        TaskList taskList = new TaskList(columnar);
+        for (int i = 0; i < 100; i++) {
+            taskList.addTodo("chore " + i);
+        }
+        taskList.addDeadline("report", TIME);
+        BitSet indices = new BitSet();
+        indices.set(5, 50);
+        taskList.markTasks(indices);
+        taskList.unmarkTask(10);
+        taskList.deleteTask(0);
+        List<Task> deleted = taskList.deleteTasks(indices);
+
+        assertEquals(55, taskList.getTaskCount());
+        assertEquals(1, taskList.getDoneCount());
+        assertEquals(1, taskList.findUpcomingDeadlines(TIME.minusDays(1), 5).size());
+        taskList.restoreTasks(indices.stream().toArray(), deleted);
+        assertEquals(44, taskList.getDoneCount());
+        assertEquals(taskList.getTask(7).get(), taskList.getTaskById(taskList.getTask(7).get().getId()).get());
+        assertEquals(11, taskList.findTaskIndices("chore 1").cardinality());
+    }
+
+    private static void markSecondTask(ColumnarTaskList columnar) throws JettVarkisException {
+        TaskList taskList = new TaskList(columnar);
+        assertTrue(taskList.assignMissingIds());
+        taskList.markTask(1);
+    }
+
+    @Test
+    public void testChangesOutliveCollectedTasks() throws JettVarkisException {
+        ColumnarTaskList columnar = new ColumnarTaskList(List.of(new Todo("first"), new Todo("second")));
+        markSecondTask(columnar);
+        WeakReference<Task> marked = new WeakReference<>(columnar.get(1));
+        columnar.get(0);
+        for (int i = 0; i < 50 && marked.get() != null; i++) {
+            System.gc();
+        }
+        assertEquals(null, marked.get(), "Nothing but the list should hold the marked task");
+
+        // Built again from its row, the task keeps its status and the id it was given
+        Task task = columnar.get(1);
+        assertTrue(task.isDone());
+        assertEquals(2, task.getId());
+        assertEquals("second", task.getDescription());
+    }
+}
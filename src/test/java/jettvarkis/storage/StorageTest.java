@@ -9,16 +9,28 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import jettvarkis.TaskList;
 import jettvarkis.exception.JettVarkisException;
+import jettvarkis.reminder.ReminderScheduler;
 import jettvarkis.task.Deadline;
 import jettvarkis.task.Event;
+import jettvarkis.task.Recurrence;
+import jettvarkis.task.RecurringDeadline;
+import jettvarkis.task.RecurringEvent;
 import jettvarkis.task.Task;
 import jettvarkis.task.Todo;
 import jettvarkis.trivia.Trivia;
@@ -27,6 +39,9 @@ import jettvarkis.trivia.TriviaList;
 public class StorageTest {
 
     private static final String TEST_FILE_PATH = "/tmp/test_tasks.txt";
+    private static final String TEST_JOURNAL_PATH = TEST_FILE_PATH + ".journal";
+    private static final String TEST_COMPACTING_PATH = TEST_JOURNAL_PATH + ".compacting";
+    private static final String TEST_TEMP_PATH = TEST_FILE_PATH + ".tmp";
     private static final String TEST_TRIVIA_DIR = "/tmp/test_trivia";
     private Storage storage;
 
@@ -46,6 +61,9 @@ public class StorageTest {
         if (testFile.exists()) {
             testFile.delete();
         }
+        new File(TEST_JOURNAL_PATH).delete();
+        new File(TEST_COMPACTING_PATH).delete();
+        new File(TEST_TEMP_PATH).delete();
         File testDir = new File(TEST_TRIVIA_DIR);
         if (testDir.exists()) {
             deleteDirectory(testDir);
@@ -138,8 +156,8 @@ public class StorageTest {
             writer.write("Another invalid line\n");
         }
 
-        // This should cause AssertionError due to Parser assertions
-        assertThrows(AssertionError.class, () -> storage.load());
+        JettVarkisException e = assertThrows(JettVarkisException.class, () -> storage.load());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR, e.getErrorType());
     }
 
     @Test
@@ -194,6 +212,653 @@ public class StorageTest {
         assertEquals(longDescription.toString(), loadedTasks.get(0).getDescription());
     }
 
+    @Test
+    public void testSaveLeavesNoTempFile() throws JettVarkisException {
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            Storage policyStorage = new Storage(TEST_FILE_PATH, false, policy);
+            ArrayList<Task> tasksToSave = new ArrayList<>();
+            tasksToSave.add(new Todo("saved with " + policy));
+
+            policyStorage.save(tasksToSave);
+
+            assertFalse(new File(TEST_TEMP_PATH).exists());
+            assertEquals("saved with " + policy, policyStorage.load().get(0).getDescription());
+        }
+    }
+
+    @Test
+    public void testFailedSaveKeepsPreviousFile() throws JettVarkisException {
+        ArrayList<Task> tasksToSave = new ArrayList<>();
+        tasksToSave.add(new Todo("original"));
+        storage.save(tasksToSave);
+
+        // A directory in place of the temp file makes the write fail before the rename
+        File blockedTemp = new File(TEST_TEMP_PATH);
+        blockedTemp.mkdirs();
+        tasksToSave.add(new Todo("never written"));
+        assertThrows(JettVarkisException.class, () -> storage.save(tasksToSave));
+        blockedTemp.delete();
+
+        ArrayList<Task> loadedTasks = storage.load();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("original", loadedTasks.get(0).getDescription());
+    }
+
+    @Test
+    public void testLoadDeletesOrphanedTempFile() throws IOException, JettVarkisException {
+        writeFile(TEST_FILE_PATH, "T | 0 | committed\n");
+        writeFile(TEST_TEMP_PATH, "T | 0 | committ");
+
+        ArrayList<Task> loadedTasks = storage.load();
+
+        assertEquals(1, loadedTasks.size());
+        assertEquals("committed", loadedTasks.get(0).getDescription());
+        assertFalse(new File(TEST_TEMP_PATH).exists());
+    }
+
+    @Test
+    public void testJournaledMutationsAreReplayedOnLoad() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+
+        Todo first = new Todo("first");
+        tasks.add(first);
+        journaled.saveAdd(tasks, first);
+        Todo second = new Todo("second");
+        tasks.add(second);
+        journaled.saveAdd(tasks, second);
+        Todo third = new Todo("third");
+        tasks.add(third);
+        journaled.saveAdd(tasks, third);
+        tasks.get(2).markAsDone();
+        journaled.saveMark(tasks, 2);
+        tasks.remove(0);
+        journaled.saveDelete(tasks, 0);
+
+        assertEquals(0, new File(TEST_FILE_PATH).length());
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("second", loadedTasks.get(0).getDescription());
+        assertEquals("X", loadedTasks.get(1).getStatusIcon());
+    }
+
+    @Test
+    public void testJournaledSaveClearsJournal() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        Todo todo = new Todo("snapshot me");
+        tasks.add(todo);
+        journaled.saveAdd(tasks, todo);
+        assertTrue(new File(TEST_JOURNAL_PATH).exists());
+
+        journaled.save(tasks);
+
+        assertFalse(new TaskJournal(TEST_JOURNAL_PATH, FsyncPolicy.NEVER).hasRecords());
+        assertEquals(1, new Storage(TEST_FILE_PATH, true).load().size());
+    }
+
+    @Test
+    public void testCompactJournalFoldsRecordsIntoSnapshot() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        Todo todo = new Todo("compact me");
+        tasks.add(todo);
+        journaled.saveAdd(tasks, todo);
+
+        assertTrue(journaled.compactJournal());
+
+        assertFalse(new TaskJournal(TEST_JOURNAL_PATH, FsyncPolicy.NEVER).hasRecords());
+        assertFalse(new File(TEST_COMPACTING_PATH).exists());
+        assertFalse(journaled.compactJournal());
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("compact me", loadedTasks.get(0).getDescription());
+    }
+
+    @Test
+    public void testLoadReplaysInterruptedCompaction() throws IOException, JettVarkisException {
+        writeFile(TEST_FILE_PATH, "T | 0 | a\n");
+        writeFile(TEST_COMPACTING_PATH, "# base 0\nADD | T | 0 | b\n");
+        writeFile(TEST_JOURNAL_PATH, "# base 1\nADD | T | 0 | c\n");
+
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+
+        assertEquals(3, loadedTasks.size());
+        assertEquals("b", loadedTasks.get(1).getDescription());
+        assertEquals("c", loadedTasks.get(2).getDescription());
+    }
+
+    @Test
+    public void testLoadIgnoresAlreadyCompactedJournal() throws IOException, JettVarkisException {
+        writeFile(TEST_FILE_PATH, "# generation 1\nT | 0 | a\nT | 0 | b\n");
+        writeFile(TEST_COMPACTING_PATH, "# base 0\nADD | T | 0 | b\n");
+        writeFile(TEST_JOURNAL_PATH, "# base 1\nADD | T | 0 | c\n");
+
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+
+        assertEquals(3, loadedTasks.size());
+        assertEquals("c", loadedTasks.get(2).getDescription());
+        assertFalse(new File(TEST_COMPACTING_PATH).exists());
+    }
+
+    @Test
+    public void testBackgroundCompactionRecordsDuration() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        journaled.startCompaction(1, 60_000);
+        Todo todo = new Todo("background");
+        tasks.add(todo);
+        journaled.saveAdd(tasks, todo);
+        journaled.close();
+
+        JournalCompactor compactor = journaled.getCompactor().get();
+        assertTrue(compactor.getCompactionCount() >= 1);
+        assertTrue(compactor.getLastDurationMillis() >= 0);
+        assertEquals(1, new Storage(TEST_FILE_PATH, true).load().size());
+    }
+
+    private void writeFile(String path, String content) throws IOException {
+        new File(path).getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(path)) {
+            writer.write(content);
+        }
+    }
+
+    @Test
+    public void testJournalIgnoresTornTrailingRecord() throws IOException, JettVarkisException {
+        new File(TEST_FILE_PATH).getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(TEST_JOURNAL_PATH)) {
+            writer.write("ADD | T | 0 | complete record\n");
+            writer.write("ADD | T | 0 | torn rec");
+        }
+
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> loadedTasks = journaled.load();
+
+        assertEquals(1, loadedTasks.size());
+        assertEquals("complete record", loadedTasks.get(0).getDescription());
+
+        // A record appended after the torn one must not be glued onto it
+        Todo todo = new Todo("two");
+        loadedTasks.add(todo);
+        journaled.saveAdd(loadedTasks, todo);
+        ArrayList<Task> reloadedTasks = new Storage(TEST_FILE_PATH, true).load();
+        assertEquals(2, reloadedTasks.size());
+        assertEquals("two", reloadedTasks.get(1).getDescription());
+    }
+
+    @Test
+    public void testJournalAddWithTooFewFieldsIsCorrupted() throws IOException {
+        writeFile(TEST_JOURNAL_PATH, "ADD | T | 0\n");
+
+        JettVarkisException exception = assertThrows(JettVarkisException.class,
+                () -> new Storage(TEST_FILE_PATH, true).load());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR, exception.getErrorType());
+    }
+
+    @Test
+    public void testJournalWithInvalidIndexIsCorrupted() throws IOException {
+        new File(TEST_FILE_PATH).getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(TEST_JOURNAL_PATH)) {
+            writer.write("MARK | 5\n");
+        }
+
+        assertThrows(JettVarkisException.class, () -> new Storage(TEST_FILE_PATH, true).load());
+    }
+
+    @Test
+    public void testWriteBehindRecordsAreDurableAfterFlush() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        journaled.startWriteBehind();
+
+        Todo todo = new Todo("read book");
+        tasks.add(todo);
+        journaled.saveAdd(tasks, todo);
+        tasks.get(0).markAsDone();
+        journaled.saveMark(tasks, 0);
+        journaled.flush();
+
+        ArrayList<Task> loadedTasks = new Storage(TEST_FILE_PATH, true).load();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("X", loadedTasks.get(0).getStatusIcon());
+        journaled.close();
+    }
+
+    @Test
+    public void testWriteBehindCoalescesBurst() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        journaled.startWriteBehind();
+
+        for (int i = 0; i < 50; i++) {
+            Todo todo = new Todo("task " + i);
+            tasks.add(todo);
+            journaled.saveAdd(tasks, todo);
+        }
+        journaled.close();
+
+        assertTrue(journaled.getWriteBehind().get().getWriteCount() < 50);
+        assertEquals(50, new Storage(TEST_FILE_PATH, true).load().size());
+    }
+
+    @Test
+    public void testSaveDiscardsQueuedWriteBehindRecords() throws JettVarkisException {
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> tasks = journaled.load();
+        journaled.startWriteBehind();
+
+        Todo todo = new Todo("read book");
+        tasks.add(todo);
+        journaled.saveAdd(tasks, todo);
+        journaled.save(tasks);
+        journaled.close();
+
+        assertEquals(1, new Storage(TEST_FILE_PATH, true).load().size());
+    }
+
+    @Test
+    public void testBinarySaveAndLoadPreservesTasks() throws JettVarkisException {
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        LocalDateTime by = LocalDateTime.of(2025, 3, 14, 18, 30);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read | book \u00e9"));
+        tasks.add(new Deadline("return book", by));
+        tasks.add(new Deadline("submit essay", "next friday"));
+        tasks.add(new Event("conference", by, by.plusDays(2)));
+        tasks.get(1).markAsDone();
+        binary.save(tasks);
+
+        assertTrue(BinaryTaskReader.isBinary(new File(TEST_FILE_PATH)));
+        ArrayList<Task> loadedTasks = binary.load();
+        assertEquals(tasks, loadedTasks);
+        assertEquals("X", loadedTasks.get(1).getStatusIcon());
+        assertEquals(by, ((Deadline) loadedTasks.get(1)).getBy().get());
+    }
+
+    @Test
+    public void testRecurringTasksAreSavedAsSingleRecords() throws JettVarkisException {
+        LocalDateTime start = LocalDateTime.of(2025, 9, 1, 9, 30);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new RecurringEvent("standup", start, start.plusMinutes(15),
+                new Recurrence(Recurrence.Frequency.DAILY)));
+        tasks.add(new RecurringDeadline("pay rent", start,
+                new Recurrence(Recurrence.Frequency.MONTHLY, start.plusYears(1))));
+        tasks.get(1).markAsDone();
+
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, format).save(tasks);
+            assertEquals(tasks, new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, format).load());
+        }
+        new File(TEST_FILE_PATH).delete();
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> journaledTasks = journaled.load();
+        for (Task task : tasks) {
+            journaledTasks.add(task);
+            journaled.saveAdd(journaledTasks, task);
+        }
+        assertEquals(tasks, new Storage(TEST_FILE_PATH, true).load());
+    }
+
+    @Test
+    public void testTaskIdsSurviveSaveAndLoad() throws JettVarkisException {
+        LocalDateTime by = LocalDateTime.of(2025, 3, 14, 18, 30);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", by));
+        tasks.add(new Event("conference", by, by.plusDays(2)));
+        tasks.add(new Todo("no id yet"));
+        tasks.get(0).setId(7);
+        tasks.get(1).setId(42);
+        tasks.get(2).setId(Long.MAX_VALUE);
+        tasks.get(1).markAsDone();
+
+        for (TaskFileFormat format : TaskFileFormat.values()) {
+            new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, format).save(tasks);
+            for (List<Task> loadedTasks : List.of(new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, format).load(),
+                    new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, format).loadLazily())) {
+                assertEquals(tasks, loadedTasks);
+                assertEquals(7, loadedTasks.get(0).getId());
+                assertEquals(42, loadedTasks.get(1).getId());
+                assertEquals("X", loadedTasks.get(1).getStatusIcon());
+                assertEquals(Long.MAX_VALUE, loadedTasks.get(2).getId());
+                assertFalse(loadedTasks.get(3).hasId());
+            }
+        }
+
+        new File(TEST_FILE_PATH).delete();
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        ArrayList<Task> journaledTasks = journaled.load();
+        journaledTasks.add(tasks.get(1));
+        journaled.saveAdd(journaledTasks, tasks.get(1));
+        assertEquals(42, new Storage(TEST_FILE_PATH, true).load().get(0).getId());
+    }
+
+    @Test
+    public void testLoadTextFileWithAndWithoutIds() throws IOException, JettVarkisException {
+        writeFile(TEST_FILE_PATH, "3 | T | 1 | read book\nD | 0 | return book | next friday\n");
+
+        ArrayList<Task> tasks = storage.load();
+
+        assertEquals(2, tasks.size());
+        assertEquals(3, tasks.get(0).getId());
+        assertEquals("X", tasks.get(0).getStatusIcon());
+        assertFalse(tasks.get(1).hasId());
+    }
+
+    @Test
+    public void testLoadMigratesTextFileToBinary() throws IOException, JettVarkisException {
+        writeFile(TEST_FILE_PATH, "T | 1 | read book\nD | 0 | return book | next friday\n");
+        Storage binary = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+
+        ArrayList<Task> tasks = binary.load();
+
+        assertEquals(2, tasks.size());
+        assertTrue(BinaryTaskReader.isBinary(new File(TEST_FILE_PATH)));
+        assertEquals(tasks, new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY).load());
+    }
+
+    @Test
+    public void testTextStorageLoadsBinaryFile() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY).save(tasks);
+
+        assertEquals(tasks, storage.load());
+        assertFalse(BinaryTaskReader.isBinary(new File(TEST_FILE_PATH)));
+    }
+
+    @Test
+    public void testLoadTruncatedBinaryFileIsCorrupted() throws IOException, JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+        try (RandomAccessFile file = new RandomAccessFile(TEST_FILE_PATH, "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        JettVarkisException e = assertThrows(JettVarkisException.class, () -> binary.load());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR, e.getErrorType());
+    }
+
+    @Test
+    public void testLoadBinaryDeadlineWithBadDateIsCorrupted() throws IOException, JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Deadline("submit report", LocalDateTime.of(2025, 9, 15, 18, 0)));
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+        long length = new File(TEST_FILE_PATH).length();
+
+        // The due date is the last field, so cutting into it leaves fewer than 8 bytes to skip
+        try (RandomAccessFile file = new RandomAccessFile(TEST_FILE_PATH, "rw")) {
+            file.setLength(length - 3);
+        }
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR,
+                assertThrows(JettVarkisException.class, () -> binary.loadLazily()).getErrorType());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR,
+                assertThrows(JettVarkisException.class, () -> binary.load()).getErrorType());
+
+        try (RandomAccessFile file = new RandomAccessFile(TEST_FILE_PATH, "rw")) {
+            file.seek(length - Long.BYTES);
+            file.writeLong(Long.MAX_VALUE);
+        }
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR,
+                assertThrows(JettVarkisException.class, () -> binary.loadLazily()).getErrorType());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR,
+                assertThrows(JettVarkisException.class, () -> binary.load()).getErrorType());
+    }
+
+    @Test
+    public void testMappedReaderHandlesLinesAcrossChunks() throws IOException, JettVarkisException {
+        StringBuilder content = new StringBuilder("# generation 7\r\n");
+        for (int i = 0; i < 100; i++) {
+            content.append("T | ").append(i % 2).append(" | task \u00e9 ").append(i).append("\r\n");
+        }
+        content.append("E | 0 | camp | tomorrow | sunday");
+        writeFile(TEST_FILE_PATH, content.toString());
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        int generation = new MappedTaskFileReader(37).read(new File(TEST_FILE_PATH), tasks);
+
+        assertEquals(7, generation);
+        assertEquals(101, tasks.size());
+        assertEquals("task \u00e9 99", tasks.get(99).getDescription());
+        assertEquals("X", tasks.get(99).getStatusIcon());
+        assertEquals(new Event("camp", "tomorrow", "sunday"), tasks.get(100));
+    }
+
+    @Test
+    public void testLoadLineWithTooFewFieldsIsCorrupted() throws IOException {
+        writeFile(TEST_FILE_PATH, "T | 0 | read book\n42 | T | 1\n");
+
+        JettVarkisException e = assertThrows(JettVarkisException.class, () -> new Storage(TEST_FILE_PATH).load());
+        assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR, e.getErrorType());
+    }
+
+    @Test
+    public void testMappedReaderRejectsLineLongerThanChunk() throws IOException {
+        writeFile(TEST_FILE_PATH, "T | 0 | a description that does not fit\n");
+
+        assertThrows(JettVarkisException.class,
+                () -> new MappedTaskFileReader(16).read(new File(TEST_FILE_PATH), new ArrayList<>()));
+    }
+
+    @Test
+    public void testLoadMapsLargeTextFile() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new Deadline("task " + i, "day " + i));
+        }
+        storage.save(tasks);
+
+        assertTrue(new File(TEST_FILE_PATH).length() >= MappedTaskFileReader.MAPPING_THRESHOLD_BYTES);
+        assertEquals(tasks, storage.load());
+    }
+
+    @Test
+    public void testParallelLoadPreservesTaskOrder() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 60000; i++) {
+            tasks.add(i % 2 == 0 ? new Todo("task " + i) : new Deadline("task " + i, "day " + i));
+        }
+        Storage journaled = new Storage(TEST_FILE_PATH, true);
+        journaled.save(tasks);
+        assertTrue(new File(TEST_FILE_PATH).length() >= MappedTaskFileReader.PARALLEL_THRESHOLD_BYTES);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            journaled.setLoadPool(pool);
+            assertEquals(tasks, journaled.load());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelLoadReportsCorruptedLine() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 60000; i++) {
+            content.append(i == 45000 ? "X | 0 | unknown type" : "T | 0 | task " + i).append('\n');
+        }
+        writeFile(TEST_FILE_PATH, content.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            storage.setLoadPool(pool);
+            JettVarkisException e = assertThrows(JettVarkisException.class, () -> storage.load());
+            assertEquals(JettVarkisException.ErrorType.CORRUPTED_DATA_ERROR, e.getErrorType());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoadLazilyDecodesTasksOnAccess() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Deadline("task " + i, LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i)));
+        }
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+
+        LazyTaskList lazyTasks = (LazyTaskList) binary.loadLazily();
+        assertEquals(1000, lazyTasks.size());
+        assertEquals(0, lazyTasks.getMaterializedCount());
+        assertEquals(tasks.get(500), lazyTasks.get(500));
+        assertEquals(1, lazyTasks.getMaterializedCount());
+        assertEquals(tasks, lazyTasks);
+    }
+
+    @Test
+    public void testLazyTasksWithIdsAreNotDecodedToCheckForMissingIds() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+            tasks.get(i).setId(i + 1);
+        }
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+        LazyTaskList lazyTasks = (LazyTaskList) binary.loadLazily();
+        assertFalse(new TaskList(lazyTasks).assignMissingIds());
+        assertEquals(0, lazyTasks.getMaterializedCount());
+
+        tasks.add(new Todo("task without id"));
+        binary.save(tasks);
+        lazyTasks = (LazyTaskList) binary.loadLazily();
+        assertTrue(new TaskList(lazyTasks).assignMissingIds());
+        assertEquals(101, lazyTasks.get(100).getId());
+    }
+
+    @Test
+    public void testRemindersDecodeOnlyTasksThatMayFallDue() throws JettVarkisException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Deadline("task " + i, start.plusHours(i)));
+        }
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", "someday"));
+        tasks.add(new Event("conference", start.plusHours(2000), start.plusHours(2010)));
+        tasks.add(new RecurringDeadline("pay rent", start, new Recurrence(Recurrence.Frequency.MONTHLY)));
+        Deadline done = new Deadline("file taxes", start.plusHours(3000));
+        done.markAsDone();
+        tasks.add(done);
+        new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY).save(tasks);
+
+        LazyTaskList lazyTasks = (LazyTaskList) new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER,
+                TaskFileFormat.BINARY).loadLazily();
+        Clock clock = Clock.fixed(start.plusHours(990).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReminderScheduler reminders = new ReminderScheduler(task -> { }, Duration.ZERO, 1000, clock);
+        new TaskList(lazyTasks).setReminderScheduler(reminders);
+
+        // Deadlines 991 to 999, the conference and the rent are the only tasks still to come
+        assertEquals(11, reminders.getPendingCount());
+        assertEquals(11, lazyTasks.getMaterializedCount());
+    }
+
+    @Test
+    public void testSaveOverLargeLazilyLoadedFile() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new Todo("archived task " + i));
+        }
+        Storage binary = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+        assertTrue(new File(TEST_FILE_PATH).length() >= MappedTaskFileReader.MAPPING_THRESHOLD_BYTES);
+
+        // The lazy list keeps reading the old file's rows after the save has renamed a new file over it
+        List<Task> lazyTasks = binary.loadLazily();
+        lazyTasks.remove(0);
+        binary.save(lazyTasks);
+        Todo todo = new Todo("new task");
+        lazyTasks.add(todo);
+        binary.saveAdd(lazyTasks, todo);
+        assertTrue(binary.compactJournal());
+        assertEquals("archived task 4999", lazyTasks.get(4998).getDescription());
+        assertEquals(lazyTasks, new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY).load());
+    }
+
+    @Test
+    public void testLoadLazilyReplaysJournal() throws JettVarkisException {
+        Storage binary = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        binary.save(tasks);
+        tasks.get(3).markAsDone();
+        binary.saveMark(tasks, 3);
+        tasks.remove(0);
+        binary.saveDelete(tasks, 0);
+
+        List<Task> lazyTasks = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY)
+                .loadLazily();
+        assertEquals(tasks, lazyTasks);
+        assertEquals("X", lazyTasks.get(2).getStatusIcon());
+    }
+
+    @Test
+    public void testBulkUpdatesAreJournaledAsRanges() throws IOException, JettVarkisException {
+        Storage binary = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        binary.save(tasks);
+        // Deleted from the back, as a bulk delete records them: 9, then 7 down to 4, then 1
+        tasks.subList(9, 10).clear();
+        tasks.subList(4, 8).clear();
+        tasks.remove(1);
+        binary.saveDelete(tasks, 9, 7, 6, 5, 4, 1);
+
+        List<String> records = Files.readAllLines(new File(TEST_JOURNAL_PATH).toPath());
+        assertEquals(List.of("DELETE | 9", "DELETE | 4-7", "DELETE | 1"), records.subList(1, records.size()));
+        tasks.forEach(Task::markAsDone);
+        tasks.get(2).markAsUndone();
+        binary.saveMark(tasks, 0, 1, 2, 3);
+        binary.saveUnmark(tasks, 2);
+        records = Files.readAllLines(new File(TEST_JOURNAL_PATH).toPath());
+        assertEquals(List.of("MARK | 0-3", "UNMARK | 2"), records.subList(4, records.size()));
+        List<Task> lazyTasks = new Storage(TEST_FILE_PATH, true, FsyncPolicy.NEVER, TaskFileFormat.BINARY)
+                .loadLazily();
+        assertEquals(tasks, lazyTasks);
+        assertEquals(tasks, new Storage(TEST_FILE_PATH, true).load());
+    }
+
+    @Test
+    public void testLazyListRemovesRangeWithoutDecoding() throws JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+
+        LazyTaskList lazyTasks = (LazyTaskList) binary.loadLazily();
+        lazyTasks.get(50);
+        lazyTasks.subList(10, 90).clear();
+        tasks.subList(10, 90).clear();
+
+        assertEquals(20, lazyTasks.size());
+        assertEquals(0, lazyTasks.getMaterializedCount());
+        assertEquals(tasks, lazyTasks);
+    }
+
+    @Test
+    public void testLoadLazilyRejectsTruncatedFile() throws IOException, JettVarkisException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("return book"));
+        Storage binary = new Storage(TEST_FILE_PATH, false, FsyncPolicy.NEVER, TaskFileFormat.BINARY);
+        binary.save(tasks);
+        try (RandomAccessFile file = new RandomAccessFile(TEST_FILE_PATH, "rw")) {
+            file.setLength(file.length() - 2);
+        }
+
+        assertThrows(JettVarkisException.class, () -> binary.loadLazily());
+    }
+
     @Test
     public void testGetTriviaCategories() {
         List<String> categories = storage.getTriviaCategories();
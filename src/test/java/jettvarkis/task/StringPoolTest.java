@@ -0,0 +1,37 @@
+package jettvarkis.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class StringPoolTest {
+
+    @Test
+    public void testEqualStringsShareOneCopy() {
+        StringPool pool = new StringPool(16);
+        String first = pool.intern(new String("standup"));
+        String second = pool.intern(new String("standup"));
+
+        assertSame(first, second);
+        assertSame(first, pool.intern(first));
+        assertEquals(null, pool.intern(null));
+        assertEquals(3, pool.getLookupCount());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(StringPool.estimateBytes("standup"), pool.getSavedBytes());
+        assertTrue(StringPool.estimateBytes("café ☕") > StringPool.estimateBytes("café c"));
+    }
+
+    @Test
+    public void testStringTakesOverItsSlot() {
+        StringPool pool = new StringPool(1);
+        String standup = pool.intern(new String("standup"));
+        pool.intern("review PR");
+
+        // With a single slot, the later string has replaced the first rather than the pool growing
+        assertTrue(standup != pool.intern(new String("standup")));
+        assertEquals(0, pool.getHitCount());
+        assertEquals(1, pool.getCapacity());
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -172,6 +173,23 @@ public class TaskTest {
         assertNotEquals(deadline1, deadline3);
     }
 
+    @Test
+    public void testEqualTasksHaveEqualHashCodes() {
+        LocalDateTime from = LocalDateTime.of(2025, 8, 27, 14, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 8, 27, 16, 0);
+        Todo todo = new Todo("read book");
+        Todo doneTodo = new Todo("read book");
+        doneTodo.markAsDone();
+
+        assertEquals(todo.hashCode(), doneTodo.hashCode());
+        assertEquals(new Deadline("submit report", from).hashCode(),
+                new Deadline("submit report", from).hashCode());
+        assertEquals(new Deadline("submit report", "friday").hashCode(),
+                new Deadline("submit report", "friday").hashCode());
+        assertEquals(new Event("meeting", from, to).hashCode(), new Event("meeting", from, to).hashCode());
+        assertEquals(new Event("meeting", "mon", "tue").hashCode(), new Event("meeting", "mon", "tue").hashCode());
+    }
+
     @Test
     public void testDeadlineEqualsMixedTypes() {
         LocalDateTime dateTime = LocalDateTime.of(2025, 8, 27, 14, 0);
@@ -318,4 +336,53 @@ public class TaskTest {
         todo.markAsUndone(); // Should still be undone
         assertEquals(" ", todo.getStatusIcon());
     }
+
+    @Test
+    public void testRecurringDeadlineOccurrencesDoNotDrift() {
+        Recurrence monthly = new Recurrence(Recurrence.Frequency.MONTHLY, LocalDateTime.of(2025, 6, 1, 0, 0));
+        RecurringDeadline rent = new RecurringDeadline("pay rent", LocalDateTime.of(2025, 1, 31, 9, 0), monthly);
+
+        assertEquals(LocalDateTime.of(2025, 1, 31, 9, 0),
+                rent.findNextOccurrence(LocalDateTime.of(2025, 1, 1, 0, 0)).get().getBy().get());
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0),
+                rent.findNextOccurrence(LocalDateTime.of(2025, 2, 1, 0, 0)).get().getBy().get());
+        assertEquals(LocalDateTime.of(2025, 3, 31, 9, 0),
+                rent.findOccurrenceAfter(LocalDateTime.of(2025, 2, 28, 9, 0)).get().getBy().get());
+        assertEquals(LocalDateTime.of(2025, 5, 31, 9, 0),
+                rent.findNextOccurrence(LocalDateTime.of(2025, 5, 31, 9, 0)).get().getBy().get());
+        assertTrue(rent.findOccurrenceAfter(LocalDateTime.of(2025, 5, 31, 9, 0)).isEmpty());
+
+        rent.markAsDone();
+        assertEquals("X", rent.findNextOccurrence(LocalDateTime.of(2025, 4, 1, 0, 0)).get().getStatusIcon());
+    }
+
+    @Test
+    public void testRecurringEventFindsOnlyOccurrencesInRange() {
+        LocalDateTime from = LocalDateTime.of(2025, 9, 1, 9, 30);
+        RecurringEvent standup = new RecurringEvent("standup", from, from.plusMinutes(30),
+                new Recurrence(Recurrence.Frequency.WEEKLY));
+
+        List<Event> occurrences = standup.findOccurrences(LocalDateTime.of(2125, 9, 3, 9, 45),
+                LocalDateTime.of(2125, 9, 20, 0, 0));
+        assertEquals(3, occurrences.size());
+        assertEquals(LocalDateTime.of(2125, 9, 3, 9, 30), occurrences.get(0).getFrom().get());
+        assertEquals(LocalDateTime.of(2125, 9, 3, 10, 0), occurrences.get(0).getTo().get());
+        assertEquals(LocalDateTime.of(2125, 9, 17, 9, 30), occurrences.get(2).getFrom().get());
+        assertTrue(standup.findOccurrences(from.plusMinutes(30), from.plusDays(7)).isEmpty());
+    }
+
+    @Test
+    public void testRecurringTaskStrings() {
+        LocalDateTime by = LocalDateTime.of(2025, 8, 27, 18, 0);
+        RecurringDeadline report = new RecurringDeadline("report", by,
+                new Recurrence(Recurrence.Frequency.WEEKLY, by.plusWeeks(4)));
+        RecurringEvent gym = new RecurringEvent("gym", by, by.plusHours(1), new Recurrence(Recurrence.Frequency.DAILY));
+
+        assertEquals("[D][ ] report (by: Aug 27 2025, 6:00PM) (every week until Sep 24 2025, 6:00PM)",
+                report.toString());
+        assertEquals("D | 0 | report | 2025-08-27T18:00 | every week until 2025-09-24T18:00", report.toFileString());
+        assertEquals("E | 0 | gym | 2025-08-27T18:00 | 2025-08-27T19:00 | every day", gym.toFileString());
+        assertNotEquals(report, new Deadline("report", by));
+        assertNotEquals(report, new RecurringDeadline("report", by, new Recurrence(Recurrence.Frequency.WEEKLY)));
+    }
 }